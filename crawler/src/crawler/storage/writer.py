@@ -2,6 +2,8 @@ import json
 from pathlib import Path
 from typing import Dict
 
+MANIFEST_NAME = "crawl_manifest.jsonl"
+
 
 def write_job_artifact(
     output_dir: Path,
@@ -16,3 +18,6 @@ def write_job_artifact(
     meta_path = output_dir / f"{source}_{item_id}_meta.json"
     html_path.write_text(html, encoding="utf-8")
     meta_path.write_text(json.dumps(meta, ensure_ascii=False, indent=2), encoding="utf-8")
+    # The same metadata as one line of the directory's manifest, which the orchestrator reads once per directory.
+    with (output_dir / MANIFEST_NAME).open("a", encoding="utf-8") as manifest:
+        manifest.write(json.dumps({"file": html_path.name, **meta}, ensure_ascii=False) + "\n")
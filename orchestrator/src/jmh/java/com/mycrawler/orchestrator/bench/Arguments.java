@@ -0,0 +1,37 @@
+package com.mycrawler.orchestrator.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Minimal {@code --name value} parser for the benchmark command-line tools. */
+final class Arguments {
+    private final Map<String, String> values;
+
+    private Arguments(Map<String, String> values) {
+        this.values = values;
+    }
+
+    static Arguments parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value pairs, got: " + args[i]);
+            }
+            values.put(args[i].substring(2), args[++i]);
+        }
+        return new Arguments(values);
+    }
+
+    String get(String name, String defaultValue) {
+        String value = values.get(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    String require(String name) {
+        String value = values.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+}
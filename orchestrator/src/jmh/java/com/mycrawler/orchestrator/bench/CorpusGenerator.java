@@ -0,0 +1,157 @@
+package com.mycrawler.orchestrator.bench;
+
+import com.mycrawler.orchestrator.run.CrawlFiles;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Writes a synthetic crawl corpus of {@code pages} HTML + meta pairs. Page sizes follow a fixed
+ * small/medium/huge mix chosen per page index, so the same arguments always produce the same tree.
+ * Large corpora are split into {@code part-NNNNN} subdirectories of {@code perDir} pages each, and
+ * {@code compression} writes every artifact as {@code .gz} or {@code .zst}, {@code jsonLd} percent of the
+ * pages embed a schema.org JobPosting, and {@code manifest} puts the metadata of each directory in one crawl
+ * manifest instead of a {@code _meta.json} per page.
+ *
+ * <pre>gradle generateCorpus -Pcorpus.dir=/data/corpus-100k -Pcorpus.pages=100000</pre>
+ */
+public final class CorpusGenerator {
+    static final String MARKER = "corpus.properties";
+
+    private final int pages;
+    private final int[] mix;
+    private final int perDir;
+    private final long seed;
+    private final CrawlFiles.Compression compression;
+    private final int jsonLd;
+    private final boolean manifest;
+
+    public CorpusGenerator(int pages, int[] mix, int perDir, long seed, CrawlFiles.Compression compression) {
+        this(pages, mix, perDir, seed, compression, 0, false);
+    }
+
+    public CorpusGenerator(int pages, int[] mix, int perDir, long seed, CrawlFiles.Compression compression,
+                           int jsonLd, boolean manifest) {
+        if (mix.length != 3 || IntStream.of(mix).sum() <= 0) {
+            throw new IllegalArgumentException("mix needs three non-negative weights for small,medium,huge");
+        }
+        this.pages = pages;
+        this.mix = mix.clone();
+        this.perDir = perDir;
+        this.seed = seed;
+        this.compression = compression;
+        this.jsonLd = jsonLd;
+        this.manifest = manifest;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = Arguments.parse(args);
+        Path out = Path.of(arguments.require("out"));
+        CorpusGenerator generator = fromArguments(arguments);
+        long start = System.nanoTime();
+        boolean written = generator.ensure(out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%s %d pages in %s (%.1fs)%n",
+                written ? "Generated" : "Reused", generator.pages, out, seconds);
+    }
+
+    static CorpusGenerator fromArguments(Arguments arguments) {
+        String[] weights = arguments.get("mix", "80,19,1").split(",");
+        int[] mix = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            mix[i] = Integer.parseInt(weights[i].trim());
+        }
+        return new CorpusGenerator(
+                Integer.parseInt(arguments.get("pages", "10000")),
+                mix,
+                Integer.parseInt(arguments.get("per-dir", "10000")),
+                Long.parseLong(arguments.get("seed", "42")),
+                CrawlFiles.Compression.valueOf(arguments.get("compression", "none").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(arguments.get("json-ld", "0")),
+                switch (arguments.get("meta", "files")) {
+                    case "files" -> false;
+                    case "manifest" -> true;
+                    default -> throw new IllegalArgumentException("--meta must be files or manifest");
+                });
+    }
+
+    /** Generates the corpus unless {@code out} already holds one written with the same settings. */
+    public boolean ensure(Path out) throws IOException {
+        Properties expected = describe();
+        Path marker = out.resolve(MARKER);
+        if (Files.exists(marker)) {
+            Properties existing = new Properties();
+            try (Reader reader = Files.newBufferedReader(marker)) {
+                existing.load(reader);
+            }
+            if (existing.equals(expected)) {
+                return false;
+            }
+        }
+        generate(out);
+        try (Writer writer = Files.newBufferedWriter(marker)) {
+            expected.store(writer, "synthetic crawl corpus");
+        }
+        return true;
+    }
+
+    public void generate(Path out) throws IOException {
+        Files.createDirectories(out);
+        Files.deleteIfExists(out.resolve(MARKER));
+        SyntheticCorpus corpus = new SyntheticCorpus(seed, jsonLd);
+        AtomicInteger written = new AtomicInteger();
+        try {
+            IntStream.rangeClosed(1, pages).parallel().forEach(index -> {
+                try {
+                    Path dir = perDir > 0 ? out.resolve(String.format(Locale.ROOT, "part-%05d", (index - 1) / perDir)) : out;
+                    Files.createDirectories(dir);
+                    corpus.writePage(dir, sizeOf(index), index, compression, !manifest);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                int done = written.incrementAndGet();
+                if (done % 50_000 == 0) {
+                    System.out.printf(Locale.ROOT, "  %d / %d pages%n", done, pages);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        if (manifest) {
+            int dirPages = perDir > 0 ? perDir : pages;
+            for (int first = 1; first <= pages; first += dirPages) {
+                Path dir = perDir > 0 ? out.resolve(String.format(Locale.ROOT, "part-%05d", (first - 1) / perDir)) : out;
+                corpus.writeManifest(dir, first, Math.min(pages, first + dirPages - 1), compression);
+            }
+        }
+    }
+
+    SyntheticCorpus.PageSize sizeOf(int index) {
+        int total = mix[0] + mix[1] + mix[2];
+        // Scramble the index so sizes are spread evenly instead of in runs.
+        int bucket = Math.floorMod(Long.hashCode((index + seed) * 0x9E3779B97F4A7C15L), total);
+        if (bucket < mix[0]) {
+            return SyntheticCorpus.PageSize.SMALL;
+        }
+        return bucket < mix[0] + mix[1] ? SyntheticCorpus.PageSize.MEDIUM : SyntheticCorpus.PageSize.HUGE;
+    }
+
+    private Properties describe() {
+        Properties properties = new Properties();
+        properties.setProperty("pages", Integer.toString(pages));
+        properties.setProperty("mix", mix[0] + "," + mix[1] + "," + mix[2]);
+        properties.setProperty("perDir", Integer.toString(perDir));
+        properties.setProperty("seed", Long.toString(seed));
+        properties.setProperty("compression", compression.name());
+        properties.setProperty("jsonLd", Integer.toString(jsonLd));
+        properties.setProperty("meta", manifest ? "manifest" : "files");
+        return properties;
+    }
+}
@@ -0,0 +1,138 @@
+package com.mycrawler.orchestrator.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.run.JobPosting;
+import com.mycrawler.orchestrator.run.ParquetFile;
+import com.mycrawler.orchestrator.service.ExportService;
+import com.mycrawler.orchestrator.service.ExtractionService;
+import com.mycrawler.orchestrator.service.StageMetrics;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Postings per company and municipality over an export of {@link #POSTINGS} postings, read from jobs.jsonl (every
+ * field of every line is parsed) and from the two columns of jobs.parquet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportScanBenchmark {
+    private static final int POSTINGS = 20_000;
+    private static final int PAGES = 50;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path dir;
+    private Path exportDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("export-scan-bench");
+        Path corpusDir = dir.resolve("corpus");
+        Files.createDirectories(corpusDir);
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        ExtractionService extractionService = new ExtractionService(objectMapper);
+        List<JobPosting> pages = new ArrayList<>();
+        for (int i = 1; i <= PAGES; i++) {
+            Path htmlPath = corpus.writePage(corpusDir, SyntheticCorpus.PageSize.MEDIUM, i);
+            pages.add(extractionService.extractFromHtml(htmlPath));
+        }
+        try (ExportService.ExportSink sink = new ExportService(objectMapper)
+                .openExport(dir.resolve("exports"), "bench", StageMetrics.NOOP, false)) {
+            for (int i = 0; i < POSTINGS; i++) {
+                JobPosting posting = pages.get(i % PAGES);
+                posting.setJobId("bench-" + i);
+                sink.write(posting);
+            }
+            sink.commit();
+        }
+        exportDir = dir.resolve("exports").resolve("bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, Integer> jsonl() throws IOException {
+        Map<String, Integer> counts = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(exportDir.resolve("jobs.jsonl"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode posting = objectMapper.readTree(line);
+                counts.merge(posting.path("companyName").asText() + "|"
+                        + posting.path("locationMunicipality").asText(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public Map<String, Integer> columns() throws IOException {
+        Map<String, Integer> counts = new HashMap<>();
+        ParquetReadOptions options = ParquetReadOptions.builder(new PlainParquetConfiguration())
+                .withCodecFactory(ParquetFile.zstdCodecs(0))
+                .build();
+        try (ParquetFileReader reader = ParquetFileReader.open(
+                new LocalInputFile(exportDir.resolve("jobs.parquet")), options)) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            MessageType projection = new MessageType(schema.getName(),
+                    schema.getType("company_name"), schema.getType("location_municipality"));
+            reader.setRequestedSchema(projection);
+            MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(projection, schema);
+            PageReadStore rowGroup;
+            while ((rowGroup = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> records = columnIO.getRecordReader(rowGroup, new GroupRecordConverter(projection));
+                for (long row = 0; row < rowGroup.getRowCount(); row++) {
+                    Group record = records.read();
+                    counts.merge(string(record, 0) + "|" + string(record, 1), 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static String string(Group record, int field) {
+        return record.getFieldRepetitionCount(field) == 0 ? null : record.getString(field, 0);
+    }
+}
@@ -0,0 +1,174 @@
+package com.mycrawler.orchestrator.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.run.CrawlFiles;
+import com.mycrawler.orchestrator.run.CrawlManifest;
+import com.mycrawler.orchestrator.run.DuplicateIndex;
+import com.mycrawler.orchestrator.run.HtmlPreprocessor;
+import com.mycrawler.orchestrator.run.JobPosting;
+import com.mycrawler.orchestrator.run.MetaData;
+import com.mycrawler.orchestrator.run.MetaParser;
+import com.mycrawler.orchestrator.run.PreprocessedDocument;
+import com.mycrawler.orchestrator.run.SimpleExtractor;
+import com.mycrawler.orchestrator.run.SiteRules;
+import com.mycrawler.orchestrator.run.TermDictionary;
+import com.mycrawler.orchestrator.service.ExportService;
+import com.mycrawler.orchestrator.service.ExtractionCache;
+import com.mycrawler.orchestrator.service.ExtractionService;
+import com.mycrawler.orchestrator.service.StageMetrics;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-stage throughput of the extraction hot path over small, medium and huge job pages.
+ * Run with {@code gradle jmh}; the task adds the GC profiler so allocation rate is reported too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public SyntheticCorpus.PageSize pageSize;
+
+    @Param({"LEAN", "FULL"})
+    public HtmlPreprocessor.Mode htmlMode;
+
+    private Path corpusDir;
+    private Path htmlPath;
+    private Path jsonLdPath;
+    private Path metaPath;
+    private HtmlPreprocessor preprocessor;
+    private MetaParser metaParser;
+    private CrawlManifest.Directories crawlManifests;
+    private SimpleExtractor extractor;
+    private ExtractionService extractionService;
+    private ExtractionService cachedExtractionService;
+    private ExportService exportService;
+    private SiteRules.Site site;
+    private PreprocessedDocument document;
+    private MetaData meta;
+    private JobPosting posting;
+    private ExportService.ExportSink sink;
+    private DuplicateIndex duplicateIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        corpusDir = Files.createTempDirectory("extraction-bench");
+        htmlPath = new SyntheticCorpus(42).writePage(corpusDir, pageSize, 1);
+        jsonLdPath = new SyntheticCorpus(42, 100).writePage(corpusDir, pageSize, 2);
+        metaPath = htmlPath.resolveSibling(htmlPath.getFileName().toString().replace(".html", "_meta.json"));
+        ObjectMapper objectMapper = new ObjectMapper();
+        preprocessor = new HtmlPreprocessor(htmlMode, HtmlPreprocessor.DEFAULT_MAX_BYTES,
+                HtmlPreprocessor.DEFAULT_MAX_TEXT_CHARS);
+        metaParser = new MetaParser(objectMapper);
+        new SyntheticCorpus(42).writeManifest(corpusDir, 1, 2, CrawlFiles.Compression.NONE);
+        crawlManifests = new CrawlManifest.Directories(metaParser);
+        extractor = new SimpleExtractor(TermDictionary.defaults(objectMapper));
+        extractionService = new ExtractionService(objectMapper, preprocessor);
+        cachedExtractionService = new ExtractionService(objectMapper, preprocessor,
+                new ExtractionCache(objectMapper, corpusDir.resolve("cache"), 64L * 1024 * 1024));
+        cachedExtractionService.extractFromHtml(htmlPath);
+        exportService = new ExportService(objectMapper);
+        document = preprocessor.preprocess(htmlPath);
+        meta = metaParser.parse(metaPath);
+        posting = extractor.extract(document, meta);
+        site = SiteRules.defaults(objectMapper).forUrl(meta.url());
+    }
+
+    @Setup(Level.Iteration)
+    public void openSink() throws IOException {
+        // Without duplicate linking, which would skip every write of the same posting after the first.
+        sink = exportService.openExport(corpusDir.resolve("exports"), "bench", StageMetrics.NOOP, false);
+        duplicateIndex = new DuplicateIndex(DuplicateIndex.DEFAULT_MIN_SIMILARITY);
+        duplicateIndex.add(posting);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeSink() throws IOException {
+        sink.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(corpusDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public PreprocessedDocument preprocess() throws IOException {
+        return preprocessor.preprocess(htmlPath);
+    }
+
+    /** The same traversal as {@link #preprocess()} with the page's site rules matched along the way. */
+    @Benchmark
+    public PreprocessedDocument preprocessWithSiteRules() throws IOException {
+        return preprocessor.preprocess(preprocessor.read(htmlPath, null), site);
+    }
+
+    @Benchmark
+    public MetaData metaParse() throws IOException {
+        return metaParser.parse(metaPath);
+    }
+
+    /** The same metadata from the directory's crawl manifest, loaded on the first call. */
+    @Benchmark
+    public MetaData metaFromManifest() {
+        return crawlManifests.forPage(htmlPath).get(htmlPath);
+    }
+
+    @Benchmark
+    public JobPosting extract() {
+        return extractor.extract(document, meta);
+    }
+
+    @Benchmark
+    public long exportWrite() throws IOException {
+        sink.write(posting);
+        return sink.count();
+    }
+
+    /** MinHash signature and LSH lookup of one posting, which here always finds its earlier copy. */
+    @Benchmark
+    public DuplicateIndex.Match duplicateCheck() {
+        return duplicateIndex.add(posting);
+    }
+
+    @Benchmark
+    public JobPosting extractFromHtml() throws IOException {
+        return extractionService.extractFromHtml(htmlPath);
+    }
+
+    /** The same page with a JSON-LD JobPosting in its head, which skips Jsoup altogether. */
+    @Benchmark
+    public JobPosting extractFromHtmlJsonLd() throws IOException {
+        return extractionService.extractFromHtml(jsonLdPath);
+    }
+
+    @Benchmark
+    public JobPosting extractFromHtmlCacheHit() throws IOException {
+        return cachedExtractionService.extractFromHtml(htmlPath);
+    }
+}
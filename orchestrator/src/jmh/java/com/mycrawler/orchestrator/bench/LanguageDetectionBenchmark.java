@@ -0,0 +1,58 @@
+package com.mycrawler.orchestrator.bench;
+
+import com.mycrawler.orchestrator.run.HtmlPreprocessor;
+import com.mycrawler.orchestrator.run.LanguageDetector;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link LanguageDetector#detect} on a search query and on the text of a medium synthetic page, of
+ * which only the first {@code MAX_CHARS} chars are scored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LanguageDetectionBenchmark {
+    private static final String[] QUERIES = {
+            "kesätyö opiskelija Uusimaa", "summer job student Helsinki", "sommarjobb för studerande Esbo",
+            "harjoittelija markkinointi", "software developer internship"};
+
+    private LanguageDetector detector;
+    private String document;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        detector = LanguageDetector.defaults();
+        Path dir = Files.createTempDirectory("language-bench");
+        Path htmlPath = new SyntheticCorpus(42).writePage(dir, SyntheticCorpus.PageSize.MEDIUM, 1);
+        document = new HtmlPreprocessor().preprocess(htmlPath).text();
+    }
+
+    @Benchmark
+    public String query() {
+        next = (next + 1) % QUERIES.length;
+        return detector.detect(QUERIES[next], "fi");
+    }
+
+    @Benchmark
+    public String document() {
+        return detector.detect(document);
+    }
+}
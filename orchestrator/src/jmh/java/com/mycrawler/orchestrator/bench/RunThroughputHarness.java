@@ -0,0 +1,174 @@
+package com.mycrawler.orchestrator.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mycrawler.orchestrator.OrchestratorApplication;
+import com.mycrawler.orchestrator.db.RunEntity;
+import com.mycrawler.orchestrator.db.RunRepository;
+import com.mycrawler.orchestrator.db.RunStatus;
+import com.mycrawler.orchestrator.db.RunType;
+import com.mycrawler.orchestrator.dto.RunResponse;
+import com.mycrawler.orchestrator.dto.StartRunRequest;
+import com.mycrawler.orchestrator.service.ExtractionCache;
+import com.mycrawler.orchestrator.service.RunService;
+import com.mycrawler.orchestrator.service.StageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * End-to-end FULL run benchmark: generates (or reuses) a synthetic corpus, boots the orchestrator
+ * without a web server against a fresh H2 file database, runs one FULL run over the corpus and
+ * reports files/sec, per-file latency percentiles, peak heap and on-disk database size.
+ * Everything stays on the local filesystem, so it runs offline.
+ *
+ * <pre>gradle throughput -Pcorpus.pages=100000 -Pbench.jvmArgs="-Xmx2g"</pre>
+ */
+public final class RunThroughputHarness {
+    private static final List<RunStatus> FINISHED = List.of(RunStatus.COMPLETED, RunStatus.FAILED, RunStatus.CANCELLED, RunStatus.REJECTED);
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = Arguments.parse(args);
+        Path corpusDir = Path.of(arguments.require("corpus"));
+        Path workDir = Path.of(arguments.require("work"));
+
+        CorpusGenerator generator = CorpusGenerator.fromArguments(arguments);
+        long generateStart = System.nanoTime();
+        if (generator.ensure(corpusDir)) {
+            System.out.printf(Locale.ROOT, "Generated corpus in %.1fs%n", (System.nanoTime() - generateStart) / 1e9);
+        }
+        deleteRecursively(workDir);
+        Files.createDirectories(workDir);
+
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.main.web-application-type", "none");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.datasource.url", "jdbc:h2:file:" + workDir.resolve("db/orchestrator").toAbsolutePath());
+        properties.put("runs.recovery.enabled", "false");
+        properties.put("extraction.cache.dir", workDir.resolve("extraction-cache").toAbsolutePath());
+        properties.put("logging.level.com.mycrawler", "WARN");
+        properties.put("management.metrics.distribution.percentiles." + StageMetrics.FILE_LATENCY_TIMER, "0.5,0.99");
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        RunEntity finished;
+        // Passed as command-line arguments so they win over application.yml and environment variables.
+        String[] springArgs = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrchestratorApplication.class)
+                .run(springArgs)) {
+            RunService runService = context.getBean(RunService.class);
+            RunRepository runRepository = context.getBean(RunRepository.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long sampledPeak = 0;
+
+            RunResponse run = runService.startRun(new StartRunRequest(
+                    "2026-01-17",
+                    corpusDir.toAbsolutePath().toString(),
+                    workDir.resolve("runs").toAbsolutePath().toString(),
+                    workDir.resolve("exports").toAbsolutePath().toString(),
+                    false,
+                    null,
+                    null,
+                    null));
+            System.out.printf(Locale.ROOT, "Started run %d over %s%n", run.id(), corpusDir);
+            long lastReport = System.nanoTime();
+            while (true) {
+                finished = runRepository.findById(run.id()).orElseThrow();
+                if (FINISHED.contains(finished.getStatus())) {
+                    break;
+                }
+                sampledPeak = Math.max(sampledPeak, Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+                if (System.nanoTime() - lastReport > TimeUnit.SECONDS.toNanos(10)) {
+                    System.out.printf(Locale.ROOT, "  %.0f files persisted%n", filesProcessed(registry));
+                    lastReport = System.nanoTime();
+                }
+                Thread.sleep(200);
+            }
+
+            double files = filesProcessed(registry);
+            Duration elapsed = Duration.between(finished.getStartedAt(), finished.getFinishedAt());
+            Timer latency = registry.find(StageMetrics.FILE_LATENCY_TIMER).tag("run_type", RunType.FULL.name()).timer();
+            long poolPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+            report.put("runId", run.id());
+            report.put("status", finished.getStatus().name());
+            report.put("files", (long) files);
+            report.put("seconds", elapsed.toMillis() / 1000.0);
+            report.put("filesPerSecond", elapsed.isZero() ? 0 : files / (elapsed.toMillis() / 1000.0));
+            if (latency != null) {
+                for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+                    String name = percentile.percentile() == 0.5 ? "p50Millis" : "p99Millis";
+                    report.put(name, percentile.value(TimeUnit.MILLISECONDS));
+                }
+            }
+            ExtractionCache cache = context.getBean(ExtractionCache.class);
+            report.put("cacheHits", cache.hits());
+            report.put("cacheMisses", cache.misses());
+            report.put("peakHeapMb", Math.max(poolPeak, sampledPeak) / (1024.0 * 1024.0));
+            report.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024.0 * 1024.0));
+        }
+        // H2 compacts the file on close, so measure afterwards.
+        report.put("dbSizeMb", directorySize(workDir.resolve("db")) / (1024.0 * 1024.0));
+        report.put("rawExtractionsMb", directorySize(workDir.resolve("runs")) / (1024.0 * 1024.0));
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path reportPath = workDir.resolve("throughput.json");
+        objectMapper.writeValue(reportPath.toFile(), report);
+        System.out.println();
+        report.forEach((name, value) -> System.out.printf(Locale.ROOT, "%-18s %s%n", name,
+                value instanceof Double number ? String.format(Locale.ROOT, "%.2f", number) : value));
+        System.out.println("Report written to " + reportPath);
+        if (finished.getStatus() != RunStatus.COMPLETED) {
+            System.exit(1);
+        }
+    }
+
+    private static double filesProcessed(MeterRegistry registry) {
+        return registry.find(StageMetrics.FILES_COUNTER).tag("run_type", RunType.FULL.name()).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
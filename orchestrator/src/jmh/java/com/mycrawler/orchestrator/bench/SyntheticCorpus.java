@@ -0,0 +1,205 @@
+package com.mycrawler.orchestrator.bench;
+
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import com.mycrawler.orchestrator.run.CrawlFiles;
+import com.mycrawler.orchestrator.run.CrawlManifest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Deterministic job pages in the layout the crawler writes ({@code crawler/storage/writer.py}):
+ * {@code <source>_<id>.html} next to {@code <source>_<id>_meta.json} with url, crawl_time and source, or with
+ * those fields in one {@code crawl_manifest.jsonl} per directory.
+ */
+public final class SyntheticCorpus {
+    public enum PageSize {
+        SMALL(2, 0, 2),
+        MEDIUM(12, 40, 12),
+        HUGE(60, 1200, 120);
+
+        private final int paragraphs;
+        private final int listingCards;
+        private final int scripts;
+
+        PageSize(int paragraphs, int listingCards, int scripts) {
+            this.paragraphs = paragraphs;
+            this.listingCards = listingCards;
+            this.scripts = scripts;
+        }
+    }
+
+    private static final String[] SOURCES = {"mol.fi", "duunitori.fi", "oikotie.fi", "te-palvelut.fi"};
+    private static final String[] TITLES = {
+            "Kesätyöntekijä asiakaspalveluun", "Myyjä, osa-aikainen", "Summer Trainee, Finance",
+            "Varastotyöntekijä", "Sommarjobb inom kundtjänst", "Junior Software Developer"};
+    private static final String[] COMPANIES = {"Example Oy", "Kauppa Ab", "Logistiikka Oy", "Nordic Tech Oy"};
+    private static final String[] CITIES = {"Helsinki", "Espoo", "Vantaa", "Tampere", "Turku", "Oulu"};
+    private static final String[] WORDS = {
+            "haemme", "kesätyöntekijää", "asiakaspalvelu", "tiimi", "kokemus", "opiskelija", "työaika",
+            "palkka", "hakemus", "osaaminen", "we", "offer", "students", "flexible", "hours", "customer",
+            "service", "vi", "söker", "sommarjobb", "erfarenhet", "Excel", "SQL", "ajokortti", "B-ajokortti"};
+
+    private final long seed;
+    private final int jsonLdPercent;
+    private final String crawlTime;
+
+    public SyntheticCorpus(long seed) {
+        this(seed, 0);
+    }
+
+    /** @param jsonLdPercent share of pages that embed a schema.org JobPosting as JSON-LD */
+    public SyntheticCorpus(long seed, int jsonLdPercent) {
+        this.seed = seed;
+        this.jsonLdPercent = jsonLdPercent;
+        this.crawlTime = "2026-01-17T06:00:00+00:00";
+    }
+
+    /** Writes {@code count} pages of one size and returns the directory they were written to. */
+    public Path write(Path dir, PageSize size, int count) throws IOException {
+        Files.createDirectories(dir);
+        for (int i = 1; i <= count; i++) {
+            writePage(dir, size, i);
+        }
+        return dir;
+    }
+
+    /** Page {@code index} is the same for a given seed regardless of which thread writes it. */
+    public Path writePage(Path dir, PageSize size, int index) throws IOException {
+        return writePage(dir, size, index, CrawlFiles.Compression.NONE);
+    }
+
+    public Path writePage(Path dir, PageSize size, int index, CrawlFiles.Compression compression) throws IOException {
+        return writePage(dir, size, index, compression, true);
+    }
+
+    /** @param metaFile write the page's {@code _meta.json}; without it the page is left to a crawl manifest */
+    public Path writePage(Path dir, PageSize size, int index, CrawlFiles.Compression compression, boolean metaFile)
+            throws IOException {
+        String source = source(index);
+        String itemId = itemId(index);
+        Path htmlPath = dir.resolve(source + "_" + itemId + ".html" + compression.suffix());
+        String url = url(index);
+        boolean jsonLd = Math.floorMod(Long.hashCode((index ^ seed) * 0xC2B2AE3D27D4EB4FL), 100) < jsonLdPercent;
+        write(htmlPath, html(size, url, new Random(seed * 1_000_003L + index), jsonLd), compression);
+        if (metaFile) {
+            Path metaPath = dir.resolve(source + "_" + itemId + "_meta.json" + compression.suffix());
+            write(metaPath, "{\n  \"url\": \"" + url + "\",\n  \"crawl_time\": \"" + crawlTime
+                    + "\",\n  \"source\": \"" + source + "\"\n}", compression);
+        }
+        return htmlPath;
+    }
+
+    /** Writes the {@link CrawlManifest} of pages {@code first..last} (inclusive) into {@code dir}. */
+    public void writeManifest(Path dir, int first, int last, CrawlFiles.Compression compression) throws IOException {
+        StringBuilder manifest = new StringBuilder();
+        for (int index = first; index <= last; index++) {
+            manifest.append("{\"file\":\"").append(source(index)).append('_').append(itemId(index))
+                    .append(".html\",\"url\":\"").append(url(index))
+                    .append("\",\"crawl_time\":\"").append(crawlTime)
+                    .append("\",\"source\":\"").append(source(index)).append("\"}\n");
+        }
+        write(dir.resolve(CrawlManifest.FILE_NAME + compression.suffix()), manifest.toString(), compression);
+    }
+
+    private static String source(int index) {
+        return SOURCES[index % SOURCES.length];
+    }
+
+    private static String itemId(int index) {
+        return String.format(Locale.ROOT, "%05d", index);
+    }
+
+    private static String url(int index) {
+        return "https://" + source(index) + "/jobs/" + itemId(index);
+    }
+
+    private static void write(Path path, String content, CrawlFiles.Compression compression) throws IOException {
+        OutputStream file = Files.newOutputStream(path);
+        try (OutputStream out = switch (compression) {
+            case NONE -> file;
+            case GZIP -> new GZIPOutputStream(file, 64 * 1024);
+            case ZSTD -> new ZstdOutputStreamNoFinalizer(file, 3);
+        }) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public String html(PageSize size, String url, Random random) {
+        return html(size, url, random, false);
+    }
+
+    /** Pages without JSON-LD draw the same random values either way, so they do not change with the share. */
+    public String html(PageSize size, String url, Random random, boolean jsonLd) {
+        String title = pick(random, TITLES);
+        String company = pick(random, COMPANIES);
+        StringBuilder html = new StringBuilder(1024);
+        html.append("<!DOCTYPE html><html lang=\"fi\"><head><meta charset=\"utf-8\">")
+                .append("<title>").append(title).append(" | ").append(company).append("</title>")
+                .append("<link rel=\"canonical\" href=\"").append(url).append("\">")
+                .append("<style>body{font-family:sans-serif}.card{margin:4px;padding:8px}.nav a{color:#036}</style>");
+        if (jsonLd) {
+            html.append("<script type=\"application/ld+json\">{\"@context\":\"https://schema.org\",")
+                    .append("\"@type\":\"JobPosting\",\"title\":\"").append(title).append("\",")
+                    .append("\"description\":\"<p>").append(sentence(random, 60)).append("</p>\",")
+                    .append("\"hiringOrganization\":{\"@type\":\"Organization\",\"name\":\"").append(company)
+                    .append("\"},\"jobLocation\":{\"@type\":\"Place\",\"address\":{\"@type\":\"PostalAddress\",")
+                    .append("\"addressLocality\":\"").append(pick(random, CITIES)).append("\"}},")
+                    .append("\"validThrough\":\"2026-03-").append(10 + random.nextInt(20)).append("\",")
+                    .append("\"employmentType\":[\"PART_TIME\",\"TEMPORARY\"]}</script>");
+        }
+        for (int i = 0; i < size.scripts; i++) {
+            html.append("<script>window.__state").append(i).append("={items:[");
+            for (int j = 0; j < 40; j++) {
+                html.append("{id:").append(random.nextInt(1_000_000)).append(",v:\"").append(word(random)).append("\"},");
+            }
+            html.append("]};</script>");
+        }
+        html.append("</head><body><nav class=\"nav\">");
+        for (int i = 0; i < 25; i++) {
+            html.append("<a href=\"/cat/").append(i).append("\">").append(word(random)).append("</a>");
+        }
+        html.append("</nav><main><article><h1>").append(title).append("</h1>")
+                .append("<div class=\"company\">").append(pick(random, COMPANIES)).append("</div>")
+                .append("<div class=\"location\">").append(pick(random, CITIES)).append("</div>");
+        for (int i = 0; i < size.paragraphs; i++) {
+            html.append("<p>").append(sentence(random, 40 + random.nextInt(60))).append("</p>");
+        }
+        html.append("<ul>");
+        for (int i = 0; i < 6; i++) {
+            html.append("<li>").append(sentence(random, 8)).append("</li>");
+        }
+        html.append("</ul></article><aside>");
+        for (int i = 0; i < size.listingCards; i++) {
+            html.append("<div class=\"card\"><a href=\"/jobs/").append(random.nextInt(99999)).append("\">")
+                    .append(pick(random, TITLES)).append("</a><span>").append(pick(random, CITIES)).append("</span>")
+                    .append("<svg width=\"12\" height=\"12\"><path d=\"M0 0L12 12\"/></svg></div>");
+        }
+        html.append("</aside></main><footer>").append(sentence(random, 30)).append("</footer></body></html>");
+        return html.toString();
+    }
+
+    private String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(word(random));
+        }
+        return sentence.append('.').toString();
+    }
+
+    private String word(Random random) {
+        return pick(random, WORDS);
+    }
+
+    private String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
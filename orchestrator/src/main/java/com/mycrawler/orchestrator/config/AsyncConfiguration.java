@@ -1,18 +1,24 @@
 package com.mycrawler.orchestrator.config;
 
 import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class AsyncConfiguration {
+    /**
+     * Worker pool for runs. Queueing, priorities and per-type limits are handled by
+     * {@code RunScheduler}, which never hands this pool more runs than it has threads.
+     */
     @Bean(name = "runExecutor")
-    public Executor runExecutor() {
+    public Executor runExecutor(@Value("${runs.scheduler.threads:4}") int threads) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(Math.max(1, threads));
+        executor.setMaxPoolSize(Math.max(1, threads));
+        // A finishing run dispatches the next one before its own thread is free again.
+        executor.setQueueCapacity(Math.max(1, threads));
         executor.setThreadNamePrefix("run-");
         executor.initialize();
         return executor;
@@ -5,6 +5,8 @@ import com.mycrawler.orchestrator.dto.ReprocessRequest;
 import com.mycrawler.orchestrator.dto.RunResponse;
 import com.mycrawler.orchestrator.dto.RunSummary;
 import com.mycrawler.orchestrator.dto.StartRunRequest;
+import com.mycrawler.orchestrator.service.InvalidRunRequestException;
+import com.mycrawler.orchestrator.service.RunQueueFullException;
 import com.mycrawler.orchestrator.service.RunService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,8 +17,12 @@ import jakarta.validation.Valid;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -39,20 +45,23 @@ public class RunController {
     @Operation(summary = "Start a full extraction run")
     @ApiResponse(responseCode = "200", description = "Run created",
             content = @Content(schema = @Schema(implementation = RunResponse.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid request, such as a GZIP compression level above 9")
+    @ApiResponse(responseCode = "429", description = "Run queue full; the run is recorded as REJECTED",
+            content = @Content(schema = @Schema(implementation = RunResponse.class)))
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
             required = true,
             content = @Content(
                     mediaType = "application/json",
                     examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
                             name = "StartRunRequest",
-                            value = "{\"runDate\":\"2026-01-17\",\"inputDir\":\"/tmp/jobs/2026-01-17\",\"runsDir\":\"/tmp/runs\",\"exportsDir\":\"/tmp/exports\"}"
+                            value = "{\"runDate\":\"2026-01-17\",\"inputDir\":\"/tmp/jobs/2026-01-17\",\"runsDir\":\"/tmp/runs\",\"exportsDir\":\"/tmp/exports\",\"incremental\":false}"
                     )
             )
     )
     @PostMapping("/start")
     public ResponseEntity<RunResponse> startRun(@Valid @RequestBody StartRunRequest request) {
-        logger.info("Start run request: date={} inputDir={} runsDir={} exportsDir={}",
-                request.runDate(), request.inputDir(), request.runsDir(), request.exportsDir());
+        logger.info("Start run request: date={} inputDir={} runsDir={} exportsDir={} incremental={}",
+                request.runDate(), request.inputDir(), request.runsDir(), request.exportsDir(), request.incremental());
         RunResponse response = runService.startRun(request);
         logger.info("Start run response: id={} status={}", response.id(), response.status());
         return ResponseEntity.ok(response);
@@ -61,6 +70,9 @@ public class RunController {
     @Operation(summary = "Reprocess existing extractions")
     @ApiResponse(responseCode = "200", description = "Run created",
             content = @Content(schema = @Schema(implementation = RunResponse.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid request, such as a GZIP compression level above 9")
+    @ApiResponse(responseCode = "429", description = "Run queue full; the run is recorded as REJECTED",
+            content = @Content(schema = @Schema(implementation = RunResponse.class)))
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
             required = true,
             content = @Content(
@@ -83,6 +95,8 @@ public class RunController {
     @Operation(summary = "Apply review edits")
     @ApiResponse(responseCode = "200", description = "Run created",
             content = @Content(schema = @Schema(implementation = RunResponse.class)))
+    @ApiResponse(responseCode = "429", description = "Run queue full; the run is recorded as REJECTED",
+            content = @Content(schema = @Schema(implementation = RunResponse.class)))
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
             required = true,
             content = @Content(
@@ -102,6 +116,42 @@ public class RunController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Re-extract the files that failed in a FULL run")
+    @ApiResponse(responseCode = "200", description = "Run created",
+            content = @Content(schema = @Schema(implementation = RunResponse.class)))
+    @ApiResponse(responseCode = "429", description = "Run queue full; the run is recorded as REJECTED",
+            content = @Content(schema = @Schema(implementation = RunResponse.class)))
+    @ApiResponse(responseCode = "404", description = "No FULL run with this id")
+    @PostMapping("/{id}/retry-failed")
+    public ResponseEntity<RunResponse> retryFailed(@PathVariable Long id) {
+        logger.info("Retry failed request: sourceRunId={}", id);
+        return runService.retryFailed(id)
+                .map(response -> {
+                    logger.info("Retry failed response: id={} status={}", response.id(), response.status());
+                    return ResponseEntity.ok(response);
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Cancel a queued or running run")
+    @ApiResponse(responseCode = "202", description = "Run cancelled, or cancellation requested for a running run",
+            content = @Content(schema = @Schema(implementation = RunResponse.class)))
+    @ApiResponse(responseCode = "404", description = "No run with this id")
+    @ApiResponse(responseCode = "409", description = "Run already finished")
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<RunResponse> cancel(@PathVariable Long id) {
+        logger.info("Cancel run request: id={}", id);
+        return runService.cancel(id)
+                .map(response -> {
+                    logger.info("Cancel run response: id={} status={}", response.id(), response.status());
+                    return switch (response.status()) {
+                        case QUEUED, RUNNING, CANCELLED -> ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+                        default -> ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+                    };
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @Operation(summary = "Get run by id")
     @ApiResponse(responseCode = "200", description = "Run details",
             content = @Content(schema = @Schema(implementation = RunResponse.class)))
@@ -121,4 +171,19 @@ public class RunController {
         logger.info("List runs response: count={}", runs.size());
         return ResponseEntity.ok(runs);
     }
+
+    @ExceptionHandler(InvalidRunRequestException.class)
+    public ResponseEntity<ProblemDetail> invalidRequest(InvalidRunRequestException ex) {
+        logger.warn("Run request rejected: {}", ex.getMessage());
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage()));
+    }
+
+    @ExceptionHandler(RunQueueFullException.class)
+    public ResponseEntity<RunResponse> queueFull(RunQueueFullException ex) {
+        logger.warn("Run rejected: id={} {}", ex.getRun().id(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(ex.getRun());
+    }
 }
@@ -10,14 +10,19 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.Instant;
 
 @Entity
 @Table(name = "extraction_records")
 public class ExtractionRecord {
+    public static final String ID_SEQUENCE = "extraction_records_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -41,6 +46,9 @@ public class ExtractionRecord {
     @Column
     private String payloadJson;
 
+    @Column(length = 2000)
+    private String errorMessage;
+
     @Column(nullable = false)
     private Instant createdAt;
 
@@ -96,6 +104,14 @@ public class ExtractionRecord {
         this.payloadJson = payloadJson;
     }
 
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
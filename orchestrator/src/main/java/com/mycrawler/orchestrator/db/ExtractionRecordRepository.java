@@ -1,8 +1,58 @@
 package com.mycrawler.orchestrator.db;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ExtractionRecordRepository extends JpaRepository<ExtractionRecord, Long> {
     List<ExtractionRecord> findByRunIdOrderByCreatedAtAsc(Long runId);
+
+    @Query("select r.sourcePath from ExtractionRecord r where r.run.id = :runId and r.sourcePath in :sourcePaths")
+    List<String> findSourcePathsByRunIdAndSourcePathIn(@Param("runId") Long runId, @Param("sourcePaths") Collection<String> sourcePaths);
+
+    @Query("select r.sourcePath from ExtractionRecord r where r.run.id = :runId and r.status = :status")
+    List<String> findSourcePathsByRunIdAndStatus(@Param("runId") Long runId, @Param("status") ExtractionStatus status);
+
+    List<ExtractionRecord> findByRunIdAndStatus(Long runId, ExtractionStatus status);
+
+    long countByRunIdAndStatus(Long runId, ExtractionStatus status);
+
+    @Query("select r.sourcePath from ExtractionRecord r where r.run.id = :runId")
+    List<String> findSourcePathsByRunId(@Param("runId") Long runId);
+
+    @Query(value = "select next value for " + ExtractionRecord.ID_SEQUENCE, nativeQuery = true)
+    long nextIdBlock();
+
+    /** Locks the row with the largest id, if any, until the surrounding transaction ends, and returns its id. */
+    @Query(value = "select id from extraction_records where id = (select max(id) from extraction_records) for update",
+            nativeQuery = true)
+    Long lockMaxId();
+
+    @Modifying
+    @Transactional
+    @Query(value = "alter sequence " + ExtractionRecord.ID_SEQUENCE + " restart with :next", nativeQuery = true)
+    void restartIdSequence(@Param("next") long next);
+
+    /**
+     * Restarts the id sequence past the existing ids when it is behind them, as after the schema update of a database
+     * created while ids were IDENTITY columns. The row with the largest id stays locked meanwhile, so nodes starting
+     * together do this one at a time and only the first one restarts the sequence.
+     *
+     * @return whether the sequence was restarted
+     */
+    @Transactional
+    default boolean moveIdSequencePastExistingIds() {
+        Long maxId = lockMaxId();
+        // The pooled optimizer hands out the block of ids ending at each sequence value, so once this value is at or
+        // past the largest id every block fetched from now on is above it.
+        if (maxId == null || nextIdBlock() > maxId) {
+            return false;
+        }
+        restartIdSequence(maxId + ExtractionRecord.ID_ALLOCATION_SIZE + 1);
+        return true;
+    }
 }
@@ -0,0 +1,150 @@
+package com.mycrawler.orchestrator.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+@Entity
+@Table(name = "run_chunks", uniqueConstraints = @UniqueConstraint(columnNames = {"run_id", "chunkIndex"}))
+public class RunChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "run_id")
+    private RunEntity run;
+
+    @Column(nullable = false)
+    private int chunkIndex;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RunChunkStatus status;
+
+    @Column(nullable = false)
+    private int fileCount;
+
+    @Lob
+    @Column(nullable = false)
+    private String filePaths;
+
+    @Column
+    private String leaseOwner;
+
+    @Column
+    private Instant leaseExpiresAt;
+
+    @Column
+    private Integer attempts;
+
+    @Column(length = 2000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column
+    private Instant completedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public RunEntity getRun() {
+        return run;
+    }
+
+    public void setRun(RunEntity run) {
+        this.run = run;
+    }
+
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(int chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public RunChunkStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RunChunkStatus status) {
+        this.status = status;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public String getFilePaths() {
+        return filePaths;
+    }
+
+    public void setFilePaths(List<Path> paths) {
+        this.filePaths = String.join("\n", paths.stream().map(Path::toString).toList());
+        this.fileCount = paths.size();
+    }
+
+    public List<Path> paths() {
+        if (filePaths == null || filePaths.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(filePaths.split("\n")).map(Path::of).toList();
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public int getAttempts() {
+        return attempts == null ? 0 : attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycrawler.orchestrator.db;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface RunChunkRepository extends JpaRepository<RunChunk, Long> {
+    Optional<RunChunk> findByRunIdAndChunkIndex(Long runId, int chunkIndex);
+
+    @Query("select c.chunkIndex from RunChunk c where c.run.id = :runId")
+    List<Integer> findChunkIndexesByRunId(@Param("runId") Long runId);
+
+    long countByRunIdAndStatusIn(Long runId, Collection<RunChunkStatus> statuses);
+
+    List<RunChunk> findByRunIdAndStatusOrderByChunkIndex(Long runId, RunChunkStatus status);
+
+    @Query("""
+            select c.id from RunChunk c
+            where c.run.status = com.mycrawler.orchestrator.db.RunStatus.RUNNING
+              and (:runId is null or c.run.id = :runId)
+              and (c.status = com.mycrawler.orchestrator.db.RunChunkStatus.PENDING
+                   or (c.status = com.mycrawler.orchestrator.db.RunChunkStatus.CLAIMED and c.leaseExpiresAt < :now))
+            order by c.run.id, c.chunkIndex
+            """)
+    List<Long> findClaimableIds(@Param("runId") Long runId, @Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RunChunk c set c.status = com.mycrawler.orchestrator.db.RunChunkStatus.CLAIMED,
+                c.leaseOwner = :owner, c.leaseExpiresAt = :expiresAt, c.attempts = coalesce(c.attempts, 0) + 1
+            where c.id = :id
+              and (c.status = com.mycrawler.orchestrator.db.RunChunkStatus.PENDING
+                   or (c.status = com.mycrawler.orchestrator.db.RunChunkStatus.CLAIMED and c.leaseExpiresAt < :now))
+            """)
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RunChunk c set c.leaseExpiresAt = :expiresAt
+            where c.id = :id and c.leaseOwner = :owner
+              and c.status = com.mycrawler.orchestrator.db.RunChunkStatus.CLAIMED
+            """)
+    int renew(@Param("id") Long id, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RunChunk c set c.status = com.mycrawler.orchestrator.db.RunChunkStatus.COMPLETED,
+                c.leaseExpiresAt = null, c.completedAt = :now
+            where c.id = :id and c.leaseOwner = :owner
+              and c.status = com.mycrawler.orchestrator.db.RunChunkStatus.CLAIMED
+            """)
+    int complete(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RunChunk c set c.status = com.mycrawler.orchestrator.db.RunChunkStatus.PENDING,
+                c.leaseOwner = null, c.leaseExpiresAt = null, c.lastError = :error
+            where c.id = :id and c.leaseOwner = :owner
+              and c.status = com.mycrawler.orchestrator.db.RunChunkStatus.CLAIMED
+            """)
+    int release(@Param("id") Long id, @Param("owner") String owner, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RunChunk c set c.status = com.mycrawler.orchestrator.db.RunChunkStatus.FAILED,
+                c.leaseExpiresAt = null, c.lastError = :error, c.completedAt = :now
+            where c.id = :id and c.leaseOwner = :owner
+              and c.status = com.mycrawler.orchestrator.db.RunChunkStatus.CLAIMED
+            """)
+    int fail(@Param("id") Long id, @Param("owner") String owner, @Param("error") String error, @Param("now") Instant now);
+}
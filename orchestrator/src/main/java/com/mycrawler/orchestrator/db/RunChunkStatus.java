@@ -0,0 +1,8 @@
+package com.mycrawler.orchestrator.db;
+
+public enum RunChunkStatus {
+    PENDING,
+    CLAIMED,
+    COMPLETED,
+    FAILED
+}
@@ -1,5 +1,6 @@
 package com.mycrawler.orchestrator.db;
 
+import com.mycrawler.orchestrator.run.CrawlFiles;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -40,6 +41,31 @@ public class RunEntity {
     @Column
     private String reviewCsvPath;
 
+    @Column
+    private Boolean incremental;
+
+    @Column
+    private Long sourceRunId;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private CrawlFiles.Compression exportCompression;
+
+    @Column
+    private Integer exportCompressionLevel;
+
+    @Column
+    private Integer priority;
+
+    @Column
+    private Boolean cancelRequested;
+
+    @Column
+    private String leaseOwner;
+
+    @Column
+    private Instant leaseExpiresAt;
+
     @Column
     private String message;
 
@@ -112,6 +138,70 @@ public class RunEntity {
         this.reviewCsvPath = reviewCsvPath;
     }
 
+    public Boolean getIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(Boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public CrawlFiles.Compression getExportCompression() {
+        return exportCompression;
+    }
+
+    public void setExportCompression(CrawlFiles.Compression exportCompression) {
+        this.exportCompression = exportCompression;
+    }
+
+    public Integer getExportCompressionLevel() {
+        return exportCompressionLevel;
+    }
+
+    public void setExportCompressionLevel(Integer exportCompressionLevel) {
+        this.exportCompressionLevel = exportCompressionLevel;
+    }
+
+    public Long getSourceRunId() {
+        return sourceRunId;
+    }
+
+    public void setSourceRunId(Long sourceRunId) {
+        this.sourceRunId = sourceRunId;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public Boolean getCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void setCancelRequested(Boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
     public String getMessage() {
         return message;
     }
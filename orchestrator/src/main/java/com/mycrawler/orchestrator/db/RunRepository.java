@@ -1,6 +1,59 @@
 package com.mycrawler.orchestrator.db;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface RunRepository extends JpaRepository<RunEntity, Long> {
+    List<RunEntity> findByStatusInOrderByCreatedAtAsc(Collection<RunStatus> statuses);
+
+    @Query("""
+            select r.id from RunEntity r
+            where r.status = com.mycrawler.orchestrator.db.RunStatus.RUNNING
+              and (r.leaseExpiresAt is null or r.leaseExpiresAt < :now)
+            order by r.createdAt
+            """)
+    List<Long> findRunningWithExpiredLease(@Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RunEntity r set r.status = com.mycrawler.orchestrator.db.RunStatus.RUNNING,
+                r.leaseOwner = :owner, r.leaseExpiresAt = :expiresAt
+            where r.id = :id
+              and (r.status = com.mycrawler.orchestrator.db.RunStatus.QUEUED
+                   or (r.status = com.mycrawler.orchestrator.db.RunStatus.RUNNING
+                       and (r.leaseExpiresAt is null or r.leaseExpiresAt < :now)))
+            """)
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("update RunEntity r set r.leaseExpiresAt = :expiresAt where r.id = :id and r.leaseOwner = :owner")
+    int renew(@Param("id") Long id, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RunEntity r set r.status = com.mycrawler.orchestrator.db.RunStatus.CANCELLED,
+                r.message = :message, r.finishedAt = :now
+            where r.id = :id and r.status = com.mycrawler.orchestrator.db.RunStatus.QUEUED
+            """)
+    int cancelQueued(@Param("id") Long id, @Param("message") String message, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update RunEntity r set r.cancelRequested = true
+            where r.id = :id and r.status = com.mycrawler.orchestrator.db.RunStatus.RUNNING
+            """)
+    int requestCancel(@Param("id") Long id);
+
+    @Query("select r.cancelRequested from RunEntity r where r.id = :id")
+    Boolean findCancelRequestedById(@Param("id") Long id);
 }
@@ -4,5 +4,7 @@ public enum RunStatus {
     QUEUED,
     RUNNING,
     COMPLETED,
-    FAILED
+    FAILED,
+    CANCELLED,
+    REJECTED
 }
@@ -3,5 +3,6 @@ package com.mycrawler.orchestrator.db;
 public enum RunType {
     FULL,
     REPROCESS,
-    APPLY_REVIEW
+    APPLY_REVIEW,
+    RETRY_FAILED
 }
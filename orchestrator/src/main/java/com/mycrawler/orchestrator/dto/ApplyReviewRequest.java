@@ -10,6 +10,8 @@ public record ApplyReviewRequest(
         @Schema(description = "Review CSV path")
         @NotBlank String reviewCsvPath,
         @Schema(description = "Exports output directory")
-        @NotBlank String exportsDir
+        @NotBlank String exportsDir,
+        @Schema(description = "Scheduling priority; higher runs are started first", defaultValue = "20")
+        Integer priority
 ) {
 }
@@ -1,6 +1,9 @@
 package com.mycrawler.orchestrator.dto;
 
+import com.mycrawler.orchestrator.run.CrawlFiles;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 @Schema(description = "Request to reprocess existing extractions")
@@ -10,6 +13,12 @@ public record ReprocessRequest(
         @Schema(description = "Runs directory with raw extractions")
         @NotBlank String runsDir,
         @Schema(description = "Exports output directory")
-        @NotBlank String exportsDir
+        @NotBlank String exportsDir,
+        @Schema(description = "Compression of jobs.jsonl and jobs.csv (NONE, GZIP or ZSTD); the configured default when unset")
+        CrawlFiles.Compression exportCompression,
+        @Schema(description = "Compression level: 1-9 for GZIP, 1-22 for ZSTD; the configured or codec default when unset")
+        @Min(1) @Max(22) Integer exportCompressionLevel,
+        @Schema(description = "Scheduling priority; higher runs are started first", defaultValue = "20")
+        Integer priority
 ) {
 }
@@ -2,6 +2,7 @@ package com.mycrawler.orchestrator.dto;
 
 import com.mycrawler.orchestrator.db.RunStatus;
 import com.mycrawler.orchestrator.db.RunType;
+import com.mycrawler.orchestrator.run.CrawlFiles;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.Instant;
 
@@ -23,6 +24,16 @@ public record RunResponse(
         String exportsDir,
         @Schema(description = "Review CSV path")
         String reviewCsvPath,
+        @Schema(description = "Incremental FULL run")
+        Boolean incremental,
+        @Schema(description = "Run whose failed files a RETRY_FAILED run re-extracts")
+        Long sourceRunId,
+        @Schema(description = "Compression of jobs.jsonl and jobs.csv requested for the run")
+        CrawlFiles.Compression exportCompression,
+        @Schema(description = "Compression level requested for the run")
+        Integer exportCompressionLevel,
+        @Schema(description = "Scheduling priority")
+        Integer priority,
         @Schema(description = "Created at")
         Instant createdAt,
         @Schema(description = "Started at")
@@ -1,6 +1,9 @@
 package com.mycrawler.orchestrator.dto;
 
+import com.mycrawler.orchestrator.run.CrawlFiles;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 @Schema(description = "Request to start a full extraction run")
@@ -12,6 +15,14 @@ public record StartRunRequest(
         @Schema(description = "Runs output directory")
         @NotBlank String runsDir,
         @Schema(description = "Exports output directory")
-        @NotBlank String exportsDir
+        @NotBlank String exportsDir,
+        @Schema(description = "Only re-extract HTML that is new or changed since the last run for this input dir", defaultValue = "false")
+        Boolean incremental,
+        @Schema(description = "Compression of jobs.jsonl and jobs.csv (NONE, GZIP or ZSTD); the configured default when unset")
+        CrawlFiles.Compression exportCompression,
+        @Schema(description = "Compression level: 1-9 for GZIP, 1-22 for ZSTD; the configured or codec default when unset")
+        @Min(1) @Max(22) Integer exportCompressionLevel,
+        @Schema(description = "Scheduling priority; higher runs are started first", defaultValue = "0")
+        Integer priority
 ) {
 }
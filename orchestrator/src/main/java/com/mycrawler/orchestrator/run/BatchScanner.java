@@ -1,18 +1,254 @@
 package com.mycrawler.orchestrator.run;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 public class BatchScanner {
+    private static final Path END = Path.of(".scan-end");
+
+    private final int threads;
+    private final int queueCapacity;
+
+    public BatchScanner() {
+        this(1, 1024);
+    }
+
+    public BatchScanner(int threads, int queueCapacity) {
+        this.threads = Math.max(1, threads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
     public List<Path> scanHtmlFiles(Path inputDir) throws IOException {
         try (Stream<Path> stream = Files.walk(inputDir)) {
             return stream
-                    .filter(path -> path.toString().endsWith(".html"))
+                    .filter(BatchScanner::isHtml)
                     .sorted()
                     .toList();
         }
     }
+
+    /**
+     * Emits HTML files while the tree is still being listed. In ordered mode the walk is a
+     * lazy depth-first traversal that yields the same order as {@link #scanHtmlFiles(Path)};
+     * otherwise subdirectories are listed in parallel and files arrive in discovery order.
+     */
+    public HtmlFileStream streamHtmlFiles(Path inputDir, boolean ordered) {
+        if (!Files.isDirectory(inputDir)) {
+            throw new UncheckedIOException(new IOException("Input directory not found: " + inputDir));
+        }
+        return ordered ? new OrderedStream(inputDir) : new ParallelStream(inputDir, threads, queueCapacity);
+    }
+
+    private static boolean isHtml(Path path) {
+        return CrawlFiles.isHtml(path);
+    }
+
+    public interface HtmlFileStream extends Iterable<Path>, Closeable {
+        @Override
+        void close();
+    }
+
+    private static final class OrderedStream implements HtmlFileStream {
+        private static final Comparator<Path> PATH_ORDER = Comparator.comparing(OrderedStream::sortKey);
+        private final Path inputDir;
+
+        private OrderedStream(Path inputDir) {
+            this.inputDir = inputDir;
+        }
+
+        // Directories sort as "name/" so a depth-first walk matches a sort over full path strings.
+        private static String sortKey(Path path) {
+            String name = path.getFileName().toString();
+            return Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS) ? name + "/" : name;
+        }
+
+        @Override
+        public Iterator<Path> iterator() {
+            Deque<Iterator<Path>> stack = new ArrayDeque<>();
+            stack.push(list(inputDir));
+            return new Iterator<>() {
+                private Path next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && !stack.isEmpty()) {
+                        Iterator<Path> top = stack.peek();
+                        if (!top.hasNext()) {
+                            stack.pop();
+                            continue;
+                        }
+                        Path candidate = top.next();
+                        if (Files.isDirectory(candidate, LinkOption.NOFOLLOW_LINKS)) {
+                            stack.push(list(candidate));
+                        } else if (isHtml(candidate)) {
+                            next = candidate;
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Path next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Path result = next;
+                    next = null;
+                    return result;
+                }
+            };
+        }
+
+        private Iterator<Path> list(Path dir) {
+            List<Path> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                stream.forEach(entries::add);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            entries.sort(PATH_ORDER);
+            return entries.iterator();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class ParallelStream implements HtmlFileStream {
+        private final BlockingQueue<Path> queue;
+        private final ExecutorService executor;
+        private final AtomicInteger pendingDirs = new AtomicInteger(1);
+        private final AtomicReference<IOException> failure = new AtomicReference<>();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private boolean consumed;
+
+        private ParallelStream(Path inputDir, int threads, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "scan-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            submit(inputDir);
+        }
+
+        private void submit(Path dir) {
+            try {
+                executor.execute(() -> listDirectory(dir));
+            } catch (RejectedExecutionException ex) {
+                pendingDirs.decrementAndGet();
+            }
+        }
+
+        private void listDirectory(Path dir) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        pendingDirs.incrementAndGet();
+                        submit(entry);
+                    } else if (isHtml(entry)) {
+                        queue.put(entry);
+                    }
+                }
+            } catch (IOException ex) {
+                failure.compareAndSet(null, ex);
+            } catch (DirectoryIteratorException ex) {
+                failure.compareAndSet(null, ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                // A provider or security failure must still end the scan, or the consumer waits forever.
+                failure.compareAndSet(null, new IOException("Listing " + dir + " failed", ex));
+            } finally {
+                if (pendingDirs.decrementAndGet() == 0 || failure.get() != null) {
+                    finish();
+                }
+            }
+        }
+
+        private void finish() {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                queue.put(END);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            executor.shutdownNow();
+        }
+
+        @Override
+        public Iterator<Path> iterator() {
+            if (consumed) {
+                throw new IllegalStateException("Parallel scan can only be iterated once");
+            }
+            consumed = true;
+            return new Iterator<>() {
+                private Path next;
+                private boolean done;
+
+                @Override
+                public boolean hasNext() {
+                    if (next == null && !done) {
+                        try {
+                            Path taken = queue.take();
+                            if (taken == END) {
+                                done = true;
+                            } else {
+                                next = taken;
+                            }
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            throw new UncheckedIOException(new IOException("Scan interrupted", ex));
+                        }
+                    }
+                    if (done && failure.get() != null) {
+                        throw new UncheckedIOException(failure.get());
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Path next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Path result = next;
+                    next = null;
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+            queue.clear();
+        }
+    }
 }
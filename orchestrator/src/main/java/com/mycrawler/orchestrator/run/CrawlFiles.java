@@ -0,0 +1,146 @@
+package com.mycrawler.orchestrator.run;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Naming and decoding of crawl artifacts: {@code <source>_<id>.html} next to {@code <source>_<id>_meta.json},
+ * either of which may be gzip- ({@code .gz}) or zstd-compressed ({@code .zst}). Exports use the same compressions.
+ */
+public final class CrawlFiles {
+    private static final String HTML = ".html";
+    private static final String META = "_meta.json";
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_ZSTD_LEVEL = 22;
+
+    public enum Compression {
+        NONE(""),
+        GZIP(".gz"),
+        ZSTD(".zst");
+
+        private final String suffix;
+
+        Compression(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String suffix() {
+            return suffix;
+        }
+
+        /** The highest level {@link #compress} takes: 9 for gzip, 22 for zstd, which NONE also lets through. */
+        public int maxLevel() {
+            return this == GZIP ? Deflater.BEST_COMPRESSION : MAX_ZSTD_LEVEL;
+        }
+
+        public static Compression of(Path path) {
+            String name = path.getFileName().toString();
+            if (name.endsWith(GZIP.suffix)) {
+                return GZIP;
+            }
+            return name.endsWith(ZSTD.suffix) ? ZSTD : NONE;
+        }
+
+        /** Opens {@code path} and decompresses it while it is read. */
+        public InputStream open(Path path) throws IOException {
+            InputStream in = Files.newInputStream(path);
+            try {
+                return switch (this) {
+                    case NONE -> in;
+                    case GZIP -> new GZIPInputStream(in, GZIP_BUFFER_BYTES);
+                    case ZSTD -> new ZstdInputStreamNoFinalizer(in);
+                };
+            } catch (IOException | RuntimeException ex) {
+                in.close();
+                throw ex;
+            }
+        }
+
+        /**
+         * Wraps {@code out} to compress what is written to it; closing the result closes {@code out}.
+         *
+         * @param level compression level, 0 for the codec's default
+         * @throws IllegalArgumentException when {@code level} is negative or above {@link #maxLevel()}
+         */
+        public OutputStream compress(OutputStream out, int level) throws IOException {
+            if (level < 0 || level > maxLevel()) {
+                throw new IllegalArgumentException(this + " compression level must be in [0, " + maxLevel() + "]: "
+                        + level);
+            }
+            return switch (this) {
+                case NONE -> out;
+                case GZIP -> new LevelGzipOutputStream(out, level);
+                case ZSTD -> new ZstdOutputStreamNoFinalizer(out, level == 0 ? Zstd.defaultCompressionLevel() : level);
+            };
+        }
+    }
+
+    private static final class LevelGzipOutputStream extends GZIPOutputStream {
+        private LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, GZIP_BUFFER_BYTES);
+            def.setLevel(level == 0 ? Deflater.DEFAULT_COMPRESSION : level);
+        }
+    }
+
+    private CrawlFiles() {
+    }
+
+    public static boolean isHtml(Path path) {
+        String name = path.getFileName().toString();
+        for (Compression compression : Compression.values()) {
+            if (name.endsWith(HTML + compression.suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** File name without {@code .html} and any compression suffix: {@code <source>_<id>}. */
+    public static String stem(Path htmlPath) {
+        String name = htmlPath.getFileName().toString();
+        String suffix = Compression.of(htmlPath).suffix;
+        name = name.substring(0, name.length() - suffix.length());
+        return name.endsWith(HTML) ? name.substring(0, name.length() - HTML.length()) : name;
+    }
+
+    /**
+     * The page's {@code _meta.json}, compressed like the page if such a file exists, otherwise the first
+     * existing variant; the uncompressed name when there is none.
+     */
+    public static Path metaPath(Path htmlPath) {
+        Path plain = htmlPath.resolveSibling(stem(htmlPath) + META);
+        Path preferred = htmlPath.resolveSibling(plain.getFileName() + Compression.of(htmlPath).suffix);
+        return Files.exists(preferred) ? preferred : firstExisting(plain);
+    }
+
+    /** Reads a whole artifact, decompressing it if needed. */
+    public static byte[] readAllBytes(Path path) throws IOException {
+        Compression compression = Compression.of(path);
+        if (compression == Compression.NONE) {
+            return Files.readAllBytes(path);
+        }
+        try (InputStream in = compression.open(path)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /** The first existing of {@code plain} and its compressed variants; {@code plain} when there is none. */
+    public static Path firstExisting(Path plain) {
+        for (Compression compression : Compression.values()) {
+            Path candidate = plain.resolveSibling(plain.getFileName() + compression.suffix);
+            if (Files.exists(candidate)) {
+                return candidate;
+            }
+        }
+        return plain;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mycrawler.orchestrator.run;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The crawl metadata of a whole directory in one {@code crawl_manifest.jsonl} (optionally {@code .gz} or
+ * {@code .zst}): one JSON object per line with the page's {@code file} name and the fields of its
+ * {@code _meta.json}, e.g. {@code {"file":"duunitori_00001.html","url":"https://...","company":"Kauppa Oy"}}.
+ * It is read once and keyed by file stem (a later line for the same page wins, as when a crawl is appended), so a
+ * page listed in it needs no {@code _meta.json} lookup, open or decode; pages it does not list still fall back to
+ * their own {@code _meta.json}.
+ */
+public final class CrawlManifest {
+    public static final String FILE_NAME = "crawl_manifest.jsonl";
+    public static final CrawlManifest NONE = new CrawlManifest(Map.of());
+    private static final Logger logger = LoggerFactory.getLogger(CrawlManifest.class);
+
+    private final Map<String, MetaData> entries;
+
+    private CrawlManifest(Map<String, MetaData> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the manifest of {@code dir}, or {@link #NONE} when it has none. Lines that are not a JSON object with
+     * a {@code file} are skipped with a warning, leaving those pages to their {@code _meta.json}.
+     */
+    public static CrawlManifest load(MetaParser parser, Path dir) throws IOException {
+        Path path = find(dir);
+        if (path == null) {
+            return NONE;
+        }
+        byte[] content = CrawlFiles.readAllBytes(path);
+        Map<String, MetaData> entries = new HashMap<>();
+        int skipped = 0;
+        int start = 0;
+        while (start < content.length) {
+            int end = start;
+            while (end < content.length && content[end] != '\n') {
+                end++;
+            }
+            if (!isBlank(content, start, end)) {
+                try {
+                    MetaParser.Entry entry = parser.parse(content, start, end - start);
+                    if (entry.file() == null) {
+                        throw new IOException("No file name");
+                    }
+                    entries.put(CrawlFiles.stem(Path.of(entry.file())), entry.meta());
+                } catch (IOException | InvalidPathException ex) {
+                    logger.debug("Skipping line of {}: {}", path, ex.getMessage());
+                    skipped++;
+                }
+            }
+            start = end + 1;
+        }
+        if (skipped > 0) {
+            logger.warn("Skipped {} unusable lines of {}", skipped, path);
+        }
+        return new CrawlManifest(entries);
+    }
+
+    /** The page's metadata, or null when the manifest does not list it. */
+    public MetaData get(Path htmlPath) {
+        return entries.isEmpty() ? null : entries.get(CrawlFiles.stem(htmlPath));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static Path find(Path dir) {
+        for (CrawlFiles.Compression compression : CrawlFiles.Compression.values()) {
+            Path candidate = dir.resolve(FILE_NAME + compression.suffix());
+            if (Files.exists(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(byte[] content, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (content[i] != ' ' && content[i] != '\t' && content[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The manifests of the directories one run reads pages from, each loaded when its first page is extracted.
+     * Scoped to a run so that a manifest the crawler has since rewritten is read again by the next run; the most
+     * recently used {@link #MAX_DIRECTORIES} stay loaded. Thread-safe.
+     */
+    public static final class Directories {
+        static final int MAX_DIRECTORIES = 64;
+        private final MetaParser parser;
+        private final Map<Path, CrawlManifest> manifests = Collections.synchronizedMap(
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Path, CrawlManifest> eldest) {
+                        return size() > MAX_DIRECTORIES;
+                    }
+                });
+
+        public Directories(MetaParser parser) {
+            this.parser = parser;
+        }
+
+        /** The manifest of the page's directory, {@link #NONE} if it has none or it cannot be read. */
+        public CrawlManifest forPage(Path htmlPath) {
+            Path dir = htmlPath.toAbsolutePath().getParent();
+            return manifests.computeIfAbsent(dir, key -> {
+                try {
+                    CrawlManifest manifest = load(parser, key);
+                    if (manifest != NONE) {
+                        logger.info("Loaded crawl manifest of {} pages in {}", manifest.size(), key);
+                    }
+                    return manifest;
+                } catch (IOException ex) {
+                    logger.warn("Could not read crawl manifest in {}, using _meta.json files: {}", key, ex.getMessage());
+                    return NONE;
+                }
+            });
+        }
+    }
+}
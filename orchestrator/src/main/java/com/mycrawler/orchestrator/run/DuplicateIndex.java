@@ -0,0 +1,268 @@
+package com.mycrawler.orchestrator.run;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Finds near-duplicate postings, such as the same job re-posted on several boards with different markup. Each
+ * posting's title, company and summary are cut into 4-char shingles and summarised by a MinHash signature of
+ * {@link #HASHES} values, whose share of equal values estimates the Jaccard similarity of two shingle sets.
+ * Signatures are banded for locality-sensitive hashing ({@link #BANDS} bands of {@link #ROWS} values): only
+ * postings that agree on a whole band are compared, so one {@link #add} costs a few table lookups and a run is
+ * indexed in linear time. Pairs at similarity 0.8 share a band with probability 0.98, pairs at 0.3 with 0.06.
+ * <p>
+ * The first posting of a cluster is its canonical one; later duplicates link to it and are not indexed themselves,
+ * so every duplicate points at the same posting and is known to be one as soon as it is added. Clusters therefore
+ * depend on the order postings are added in, which must be repeatable for the results to be. Postings in different
+ * municipalities, or whose titles share less than half of the shorter title's words, are never duplicates: one
+ * template used for two stores or two roles is two jobs. Not thread-safe.
+ */
+public final class DuplicateIndex {
+    public static final double DEFAULT_MIN_SIMILARITY = 0.8;
+    static final int HASHES = 32;
+    static final int BANDS = 8;
+    static final int ROWS = HASHES / BANDS;
+    // Fewer shingles (a bare title) are too little text to call two postings the same job.
+    static final int MIN_SHINGLES = 24;
+    // Chain entries compared per band; keeps a band shared by many postings (boilerplate) from going quadratic.
+    private static final int MAX_CANDIDATES = 64;
+    // Multiply-shift hash family a * x + b; fixed seed so signatures are stable across runs.
+    private static final long[] MULTIPLIERS = new long[HASHES];
+    private static final long[] INCREMENTS = new long[HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5eedd0c5L);
+        for (int i = 0; i < HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            INCREMENTS[i] = random.nextLong();
+        }
+    }
+
+    /** A posting judged a duplicate of an earlier, canonical one, with their estimated Jaccard similarity. */
+    public record Match(String canonicalJobId, String canonicalSourceUrl, double similarity) {
+    }
+
+    private final int minEqualHashes;
+    private final int[] signature = new int[HASHES];
+    private int shingles;
+    private long titleWords;
+    // Canonical postings: signatures[canonical * HASHES + i] and band chains next[canonical * BANDS + band].
+    private int[] signatures = new int[64 * HASHES];
+    private int[] next = new int[64 * BANDS];
+    private String[] jobIds = new String[64];
+    private String[] sourceUrls = new String[64];
+    private String[] municipalities = new String[64];
+    private long[] titles = new long[64];
+    private int size;
+    // Open addressing from band key to the latest canonical with it; keys are never 0 (see bandKey).
+    private long[] bandKeys = new long[1024];
+    private int[] bandHeads = new int[1024];
+    private int bandEntries;
+
+    public DuplicateIndex(double minSimilarity) {
+        if (!(minSimilarity > 0 && minSimilarity <= 1)) {
+            throw new IllegalArgumentException("minSimilarity must be in (0, 1]: " + minSimilarity);
+        }
+        this.minEqualHashes = (int) Math.ceil(minSimilarity * HASHES);
+    }
+
+    /**
+     * Links {@code posting} to the most similar canonical posting at {@code minSimilarity} or above, or indexes
+     * it as a new canonical posting.
+     *
+     * @return the canonical posting it duplicates, or null when it is canonical itself (or too short to compare)
+     */
+    public Match add(JobPosting posting) {
+        sign(posting);
+        if (shingles < MIN_SHINGLES) {
+            return null;
+        }
+        String municipality = posting.getLocationMunicipality();
+        int best = -1;
+        int bestEqual = minEqualHashes - 1;
+        for (int band = 0; band < BANDS && bestEqual < HASHES; band++) {
+            int candidates = 0;
+            for (int canonical = head(bandKey(band)); canonical >= 0 && candidates < MAX_CANDIDATES;
+                 canonical = next[canonical * BANDS + band]) {
+                candidates++;
+                if (!sameMunicipality(municipality, municipalities[canonical])
+                        || !similarTitles(titleWords, titles[canonical])) {
+                    continue;
+                }
+                int equal = equalHashes(canonical);
+                if (equal > bestEqual) {
+                    best = canonical;
+                    bestEqual = equal;
+                }
+            }
+        }
+        if (best >= 0) {
+            return new Match(jobIds[best], sourceUrls[best], (double) bestEqual / HASHES);
+        }
+        insert(posting);
+        return null;
+    }
+
+    /** Canonical postings indexed so far. */
+    public int size() {
+        return size;
+    }
+
+    private static boolean sameMunicipality(String a, String b) {
+        return a == null || b == null || Objects.equals(a, b);
+    }
+
+    /** Title words are bits of a 64-bit set; the titles must share half the words of the shorter one. */
+    private static boolean similarTitles(long a, long b) {
+        int shorter = Math.min(Long.bitCount(a), Long.bitCount(b));
+        return shorter == 0 || Long.bitCount(a & b) * 2 >= shorter;
+    }
+
+    /**
+     * Computes the MinHash signature of a posting into {@link #signature}, counting its shingles, and the set of
+     * its title words into {@link #titleWords}.
+     */
+    private void sign(JobPosting posting) {
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        shingles = 0;
+        titleWords = titleWords(posting.getJobTitle());
+        long window = 0;
+        int filled = 0;
+        char previous = ' ';
+        for (String text : new String[] {posting.getJobTitle(), posting.getCompanyName(),
+                posting.getJobDescriptionSummary()}) {
+            if (text == null) {
+                continue;
+            }
+            // Lower-cased letters and digits, every run of other chars as one space; the window packs 4 chars.
+            for (int i = 0; i <= text.length(); i++) {
+                char c = i < text.length() ? text.charAt(i) : ' ';
+                c = Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : ' ';
+                if (c == ' ' && previous == ' ') {
+                    continue;
+                }
+                previous = c;
+                window = (window << 16) | c;
+                if (++filled >= 4) {
+                    addShingle(mix(window));
+                }
+            }
+        }
+    }
+
+    private static long titleWords(String title) {
+        if (title == null) {
+            return 0;
+        }
+        long words = 0;
+        long word = 0;
+        for (int i = 0; i <= title.length(); i++) {
+            char c = i < title.length() ? title.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word = word * 31 + Character.toLowerCase(c);
+            } else if (word != 0) {
+                words |= 1L << (mix(word) >>> 58);
+                word = 0;
+            }
+        }
+        return words;
+    }
+
+    private void addShingle(long hash) {
+        for (int i = 0; i < HASHES; i++) {
+            int value = (int) ((MULTIPLIERS[i] * hash + INCREMENTS[i]) >>> 32);
+            if (value < signature[i]) {
+                signature[i] = value;
+            }
+        }
+        shingles++;
+    }
+
+    private int equalHashes(int canonical) {
+        int base = canonical * HASHES;
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            equal += signatures[base + i] == signature[i] ? 1 : 0;
+        }
+        return equal;
+    }
+
+    private void insert(JobPosting posting) {
+        if (size == jobIds.length) {
+            int capacity = size * 2;
+            signatures = Arrays.copyOf(signatures, capacity * HASHES);
+            next = Arrays.copyOf(next, capacity * BANDS);
+            jobIds = Arrays.copyOf(jobIds, capacity);
+            sourceUrls = Arrays.copyOf(sourceUrls, capacity);
+            municipalities = Arrays.copyOf(municipalities, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+        }
+        System.arraycopy(signature, 0, signatures, size * HASHES, HASHES);
+        jobIds[size] = posting.getJobId();
+        sourceUrls[size] = posting.getSourceUrl();
+        municipalities[size] = posting.getLocationMunicipality();
+        titles[size] = titleWords;
+        for (int band = 0; band < BANDS; band++) {
+            next[size * BANDS + band] = putHead(bandKey(band), size);
+        }
+        size++;
+    }
+
+    // The band's values of the current signature and its number, hashed to a non-zero long; a collision only
+    // costs one comparison.
+    private long bandKey(int band) {
+        long key = band + 1;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            key = mix(key * 0x9E3779B97F4A7C15L + signature[i]);
+        }
+        return key == 0 ? 1 : key;
+    }
+
+    private int head(long key) {
+        int mask = bandKeys.length - 1;
+        for (int slot = (int) key & mask; bandKeys[slot] != 0; slot = (slot + 1) & mask) {
+            if (bandKeys[slot] == key) {
+                return bandHeads[slot];
+            }
+        }
+        return -1;
+    }
+
+    /** Makes {@code canonical} the head of the key's chain and returns the previous head, or -1. */
+    private int putHead(long key, int canonical) {
+        if (bandEntries * 2 >= bandKeys.length) {
+            long[] oldKeys = bandKeys;
+            int[] oldHeads = bandHeads;
+            bandKeys = new long[oldKeys.length * 2];
+            bandHeads = new int[oldKeys.length * 2];
+            bandEntries = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    putHead(oldKeys[slot], oldHeads[slot]);
+                }
+            }
+        }
+        int mask = bandKeys.length - 1;
+        int slot = (int) key & mask;
+        while (bandKeys[slot] != 0 && bandKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (bandKeys[slot] == key) {
+            int previous = bandHeads[slot];
+            bandHeads[slot] = canonical;
+            return previous;
+        }
+        bandKeys[slot] = key;
+        bandHeads[slot] = canonical;
+        bandEntries++;
+        return -1;
+    }
+
+    // SplitMix64 finaliser.
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,113 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-input-dir record of the HTML files a FULL run extracted: size, mtime and content hash,
+ * plus the extractor version that produced the raw extractions.
+ */
+public class ExtractionManifest {
+    private final Path manifestPath;
+    private final Path inputDir;
+    private final String extractorVersion;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private ExtractionManifest(Path manifestPath, Path inputDir, String extractorVersion, Map<String, Entry> previous) {
+        this.manifestPath = manifestPath;
+        this.inputDir = inputDir;
+        this.extractorVersion = extractorVersion;
+        this.previous = previous;
+    }
+
+    public static ExtractionManifest load(ObjectMapper objectMapper, Path manifestPath, Path inputDir, String extractorVersion) throws IOException {
+        Map<String, Entry> previous = Map.of();
+        if (Files.exists(manifestPath)) {
+            Document document = objectMapper.readValue(manifestPath.toFile(), Document.class);
+            boolean sameInput = inputDir.toAbsolutePath().normalize().toString().equals(document.inputDir());
+            if (sameInput && extractorVersion.equals(document.extractorVersion()) && document.files() != null) {
+                previous = document.files();
+            }
+        }
+        return new ExtractionManifest(manifestPath, inputDir, extractorVersion, previous);
+    }
+
+    public Entry fingerprint(Path htmlPath) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(htmlPath, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modifiedMillis = attributes.lastModifiedTime().toMillis();
+        Entry known = previous.get(key(htmlPath));
+        if (known != null && known.size() == size && known.modifiedMillis() == modifiedMillis) {
+            return known;
+        }
+        return new Entry(size, modifiedMillis, sha256(htmlPath));
+    }
+
+    public boolean isUnchanged(Path htmlPath, Entry entry) {
+        Entry known = previous.get(key(htmlPath));
+        return known != null && known.size() == entry.size() && known.sha256().equals(entry.sha256());
+    }
+
+    public void record(Path htmlPath, Entry entry) {
+        current.put(key(htmlPath), entry);
+    }
+
+    public int previousSize() {
+        return previous.size();
+    }
+
+    public void save(ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(manifestPath.getParent());
+        Path tmp = Files.createTempFile(manifestPath.getParent(), manifestPath.getFileName().toString(), ".tmp");
+        Document document = new Document(
+                inputDir.toAbsolutePath().normalize().toString(),
+                extractorVersion,
+                new TreeMap<>(current));
+        objectMapper.writeValue(tmp.toFile(), document);
+        try {
+            Files.move(tmp, manifestPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, manifestPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String key(Path htmlPath) {
+        return inputDir.relativize(htmlPath).toString();
+    }
+
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public record Entry(long size, long modifiedMillis, String sha256) {
+    }
+
+    public record Document(String inputDir, String extractorVersion, Map<String, Entry> files) {
+    }
+}
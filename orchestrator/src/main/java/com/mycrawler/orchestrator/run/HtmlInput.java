@@ -0,0 +1,274 @@
+package com.mycrawler.orchestrator.run;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Byte-level input for HTML pages. Plain files up to {@link #MAP_THRESHOLD_BYTES} are read into a per-thread
+ * pooled buffer, larger ones are memory-mapped; gzip and zstd pages are inflated into the pooled buffer in
+ * one streaming pass that stops at the byte limit. Either way the bytes are decoded straight into the
+ * parser's char buffer. The charset is sniffed in this order: byte order mark, UTF-8 if the bytes contain
+ * valid multi-byte UTF-8, the charset recorded in {@code _meta.json}, a {@code <meta>} declaration in the
+ * first 1024 bytes, then UTF-8 for valid input and windows-1252 for anything else.
+ */
+public final class HtmlInput {
+    static final int MAP_THRESHOLD_BYTES = 1024 * 1024;
+    private static final int POOLED_INITIAL_BYTES = 64 * 1024;
+    private static final int PRESCAN_BYTES = 1024;
+    private static final int VALIDATE_BYTES = 64 * 1024;
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+    private static final Pattern META_CHARSET = Pattern.compile(
+            "<meta[^>]+charset\\s*=\\s*[\"']?\\s*([a-z0-9_:.\\-]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CONTENT_TYPE_CHARSET = Pattern.compile(
+            "charset\\s*=\\s*[\"']?\\s*([a-z0-9_:.\\-]+)", Pattern.CASE_INSENSITIVE);
+    private static final ThreadLocal<ByteBuffer> POOL =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(POOLED_INITIAL_BYTES));
+
+    private HtmlInput() {
+    }
+
+    /**
+     * A page's bytes and the charset they decode with; {@code size} is the file size, or the number of bytes
+     * inflated for a compressed page. Pooled bytes belong to the calling thread and are
+     * only valid until its next {@link #read}, so a page has to be parsed before the thread reads another.
+     */
+    public record Page(ByteBuffer bytes, Charset charset, long size) {
+        public Reader reader() {
+            return new ByteBufferReader(bytes.duplicate(), charset);
+        }
+    }
+
+    /**
+     * @param declaredCharset charset recorded by the crawler, or null
+     * @param maxBytes        bytes of the file to read; the rest is ignored
+     */
+    public static Page read(Path htmlPath, String declaredCharset, long maxBytes) throws IOException {
+        CrawlFiles.Compression compression = CrawlFiles.Compression.of(htmlPath);
+        if (compression != CrawlFiles.Compression.NONE) {
+            ByteBuffer bytes = decompress(compression, htmlPath, maxBytes);
+            return new Page(bytes, sniff(bytes, declaredCharset), bytes.remaining());
+        }
+        ByteBuffer bytes;
+        long size;
+        try (FileChannel channel = FileChannel.open(htmlPath, StandardOpenOption.READ)) {
+            size = channel.size();
+            int limit = (int) Math.min(size, Math.min(maxBytes, Integer.MAX_VALUE));
+            if (limit > MAP_THRESHOLD_BYTES) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, limit);
+            } else {
+                bytes = pooled(limit);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // FileChannel may return short reads; keep going until the limit or end of file.
+                }
+                bytes.flip();
+            }
+        }
+        return new Page(bytes, sniff(bytes, declaredCharset), size);
+    }
+
+    /** Extracts the charset parameter of a Content-Type value, or returns the value itself if it is a charset name. */
+    public static String charsetFromContentType(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Matcher matcher = CONTENT_TYPE_CHARSET.matcher(value);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        return value.contains("/") ? null : value.trim();
+    }
+
+    /** Picks the charset and advances {@code bytes} past a byte order mark. */
+    static Charset sniff(ByteBuffer bytes, String declaredCharset) {
+        Charset bom = byteOrderMark(bytes);
+        if (bom != null) {
+            return bom;
+        }
+        Utf8 utf8 = validateUtf8(bytes);
+        if (utf8 == Utf8.MULTI_BYTE) {
+            // Crawler output is always re-encoded as UTF-8, so neither the HTTP charset recorded in _meta.json nor
+            // a stale <meta charset> may win over bytes that are valid UTF-8.
+            return StandardCharsets.UTF_8;
+        }
+        Charset declared = lookup(declaredCharset);
+        if (declared != null) {
+            return declared;
+        }
+        Charset meta = lookup(metaCharset(bytes));
+        if (meta != null) {
+            return meta;
+        }
+        return utf8 == Utf8.INVALID ? WINDOWS_1252 : StandardCharsets.UTF_8;
+    }
+
+    /** Inflates at most {@code maxBytes} into the pooled buffer, growing past the pool bound only for big pages. */
+    private static ByteBuffer decompress(CrawlFiles.Compression compression, Path path, long maxBytes) throws IOException {
+        long limit = Math.min(maxBytes, Integer.MAX_VALUE - 8);
+        ByteBuffer bytes = POOL.get().clear();
+        try (InputStream in = compression.open(path)) {
+            while (bytes.position() < limit) {
+                if (!bytes.hasRemaining()) {
+                    bytes = grow(bytes, limit);
+                }
+                int length = (int) Math.min(bytes.remaining(), limit - bytes.position());
+                int read = in.read(bytes.array(), bytes.arrayOffset() + bytes.position(), length);
+                if (read < 0) {
+                    break;
+                }
+                bytes.position(bytes.position() + read);
+            }
+        }
+        return bytes.flip();
+    }
+
+    private static ByteBuffer grow(ByteBuffer bytes, long limit) {
+        int capacity = (int) Math.min(limit, Math.max(POOLED_INITIAL_BYTES, (long) bytes.capacity() * 2));
+        ByteBuffer grown = ByteBuffer.allocate(capacity).put(bytes.flip());
+        if (capacity <= MAP_THRESHOLD_BYTES) {
+            POOL.set(grown);
+        }
+        return grown;
+    }
+
+    private static ByteBuffer pooled(int capacity) {
+        ByteBuffer buffer = POOL.get();
+        if (buffer.capacity() < capacity) {
+            buffer = ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
+            POOL.set(buffer);
+        }
+        buffer.clear().limit(capacity);
+        return buffer;
+    }
+
+    private static Charset byteOrderMark(ByteBuffer bytes) {
+        int position = bytes.position();
+        int b0 = bytes.remaining() > 0 ? bytes.get(position) & 0xff : -1;
+        int b1 = bytes.remaining() > 1 ? bytes.get(position + 1) & 0xff : -1;
+        int b2 = bytes.remaining() > 2 ? bytes.get(position + 2) & 0xff : -1;
+        if (b0 == 0xef && b1 == 0xbb && b2 == 0xbf) {
+            bytes.position(position + 3);
+            return StandardCharsets.UTF_8;
+        }
+        if (b0 == 0xfe && b1 == 0xff) {
+            bytes.position(position + 2);
+            return StandardCharsets.UTF_16BE;
+        }
+        if (b0 == 0xff && b1 == 0xfe) {
+            bytes.position(position + 2);
+            return StandardCharsets.UTF_16LE;
+        }
+        return null;
+    }
+
+    private static String metaCharset(ByteBuffer bytes) {
+        int length = Math.min(bytes.remaining(), PRESCAN_BYTES);
+        byte[] head = new byte[length];
+        bytes.get(bytes.position(), head);
+        Matcher matcher = META_CHARSET.matcher(new String(head, StandardCharsets.ISO_8859_1));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static Charset lookup(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String normalised = name.trim().toLowerCase(Locale.ROOT);
+        // Browsers decode Latin-1 labels as windows-1252; pages labelled Latin-1 routinely use its extra characters.
+        if (normalised.equals("iso-8859-1") || normalised.equals("latin1") || normalised.equals("us-ascii")) {
+            return WINDOWS_1252;
+        }
+        try {
+            return Charset.forName(normalised);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    enum Utf8 {
+        ASCII,
+        MULTI_BYTE,
+        INVALID
+    }
+
+    /** Checks the first {@link #VALIDATE_BYTES}; a sequence cut off by that window counts as valid. */
+    static Utf8 validateUtf8(ByteBuffer bytes) {
+        int end = bytes.position() + Math.min(bytes.remaining(), VALIDATE_BYTES);
+        boolean multiByte = false;
+        int i = bytes.position();
+        while (i < end) {
+            int b = bytes.get(i) & 0xff;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            int continuation;
+            if (b >= 0xc2 && b <= 0xdf) {
+                continuation = 1;
+            } else if (b >= 0xe0 && b <= 0xef) {
+                continuation = 2;
+            } else if (b >= 0xf0 && b <= 0xf4) {
+                continuation = 3;
+            } else {
+                return Utf8.INVALID;
+            }
+            for (int j = 1; j <= continuation && i + j < end; j++) {
+                if ((bytes.get(i + j) & 0xc0) != 0x80) {
+                    return Utf8.INVALID;
+                }
+            }
+            multiByte = true;
+            i += continuation + 1;
+        }
+        return multiByte ? Utf8.MULTI_BYTE : Utf8.ASCII;
+    }
+
+    private static final class ByteBufferReader extends Reader {
+        private final ByteBuffer bytes;
+        private final CharsetDecoder decoder;
+        private boolean decoded;
+        private boolean flushed;
+
+        private ByteBufferReader(ByteBuffer bytes, Charset charset) {
+            this.bytes = bytes;
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+            // All input is already in memory, so every call can pass endOfInput.
+            if (!decoded) {
+                CoderResult result = decoder.decode(bytes, out, true);
+                decoded = result.isUnderflow();
+            }
+            if (decoded && !flushed) {
+                flushed = decoder.flush(out).isUnderflow();
+            }
+            int read = out.position() - offset;
+            return read == 0 && flushed ? -1 : read;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -3,23 +3,272 @@ package com.mycrawler.orchestrator.run;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import org.jsoup.Jsoup;
+import java.util.Set;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
 
 public class HtmlPreprocessor {
+    public static final int DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+    public static final int DEFAULT_MAX_TEXT_CHARS = 20_000;
+    public static final int PREVIEW_CHARS = 600;
+    private static final long STREAMING_THRESHOLD_BYTES = 32 * 1024;
+    // Subtrees that never hold posting text; skipped without visiting their descendants.
+    private static final Set<String> SKIPPED_TAGS = Set.of(
+            "script", "style", "noscript", "svg", "template", "iframe", "object", "canvas", "nav", "footer");
+
+    /**
+     * LEAN parses at most {@code maxBytes} of the page, dropping {@link #SKIPPED_TAGS} subtrees as
+     * they complete and stopping once {@code maxTextChars} of visible text are in; FULL parses the
+     * whole page and keeps all of its body text.
+     */
+    public enum Mode {
+        LEAN,
+        FULL
+    }
+
+    private final Mode mode;
+    private final int maxBytes;
+    private final int maxTextChars;
+
+    public HtmlPreprocessor() {
+        this(Mode.LEAN, DEFAULT_MAX_BYTES, DEFAULT_MAX_TEXT_CHARS);
+    }
+
+    public HtmlPreprocessor(Mode mode, int maxBytes, int maxTextChars) {
+        this.mode = mode;
+        this.maxBytes = Math.max(1024, maxBytes);
+        this.maxTextChars = Math.max(PREVIEW_CHARS, maxTextChars);
+    }
+
     public PreprocessedDocument preprocess(Path htmlPath) throws IOException {
-        Document document = Jsoup.parse(htmlPath.toFile(), "UTF-8");
+        return preprocess(htmlPath, null);
+    }
+
+    /**
+     * @param declaredCharset charset recorded for the page in {@code _meta.json}, or null to sniff it
+     */
+    public PreprocessedDocument preprocess(Path htmlPath, String declaredCharset) throws IOException {
+        return preprocess(read(htmlPath, declaredCharset));
+    }
+
+    /** Reads the bytes this preprocessor would parse: the whole file in FULL mode, at most {@code maxBytes} otherwise. */
+    public HtmlInput.Page read(Path htmlPath, String declaredCharset) throws IOException {
+        return HtmlInput.read(htmlPath, declaredCharset, mode == Mode.FULL ? Long.MAX_VALUE : maxBytes);
+    }
+
+    /** Settings that change the output for the same input, for keying cached results. */
+    public String settings() {
+        return mode == Mode.FULL ? mode.name() : mode + ":" + maxBytes + ":" + maxTextChars;
+    }
+
+    public PreprocessedDocument preprocess(HtmlInput.Page page) {
+        return preprocess(page, null);
+    }
+
+    /**
+     * @param site rules evaluated in the same traversal that collects the text, or null. Skipped subtrees are
+     *             never matched, and in LEAN mode a stream-parsed page only up to the text cap.
+     */
+    public PreprocessedDocument preprocess(HtmlInput.Page page, SiteRules.Site site) {
+        if (mode == Mode.FULL) {
+            return preprocessFull(page, site);
+        }
+        Document document;
+        if (page.size() <= STREAMING_THRESHOLD_BYTES) {
+            // Small pages parse faster in one go than through the stream parser's per-element bookkeeping.
+            document = Parser.htmlParser().parseInput(page.reader(), "");
+        } else {
+            document = streamParse(page);
+        }
+        String title = title(document);
+        SiteRules.FieldCollector fields = site != null ? site.collector(document) : null;
+        String text = visibleText(document, maxTextChars, fields);
+        return document(title, text, site, fields);
+    }
+
+    private Document streamParse(HtmlInput.Page page) {
+        try (StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            parser.parse(page.reader(), "");
+            long visibleChars = 0;
+            for (Iterator<Element> elements = parser.iterator(); elements.hasNext(); ) {
+                Element element = elements.next();
+                if (SKIPPED_TAGS.contains(element.normalName())) {
+                    element.remove();
+                } else if (isVisibleBodyText(element)) {
+                    visibleChars += ownTextLength(element);
+                    // Every counted character survives into visibleText(), so the rest of the page is not needed.
+                    if (visibleChars >= maxTextChars) {
+                        parser.stop();
+                        break;
+                    }
+                }
+            }
+            return parser.document();
+        }
+    }
+
+    private static boolean isVisibleBodyText(Element element) {
+        for (Element current = element; current != null; current = current.parent()) {
+            String name = current.normalName();
+            if (name.equals("body")) {
+                return true;
+            }
+            if (name.equals("head") || SKIPPED_TAGS.contains(name)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Length of the element's direct text children once whitespace is collapsed and trimmed.
+    private static int ownTextLength(Element element) {
+        int length = 0;
+        for (TextNode textNode : element.textNodes()) {
+            String value = textNode.getWholeText();
+            boolean pendingSpace = false;
+            int nodeLength = 0;
+            for (int i = 0; i < value.length(); i++) {
+                if (isWhitespace(value.charAt(i))) {
+                    pendingSpace = nodeLength > 0;
+                } else {
+                    nodeLength += pendingSpace ? 2 : 1;
+                    pendingSpace = false;
+                }
+            }
+            length += nodeLength;
+        }
+        return length;
+    }
+
+    private PreprocessedDocument preprocessFull(HtmlInput.Page page, SiteRules.Site site) {
+        Document document = Parser.htmlParser().parseInput(page.reader(), "");
+        String title = title(document);
+        SiteRules.FieldCollector fields = site != null ? site.collector(document) : null;
+        String text = text(document, Integer.MAX_VALUE, fields, true);
+        return document(title, text, site, fields);
+    }
+
+    private static PreprocessedDocument document(String title, String text, SiteRules.Site site,
+                                                 SiteRules.FieldCollector fields) {
+        if (fields == null) {
+            return new PreprocessedDocument(title, text, snippets(text));
+        }
+        return new PreprocessedDocument(title, text, snippets(text), site.name(), fields.finish());
+    }
+
+    private static String title(Document document) {
         String title = document.title();
         if (title == null || title.isBlank()) {
-            title = document.selectFirst("h1") != null ? document.selectFirst("h1").text() : "";
+            Element h1 = document.selectFirst("h1");
+            title = h1 != null ? h1.text() : "";
         }
-        String text = document.body() != null ? document.body().text() : "";
-        text = text == null ? "" : text.trim();
+        return title;
+    }
+
+    private static Map<String, String> snippets(String text) {
         Map<String, String> snippets = new HashMap<>();
         if (!text.isBlank()) {
-            snippets.put("preview", text.substring(0, Math.min(text.length(), 600)));
+            snippets.put("preview", text.substring(0, Math.min(text.length(), PREVIEW_CHARS)));
+        }
+        return snippets;
+    }
+
+    /**
+     * Whitespace-normalised body text in document order, like {@link Element#text()}, but without skipped
+     * subtrees and stopping once {@code maxChars} characters are collected. With {@code fields} set the
+     * traversal starts at the document root, so rules can match head elements, and it continues past the
+     * text cap until every selector rule has its value.
+     */
+    static String visibleText(Document document, int maxChars, SiteRules.FieldCollector fields) {
+        return text(document, maxChars, fields, false);
+    }
+
+    /**
+     * With {@code keepSkippedText} the text of skipped subtrees is kept, as FULL mode wants, while the rules still
+     * never see their elements, so the text and the fields come from one traversal.
+     */
+    private static String text(Document document, int maxChars, SiteRules.FieldCollector fields,
+                               boolean keepSkippedText) {
+        Element body = document.body();
+        if (body == null && fields == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(Math.min(maxChars, 4096));
+        NodeTraversor.filter(new NodeFilter() {
+            private boolean inBody = fields == null;
+            private Element skipped;
+
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (node instanceof Element element) {
+                    if (skipped == null && SKIPPED_TAGS.contains(element.normalName())) {
+                        if (!keepSkippedText) {
+                            return FilterResult.SKIP_ENTIRELY;
+                        }
+                        skipped = element;
+                    }
+                    if (fields != null && skipped == null) {
+                        fields.visit(element);
+                        inBody |= element == body;
+                    }
+                    if (inBody && (element.isBlock() || element.normalName().equals("br"))) {
+                        separate(text);
+                    }
+                } else if (inBody && node instanceof TextNode textNode) {
+                    appendNormalised(text, textNode.getWholeText(), maxChars);
+                }
+                return text.length() >= maxChars && (fields == null || fields.done())
+                        ? FilterResult.STOP
+                        : FilterResult.CONTINUE;
+            }
+
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                if (inBody && node instanceof Element element && element.isBlock()) {
+                    separate(text);
+                }
+                if (node == body) {
+                    inBody = false;
+                }
+                if (node == skipped) {
+                    skipped = null;
+                }
+                return FilterResult.CONTINUE;
+            }
+        }, fields != null ? document : body);
+        int end = text.length();
+        if (end > 0 && text.charAt(end - 1) == ' ') {
+            text.setLength(end - 1);
+        }
+        return text.toString();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return Character.isWhitespace(c) || c == '\u00a0';
+    }
+
+    private static void separate(StringBuilder text) {
+        if (!text.isEmpty() && text.charAt(text.length() - 1) != ' ') {
+            text.append(' ');
+        }
+    }
+
+    private static void appendNormalised(StringBuilder text, String value, int maxChars) {
+        for (int i = 0; i < value.length() && text.length() < maxChars; i++) {
+            char c = value.charAt(i);
+            if (isWhitespace(c)) {
+                separate(text);
+            } else {
+                text.append(c);
+            }
         }
-        return new PreprocessedDocument(title, text, snippets);
     }
 }
@@ -0,0 +1,525 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import org.jsoup.Jsoup;
+import org.jsoup.parser.Parser;
+
+/**
+ * Fast path for pages that embed a schema.org {@code JobPosting} as {@code <script type="application/ld+json">}.
+ * The script blocks are found by scanning the page's bytes and stream-parsed where they lie, so a page with
+ * structured data never goes through Jsoup. Blocks that are malformed or hold no titled {@code JobPosting} are
+ * skipped; {@link #extract} returns null when none is left and the caller falls back to the heuristics.
+ */
+public class JsonLdExtractor {
+    public static final String NOTES = "json-ld";
+    private static final byte[] LD_JSON = ascii("application/ld+json");
+    private static final byte[] SCRIPT_OPEN = ascii("<script");
+    private static final byte[] SCRIPT_CLOSE = ascii("</script");
+    private static final int MAX_TAG_BYTES = 512;
+    private static final int MAX_LIST_VALUES = 50;
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .build();
+
+    private final TermDictionary dictionary;
+
+    public JsonLdExtractor() {
+        this(TermDictionary.NONE);
+    }
+
+    /** @param dictionary tags the description for the list fields and municipality the JSON-LD leaves out */
+    public JsonLdExtractor(TermDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public JobPosting extract(HtmlInput.Page page, MetaData meta) {
+        if (!asciiCompatible(page.charset())) {
+            return null;
+        }
+        ByteBuffer bytes = page.bytes();
+        int end = bytes.limit();
+        int from = bytes.position();
+        while (true) {
+            int type = indexOf(bytes, LD_JSON, from, end);
+            if (type < 0) {
+                return null;
+            }
+            int tagEnd = indexOf(bytes, (byte) '>', type, end);
+            int close = tagEnd < 0 ? -1 : indexOf(bytes, SCRIPT_CLOSE, tagEnd + 1, end);
+            if (close < 0) {
+                return null;
+            }
+            from = close + SCRIPT_CLOSE.length;
+            if (!insideScriptTag(bytes, type, Math.max(bytes.position(), type - MAX_TAG_BYTES))) {
+                continue;
+            }
+            Fields fields = parse(bytes, tagEnd + 1, close, page.charset());
+            if (fields != null && SimpleExtractor.blankToNull(fields.title) != null) {
+                return toPosting(fields, meta);
+            }
+        }
+    }
+
+    private JobPosting toPosting(Fields fields, MetaData meta) {
+        JobPosting posting = new JobPosting();
+        String title = fields.title.strip();
+        posting.setJobId(SimpleExtractor.jobId(title, meta.url()));
+        posting.setJobTitle(title);
+        // As in the heuristics, a company recorded by the crawler wins.
+        String company = SimpleExtractor.blankToNull(meta.company());
+        posting.setCompanyName(company != null ? company : SimpleExtractor.blankToNull(fields.organization));
+        posting.setCompanyIndustry(SimpleExtractor.blankToNull(fields.industry));
+        String description = plainText(fields.description);
+        posting.setJobDescriptionSummary(SimpleExtractor.summarize(description));
+        posting.setLocationMunicipality(SimpleExtractor.blankToNull(fields.municipality));
+        posting.setLocationSpecific(SimpleExtractor.blankToNull(fields.address));
+        posting.setEmploymentDuration(joined(fields.durations));
+        posting.setWorkingHours(joined(fields.hours));
+        posting.setApplicationDeadline(SimpleExtractor.blankToNull(fields.validThrough));
+        posting.setApplicationMethod(null);
+        posting.setContactEmail(SimpleExtractor.blankToNull(fields.email));
+        posting.setContactPhone(SimpleExtractor.blankToNull(fields.phone));
+        posting.setContactPersonName(SimpleExtractor.blankToNull(fields.contactName));
+        posting.setContactPersonTitle(null);
+        posting.setRequiredSkills(fields.skills);
+        posting.setPreferredSkills(new ArrayList<>());
+        posting.setEducationRequirements(SimpleExtractor.blankToNull(fields.education));
+        posting.setLanguageRequirements(null);
+        posting.setSalaryInfo(SimpleExtractor.blankToNull(fields.salary));
+        posting.setBenefits(fields.benefits);
+        posting.setApplicationInstructions(null);
+        posting.setSourceUrl(SimpleExtractor.blankToNull(meta.url()));
+        String language = knownLanguage(fields.language);
+        posting.setSourceLanguage(language != null
+                ? language
+                : LanguageDetector.defaults().detect(description != null ? description : title));
+        posting.setExtractionNotes(NOTES);
+        posting.setRawFields(new HashMap<>());
+        dictionary.scan(description).forEach((field, values) -> {
+            if (isEmpty(field, fields)) {
+                field.apply(posting, values);
+            }
+        });
+        posting.setExtractionConfidence(SimpleExtractor.scoreConfidence(posting));
+        return posting;
+    }
+
+    private static boolean isEmpty(PostingField field, Fields fields) {
+        return switch (field) {
+            case LOCATION_MUNICIPALITY -> SimpleExtractor.blankToNull(fields.municipality) == null;
+            case REQUIRED_SKILLS, PREFERRED_SKILLS -> fields.skills.isEmpty();
+            case BENEFITS -> fields.benefits.isEmpty();
+            default -> false;
+        };
+    }
+
+    /** Reads one script block; returns the first titled JobPosting in it, or null. */
+    private static Fields parse(ByteBuffer bytes, int start, int end, Charset charset) {
+        try (JsonParser parser = parser(bytes, start, end, charset)) {
+            return parser.nextToken() == null ? null : find(parser);
+        } catch (IOException ex) {
+            // Malformed structured data is common; the heuristics still get a go at the page.
+            return null;
+        }
+    }
+
+    private static JsonParser parser(ByteBuffer bytes, int start, int end, Charset charset) throws IOException {
+        byte[] array;
+        int offset;
+        if (bytes.hasArray()) {
+            array = bytes.array();
+            offset = bytes.arrayOffset() + start;
+        } else {
+            array = new byte[end - start];
+            bytes.get(start, array);
+            offset = 0;
+        }
+        if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)) {
+            return JSON.createParser(array, offset, end - start);
+        }
+        return JSON.createParser(new String(array, offset, end - start, charset));
+    }
+
+    /** Searches the value at the current token: a node, a list of nodes, or an {@code @graph}. */
+    private static Fields find(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            return readNode(parser);
+        }
+        if (token == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                Fields found = find(parser);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    // The parser is abandoned once a posting is found, so nested matches return without reading on.
+    private static Fields readNode(JsonParser parser) throws IOException {
+        Fields fields = new Fields();
+        boolean jobPosting = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "@type" -> jobPosting = isJobPosting(parser);
+                case "@graph", "mainEntity", "itemListElement", "item" -> {
+                    Fields nested = find(parser);
+                    if (nested != null) {
+                        return nested;
+                    }
+                }
+                case "title" -> fields.title = text(parser);
+                case "description" -> fields.description = text(parser);
+                case "hiringOrganization" -> fields.organization = text(parser);
+                case "industry" -> fields.industry = text(parser);
+                case "jobLocation" -> readLocations(parser, fields);
+                case "validThrough" -> fields.validThrough = text(parser);
+                case "employmentType" -> readEmploymentTypes(parser, fields);
+                case "baseSalary", "estimatedSalary" -> fields.salary = fields.salary != null
+                        ? skip(parser, fields.salary)
+                        : salary(parser);
+                case "skills", "qualifications" -> fields.skills.addAll(texts(parser, true));
+                case "jobBenefits" -> fields.benefits.addAll(texts(parser, true));
+                case "educationRequirements" -> fields.education = text(parser);
+                case "applicationContact" -> readContact(parser, fields);
+                case "inLanguage" -> fields.language = text(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return jobPosting ? fields : null;
+    }
+
+    /**
+     * Maps a BCP 47 tag such as {@code fi-FI} to its primary subtag, or to null when that is not one of
+     * {@link LanguageDetector#LANGUAGES}, so the language is detected from the text instead.
+     */
+    static String knownLanguage(String tag) {
+        String language = SimpleExtractor.blankToNull(tag);
+        if (language == null) {
+            return null;
+        }
+        language = language.strip().toLowerCase(Locale.ROOT);
+        int end = 0;
+        while (end < language.length() && language.charAt(end) != '-' && language.charAt(end) != '_') {
+            end++;
+        }
+        language = language.substring(0, end);
+        return LanguageDetector.LANGUAGES.contains(language) ? language : null;
+    }
+
+    private static boolean isJobPosting(JsonParser parser) throws IOException {
+        for (String type : texts(parser, false)) {
+            if (type.equals("JobPosting") || type.endsWith("/JobPosting")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void readLocations(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                readLocations(parser, fields);
+            }
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            String place = text(parser);
+            if (fields.municipality == null) {
+                fields.municipality = place;
+            }
+            return;
+        }
+        // A Place holds a PostalAddress; both are read the same way so a bare address works too.
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "address" -> readLocations(parser, fields);
+                case "addressLocality" -> fields.municipality = first(fields.municipality, text(parser));
+                case "addressRegion" -> fields.region = first(fields.region, text(parser));
+                case "streetAddress" -> fields.address = first(fields.address, text(parser));
+                case "postalCode" -> fields.postalCode = first(fields.postalCode, text(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        if (fields.municipality == null) {
+            fields.municipality = fields.region;
+        }
+        if (fields.address != null && fields.postalCode != null && !fields.address.contains(fields.postalCode)) {
+            fields.address = fields.address + ", " + fields.postalCode;
+        }
+    }
+
+    // FULL_TIME and PART_TIME describe the hours; TEMPORARY, INTERN, CONTRACTOR and the like the duration.
+    private static void readEmploymentTypes(JsonParser parser, Fields fields) throws IOException {
+        for (String type : texts(parser, true)) {
+            String upper = type.toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+            if (upper.equals("FULL_TIME") || upper.equals("PART_TIME")) {
+                fields.hours.add(upper);
+            } else {
+                fields.durations.add(upper);
+            }
+        }
+    }
+
+    private static void readContact(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                readContact(parser, fields);
+            }
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "email" -> fields.email = first(fields.email, stripScheme(text(parser), "mailto:"));
+                case "telephone" -> fields.phone = first(fields.phone, stripScheme(text(parser), "tel:"));
+                case "name" -> fields.contactName = first(fields.contactName, text(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /** A MonetaryAmount as {@code "2500–3000 EUR/MONTH"}; plain strings and numbers are kept as they are. */
+    private static String salary(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return text(parser);
+        }
+        String currency = null;
+        String value = null;
+        String min = null;
+        String max = null;
+        String unit = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "currency" -> currency = text(parser);
+                case "value" -> {
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        // QuantitativeValue: the figures live one level down.
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String inner = parser.currentName();
+                            parser.nextToken();
+                            switch (inner) {
+                                case "value" -> value = text(parser);
+                                case "minValue" -> min = text(parser);
+                                case "maxValue" -> max = text(parser);
+                                case "unitText" -> unit = text(parser);
+                                default -> parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        value = text(parser);
+                    }
+                }
+                case "minValue" -> min = text(parser);
+                case "maxValue" -> max = text(parser);
+                case "unitText" -> unit = text(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        String amount = value != null ? value
+                : min != null && max != null ? min + "–" + max
+                : min != null ? min : max;
+        if (amount == null) {
+            return null;
+        }
+        return amount + (currency != null ? " " + currency : "") + (unit != null ? "/" + unit : "");
+    }
+
+    /** A string, number or boolean; for a node its {@code name}, for a list its first text. */
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return unescape(parser.getText());
+        }
+        if (token != null && token.isScalarValue()) {
+            return token == JsonToken.VALUE_NULL ? null : parser.getText();
+        }
+        if (token == JsonToken.START_ARRAY) {
+            String first = null;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                first = first(first, text(parser));
+            }
+            return first;
+        }
+        if (token == JsonToken.START_OBJECT) {
+            String name = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name", "@value", "credentialCategory" -> name = first(name, text(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            return name;
+        }
+        return null;
+    }
+
+    /** Every text of a value or list; with {@code split}, a single string is split on commas and newlines. */
+    private static List<String> texts(JsonParser parser, boolean split) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                add(values, text(parser));
+            }
+            return values;
+        }
+        String value = text(parser);
+        if (value == null) {
+            return values;
+        }
+        if (!split) {
+            values.add(value);
+            return values;
+        }
+        for (String part : plainText(value).split("[,;\\n•]")) {
+            add(values, part);
+        }
+        return values;
+    }
+
+    private static void add(List<String> values, String value) {
+        if (value != null && !value.isBlank() && values.size() < MAX_LIST_VALUES) {
+            values.add(value.strip());
+        }
+    }
+
+    private static String skip(JsonParser parser, String kept) throws IOException {
+        parser.skipChildren();
+        return kept;
+    }
+
+    private static String first(String current, String candidate) {
+        return current != null ? current : SimpleExtractor.blankToNull(candidate);
+    }
+
+    private static String joined(List<String> values) {
+        return values.isEmpty() ? null : String.join(", ", values);
+    }
+
+    private static String stripScheme(String value, String scheme) {
+        return value != null && value.regionMatches(true, 0, scheme, 0, scheme.length())
+                ? value.substring(scheme.length())
+                : value;
+    }
+
+    private static String unescape(String value) {
+        return value.indexOf('&') >= 0 ? Parser.unescapeEntities(value, false) : value;
+    }
+
+    // Descriptions are often HTML; only then is the (small) fragment handed to Jsoup.
+    private static String plainText(String value) {
+        if (value == null || value.indexOf('<') < 0) {
+            return value;
+        }
+        return Jsoup.parseBodyFragment(value).body().wholeText().replaceAll("\\s+", " ").strip();
+    }
+
+    /** Whether the match at {@code at} sits inside a {@code <script ...>} start tag. */
+    private static boolean insideScriptTag(ByteBuffer bytes, int at, int from) {
+        for (int i = at - 1; i >= from; i--) {
+            byte b = bytes.get(i);
+            if (b == '>') {
+                return false;
+            }
+            if (b == '<') {
+                return regionMatches(bytes, i, SCRIPT_OPEN);
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(ByteBuffer bytes, byte target, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (bytes.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Case-insensitive search for a lower-case ASCII needle. */
+    private static int indexOf(ByteBuffer bytes, byte[] needle, int from, int end) {
+        int last = end - needle.length;
+        byte first = needle[0];
+        for (int i = from; i <= last; i++) {
+            if ((bytes.get(i) | 0x20) == first && regionMatches(bytes, i, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(ByteBuffer bytes, int at, byte[] needle) {
+        if (at + needle.length > bytes.limit()) {
+            return false;
+        }
+        for (int j = 0; j < needle.length; j++) {
+            byte b = bytes.get(at + j);
+            if (b != needle[j] && (b < 'A' || b > 'Z' || (b | 0x20) != needle[j])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The byte scan needs ASCII to encode as itself, which rules out UTF-16 and UTF-32 pages.
+    private static boolean asciiCompatible(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8)
+                || Arrays.equals(SCRIPT_CLOSE, "</script".getBytes(charset));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Fields {
+        private String title;
+        private String description;
+        private String organization;
+        private String industry;
+        private String municipality;
+        private String region;
+        private String address;
+        private String postalCode;
+        private String validThrough;
+        private String salary;
+        private String education;
+        private String email;
+        private String phone;
+        private String contactName;
+        private String language;
+        private final List<String> hours = new ArrayList<>();
+        private final List<String> durations = new ArrayList<>();
+        private final List<String> skills = new ArrayList<>();
+        private final List<String> benefits = new ArrayList<>();
+    }
+}
@@ -0,0 +1,200 @@
+package com.mycrawler.orchestrator.run;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Tells Finnish, Swedish and English apart with character n-gram profiles (unigrams to trigrams of lower-cased
+ * letters, words padded with a space). The profiles are counted once from the job-ad samples in
+ * {@code language/*.txt} into a hash table of per-language log probabilities; {@link #detect} then scores at most
+ * {@link #MAX_CHARS} chars of the text with naive Bayes, without allocating. Thread-safe.
+ */
+public final class LanguageDetector {
+    public static final String UNKNOWN = "unknown";
+    public static final List<String> LANGUAGES = List.of("fi", "sv", "en");
+    static final int MAX_CHARS = 1000;
+    private static final int MIN_LETTERS = 3;
+    // Log-likelihood lead per scored n-gram the winner needs; closer calls (a lone place name) are not made.
+    private static final double MIN_MARGIN_PER_GRAM = 0.1;
+    private static final double SMOOTHING = 0.5;
+
+    private final String[] languages;
+    private final long[] keys;
+    private final float[] logProbabilities;
+    private final float[] unseen;
+    private final int mask;
+
+    private LanguageDetector(String[] languages, long[] keys, float[] logProbabilities, float[] unseen) {
+        this.languages = languages;
+        this.keys = keys;
+        this.logProbabilities = logProbabilities;
+        this.unseen = unseen;
+        this.mask = keys.length - 1;
+    }
+
+    /** The detector trained on the bundled samples, built on first use. */
+    public static LanguageDetector defaults() {
+        return Defaults.INSTANCE;
+    }
+
+    /** Builds profiles from one sample text for each of three languages. */
+    static LanguageDetector train(Map<String, String> samples) {
+        if (samples.size() != 3) {
+            throw new IllegalArgumentException("Expected samples for three languages, got " + samples.keySet());
+        }
+        String[] languages = samples.keySet().toArray(String[]::new);
+        Map<Long, int[]> counts = new HashMap<>();
+        long[] totals = new long[languages.length];
+        for (int l = 0; l < languages.length; l++) {
+            int language = l;
+            totals[l] = forEachGram(samples.get(languages[l]), key -> counts.computeIfAbsent(key, k -> new int[languages.length])[language]++);
+        }
+        int capacity = Integer.highestOneBit(Math.max(16, counts.size() * 2) - 1) << 1;
+        long[] keys = new long[capacity];
+        float[] logProbabilities = new float[capacity * languages.length];
+        float[] unseen = new float[languages.length];
+        double[] denominators = new double[languages.length];
+        for (int l = 0; l < languages.length; l++) {
+            denominators[l] = totals[l] + SMOOTHING * counts.size();
+            unseen[l] = (float) Math.log(SMOOTHING / denominators[l]);
+        }
+        counts.forEach((key, perLanguage) -> {
+            int slot = slot(keys, capacity - 1, key);
+            keys[slot] = key;
+            for (int l = 0; l < languages.length; l++) {
+                logProbabilities[slot * languages.length + l] =
+                        (float) Math.log((perLanguage[l] + SMOOTHING) / denominators[l]);
+            }
+        });
+        return new LanguageDetector(languages, keys, logProbabilities, unseen);
+    }
+
+    public String detect(CharSequence text) {
+        return detect(text, UNKNOWN);
+    }
+
+    /**
+     * @return the language code of {@link #LANGUAGES} that best explains the first {@link #MAX_CHARS} chars
+     *         of {@code text}, or {@code fallback} when there are too few letters or no clear winner
+     */
+    public String detect(CharSequence text, String fallback) {
+        if (text == null || text.isEmpty()) {
+            return fallback;
+        }
+        // One local per language, so the loop allocates nothing.
+        double first = 0;
+        double second = 0;
+        double third = 0;
+        int grams = 0;
+        int letters = 0;
+        char previous = ' ';
+        char beforePrevious = ' ';
+        int end = Math.min(text.length(), MAX_CHARS);
+        for (int i = 0; i <= end; i++) {
+            char c = i < end ? normalise(text.charAt(i)) : ' ';
+            if (c == ' ' && previous == ' ') {
+                continue;
+            }
+            letters += c == ' ' ? 0 : 1;
+            for (int n = c == ' ' ? 2 : 1; n <= 3; n++) {
+                if (n == 3 && beforePrevious == ' ' && previous == ' ') {
+                    break;
+                }
+                long key = key(n, beforePrevious, previous, c);
+                int slot = slot(keys, mask, key);
+                boolean seen = keys[slot] == key;
+                int base = slot * 3;
+                first += seen ? logProbabilities[base] : unseen[0];
+                second += seen ? logProbabilities[base + 1] : unseen[1];
+                third += seen ? logProbabilities[base + 2] : unseen[2];
+                grams++;
+            }
+            beforePrevious = previous;
+            previous = c;
+        }
+        if (letters < MIN_LETTERS) {
+            return fallback;
+        }
+        int best = first >= second && first >= third ? 0 : second >= third ? 1 : 2;
+        double bestScore = best == 0 ? first : best == 1 ? second : third;
+        double runnerUp = best == 0 ? Math.max(second, third) : best == 1 ? Math.max(first, third)
+                : Math.max(first, second);
+        if (bestScore - runnerUp < MIN_MARGIN_PER_GRAM * grams) {
+            return fallback;
+        }
+        return languages[best];
+    }
+
+    // Letters lower-cased, everything else a word break.
+    private static char normalise(char c) {
+        return Character.isLetter(c) ? Character.toLowerCase(c) : ' ';
+    }
+
+    private static long key(int n, char beforePrevious, char previous, char c) {
+        return switch (n) {
+            case 1 -> (1L << 48) | c;
+            case 2 -> (2L << 48) | ((long) previous << 16) | c;
+            default -> (3L << 48) | ((long) beforePrevious << 32) | ((long) previous << 16) | c;
+        };
+    }
+
+    /** Open addressing with linear probing; the table is at most half full, so an empty slot ends a miss. */
+    private static int slot(long[] keys, int mask, long key) {
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // The same n-grams detect() scores, for training.
+    private static long forEachGram(String text, LongConsumer consumer) {
+        long grams = 0;
+        char previous = ' ';
+        char beforePrevious = ' ';
+        int end = text.length();
+        for (int i = 0; i <= end; i++) {
+            char c = i < end ? normalise(text.charAt(i)) : ' ';
+            if (c == ' ' && previous == ' ') {
+                continue;
+            }
+            for (int n = c == ' ' ? 2 : 1; n <= 3; n++) {
+                if (n == 3 && beforePrevious == ' ' && previous == ' ') {
+                    break;
+                }
+                consumer.accept(key(n, beforePrevious, previous, c));
+                grams++;
+            }
+            beforePrevious = previous;
+            previous = c;
+        }
+        return grams;
+    }
+
+    private static final class Defaults {
+        private static final LanguageDetector INSTANCE = load();
+
+        private static LanguageDetector load() {
+            Map<String, String> samples = new LinkedHashMap<>();
+            for (String language : LANGUAGES) {
+                String resource = "language/" + language + ".txt";
+                try (InputStream in = LanguageDetector.class.getClassLoader().getResourceAsStream(resource)) {
+                    if (in == null) {
+                        throw new IOException("Missing classpath resource " + resource);
+                    }
+                    samples.put(language, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return train(samples);
+        }
+    }
+}
@@ -1,4 +1,10 @@
 package com.mycrawler.orchestrator.run;
 
-public record MetaData(String url, String company) {
+/**
+ * @param charset charset the crawler recorded for the HTML file, or null
+ */
+public record MetaData(String url, String company, String charset) {
+    public MetaData(String url, String company) {
+        this(url, company, null);
+    }
 }
@@ -1,25 +1,92 @@
 package com.mycrawler.orchestrator.run;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Map;
 
+/**
+ * Reads crawl metadata ({@code url}, {@code company} and the charset) from {@code _meta.json} files and
+ * {@link CrawlManifest} lines with Jackson's streaming parser; other fields are skipped without being decoded.
+ */
 public class MetaParser {
-    private final ObjectMapper objectMapper;
+    // In order of preference.
+    private static final String[] CHARSET_FIELDS = {"charset", "encoding", "content_type", "content-type"};
+    private final JsonFactory jsonFactory;
 
     public MetaParser(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
     }
 
     public MetaData parse(Path metaPath) throws IOException {
         if (!Files.exists(metaPath)) {
-            return new MetaData(null, null);
+            return new MetaData(null, null, null);
         }
-        Map<String, Object> data = objectMapper.readValue(metaPath.toFile(), Map.class);
-        String url = data.get("url") != null ? data.get("url").toString() : null;
-        String company = data.get("company") != null ? data.get("company").toString() : null;
-        return new MetaData(url, company);
+        return parse(CrawlFiles.readAllBytes(metaPath));
+    }
+
+    /** Parses {@code _meta.json} content; null means the file does not exist. */
+    public MetaData parse(byte[] content) throws IOException {
+        if (content == null) {
+            return new MetaData(null, null, null);
+        }
+        return parse(content, 0, content.length).meta();
+    }
+
+    /** Parses one JSON object from {@code length} bytes of {@code content} at {@code offset}. */
+    Entry parse(byte[] content, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(content, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object of crawl metadata");
+            }
+            return readObject(parser);
+        }
+    }
+
+    /** Reads the fields of the object whose start the parser is at, up to its end. */
+    private static Entry readObject(JsonParser parser) throws IOException {
+        String file = null;
+        String url = null;
+        String company = null;
+        String[] charsets = new String[CHARSET_FIELDS.length];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value.isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+            String text = value == JsonToken.VALUE_NULL ? null : parser.getText();
+            switch (name) {
+                case "file" -> file = text;
+                case "url" -> url = text;
+                case "company" -> company = text;
+                default -> {
+                    for (int i = 0; i < CHARSET_FIELDS.length; i++) {
+                        if (CHARSET_FIELDS[i].equals(name)) {
+                            charsets[i] = text;
+                        }
+                    }
+                }
+            }
+        }
+        return new Entry(file, new MetaData(url, company, charset(charsets)));
+    }
+
+    private static String charset(String[] charsets) {
+        for (String value : charsets) {
+            if (value != null) {
+                return HtmlInput.charsetFromContentType(value);
+            }
+        }
+        return null;
+    }
+
+    /** One object's metadata; {@code file} names the HTML file in a manifest line and is null in a _meta.json. */
+    record Entry(String file, MetaData meta) {
     }
 }
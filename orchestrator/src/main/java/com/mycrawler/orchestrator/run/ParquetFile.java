@@ -0,0 +1,275 @@
+package com.mycrawler.orchestrator.run;
+
+import com.github.luben.zstd.Zstd;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
+
+/**
+ * Parquet files of string and string-list columns, for analytics tools (DuckDB, pandas/pyarrow, Spark) that scan a
+ * few columns of many rows.
+ * <p>
+ * Strings are {@code optional binary (STRING)} and lists use the standard three-level {@code LIST} layout with
+ * optional elements, so a null value, a null list and an empty list all round-trip. Column chunks are zstd-compressed
+ * and dictionary-encoded where parquet-java finds repeats; a row group is cut at {@code rowGroupBytes}. Writing goes
+ * through {@link LocalOutputFile} and a zstd-jni codec factory, so no Hadoop classes are needed at runtime.
+ */
+public final class ParquetFile {
+    private ParquetFile() {
+    }
+
+    public enum Type {
+        STRING,
+        STRING_LIST
+    }
+
+    /** A column of rows of type {@code T}: its name, type and the row's value (a String or a List of them). */
+    public record Column<T>(String name, Type type, Function<T, ?> value) {
+        public static <T> Column<T> string(String name, Function<T, String> value) {
+            return new Column<>(name, Type.STRING, value);
+        }
+
+        public static <T> Column<T> list(String name, Function<T, List<String>> value) {
+            return new Column<>(name, Type.STRING_LIST, value);
+        }
+    }
+
+    public static <T> MessageType schema(String name, List<Column<T>> columns) {
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (Column<T> column : columns) {
+            if (column.type() == Type.STRING) {
+                builder.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType())
+                        .named(column.name());
+            } else {
+                builder.optionalList().optionalElement(PrimitiveType.PrimitiveTypeName.BINARY)
+                        .as(LogicalTypeAnnotation.stringType()).named(column.name());
+            }
+        }
+        return builder.named(name);
+    }
+
+    /** Writes rows to a new file at {@code path}, replacing what is there; the footer is written on close. */
+    public static final class Writer<T> implements Closeable {
+        private final ParquetWriter<T> writer;
+        private long rows;
+
+        public Writer(Path path, String schemaName, List<Column<T>> columns, long rowGroupBytes, int zstdLevel)
+                throws IOException {
+            RowWriteSupport<T> writeSupport = new RowWriteSupport<>(schema(schemaName, columns), columns);
+            this.writer = new Builder<>(new LocalOutputFile(path), writeSupport)
+                    .withConf(new PlainParquetConfiguration())
+                    .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                    .withCompressionCodec(CompressionCodecName.ZSTD)
+                    .withCodecFactory(zstdCodecs(zstdLevel))
+                    .withRowGroupSize(rowGroupBytes)
+                    .build();
+        }
+
+        public void write(T row) throws IOException {
+            writer.write(row);
+            rows++;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class Builder<T> extends ParquetWriter.Builder<T, Builder<T>> {
+        private final WriteSupport<T> writeSupport;
+
+        private Builder(OutputFile file, WriteSupport<T> writeSupport) {
+            super(file);
+            this.writeSupport = writeSupport;
+        }
+
+        @Override
+        protected Builder<T> self() {
+            return this;
+        }
+
+        // Still abstract in parquet-java; unused, since the builder is created from an OutputFile.
+        @Override
+        @SuppressWarnings("deprecation")
+        protected WriteSupport<T> getWriteSupport(Configuration conf) {
+            return writeSupport;
+        }
+
+        @Override
+        protected WriteSupport<T> getWriteSupport(ParquetConfiguration conf) {
+            return writeSupport;
+        }
+    }
+
+    private static final class RowWriteSupport<T> extends WriteSupport<T> {
+        private final MessageType schema;
+        private final List<Column<T>> columns;
+        private RecordConsumer consumer;
+
+        private RowWriteSupport(MessageType schema, List<Column<T>> columns) {
+            this.schema = schema;
+            this.columns = columns;
+        }
+
+        // Still abstract in parquet-java; writers created without Hadoop call the ParquetConfiguration variant.
+        @Override
+        @SuppressWarnings("deprecation")
+        public WriteContext init(Configuration conf) {
+            return new WriteContext(schema, Map.of());
+        }
+
+        @Override
+        public WriteContext init(ParquetConfiguration conf) {
+            return new WriteContext(schema, Map.of());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(T row) {
+            consumer.startMessage();
+            for (int index = 0; index < columns.size(); index++) {
+                Column<T> column = columns.get(index);
+                Object value = column.value().apply(row);
+                if (value == null) {
+                    continue;
+                }
+                consumer.startField(column.name(), index);
+                if (column.type() == Type.STRING) {
+                    consumer.addBinary(Binary.fromString((String) value));
+                } else {
+                    writeList((List<?>) value);
+                }
+                consumer.endField(column.name(), index);
+            }
+            consumer.endMessage();
+        }
+
+        private void writeList(List<?> values) {
+            consumer.startGroup();
+            if (!values.isEmpty()) {
+                consumer.startField("list", 0);
+                for (Object value : values) {
+                    consumer.startGroup();
+                    if (value != null) {
+                        consumer.startField("element", 0);
+                        consumer.addBinary(Binary.fromString((String) value));
+                        consumer.endField("element", 0);
+                    }
+                    consumer.endGroup();
+                }
+                consumer.endField("list", 0);
+            }
+            consumer.endGroup();
+        }
+    }
+
+    /**
+     * Compresses and decompresses zstd pages with zstd-jni, in place of parquet-java's factory that loads Hadoop
+     * codecs; pass it to {@code ParquetReadOptions} to read a file back.
+     */
+    public static CompressionCodecFactory zstdCodecs(int level) {
+        return new ZstdCodecFactory(level);
+    }
+
+    private static final class ZstdCodecFactory implements CompressionCodecFactory {
+        private final int level;
+
+        private ZstdCodecFactory(int level) {
+            this.level = level;
+        }
+
+        @Override
+        public BytesInputCompressor getCompressor(CompressionCodecName codecName) {
+            requireZstd(codecName);
+            return new BytesInputCompressor() {
+                @Override
+                public BytesInput compress(BytesInput bytes) throws IOException {
+                    return BytesInput.from(Zstd.compress(bytes.toInputStream().readAllBytes(), level));
+                }
+
+                @Override
+                public CompressionCodecName getCodecName() {
+                    return CompressionCodecName.ZSTD;
+                }
+
+                @Override
+                public void release() {
+                }
+            };
+        }
+
+        @Override
+        public BytesInputDecompressor getDecompressor(CompressionCodecName codecName) {
+            requireZstd(codecName);
+            return new BytesInputDecompressor() {
+                @Override
+                public BytesInput decompress(BytesInput bytes, int uncompressedSize) throws IOException {
+                    return BytesInput.from(decompress(bytes.toInputStream().readAllBytes(), uncompressedSize));
+                }
+
+                @Override
+                public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int uncompressedSize) {
+                    byte[] compressed = new byte[compressedSize];
+                    input.get(compressed);
+                    output.put(decompress(compressed, uncompressedSize));
+                }
+
+                private byte[] decompress(byte[] compressed, int uncompressedSize) {
+                    byte[] uncompressed = new byte[uncompressedSize];
+                    long size = Zstd.decompress(uncompressed, compressed);
+                    if (Zstd.isError(size)) {
+                        throw new IllegalStateException("Corrupt zstd page: " + Zstd.getErrorName(size));
+                    }
+                    if (size != uncompressedSize) {
+                        throw new IllegalStateException("zstd page of " + size + " bytes, expected " + uncompressedSize);
+                    }
+                    return uncompressed;
+                }
+
+                @Override
+                public void release() {
+                }
+            };
+        }
+
+        @Override
+        public void release() {
+        }
+
+        private static void requireZstd(CompressionCodecName codecName) {
+            if (codecName != CompressionCodecName.ZSTD) {
+                throw new IllegalArgumentException("Only ZSTD is supported: " + codecName);
+            }
+        }
+    }
+}
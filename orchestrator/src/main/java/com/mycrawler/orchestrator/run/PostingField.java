@@ -0,0 +1,71 @@
+package com.mycrawler.orchestrator.run;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/** {@link JobPosting} fields that site rules can fill, named by their JSON property. */
+public enum PostingField {
+    JOB_TITLE("jobTitle", single(JobPosting::setJobTitle)),
+    COMPANY_NAME("companyName", single(JobPosting::setCompanyName)),
+    COMPANY_INDUSTRY("companyIndustry", single(JobPosting::setCompanyIndustry)),
+    LOCATION_MUNICIPALITY("locationMunicipality", single(JobPosting::setLocationMunicipality)),
+    LOCATION_SPECIFIC("locationSpecific", single(JobPosting::setLocationSpecific)),
+    EMPLOYMENT_DURATION("employmentDuration", single(JobPosting::setEmploymentDuration)),
+    WORKING_HOURS("workingHours", single(JobPosting::setWorkingHours)),
+    APPLICATION_DEADLINE("applicationDeadline", single(JobPosting::setApplicationDeadline)),
+    APPLICATION_METHOD("applicationMethod", single(JobPosting::setApplicationMethod)),
+    CONTACT_EMAIL("contactEmail", single(JobPosting::setContactEmail)),
+    CONTACT_PHONE("contactPhone", single(JobPosting::setContactPhone)),
+    CONTACT_PERSON_NAME("contactPersonName", single(JobPosting::setContactPersonName)),
+    CONTACT_PERSON_TITLE("contactPersonTitle", single(JobPosting::setContactPersonTitle)),
+    REQUIRED_SKILLS("requiredSkills", JobPosting::setRequiredSkills, true),
+    PREFERRED_SKILLS("preferredSkills", JobPosting::setPreferredSkills, true),
+    EDUCATION_REQUIREMENTS("educationRequirements", single(JobPosting::setEducationRequirements)),
+    LANGUAGE_REQUIREMENTS("languageRequirements", single(JobPosting::setLanguageRequirements)),
+    SALARY_INFO("salaryInfo", single(JobPosting::setSalaryInfo)),
+    BENEFITS("benefits", JobPosting::setBenefits, true),
+    APPLICATION_INSTRUCTIONS("applicationInstructions", single(JobPosting::setApplicationInstructions));
+
+    private final String property;
+    private final BiConsumer<JobPosting, List<String>> setter;
+    private final boolean multiValued;
+
+    PostingField(String property, BiConsumer<JobPosting, List<String>> setter) {
+        this(property, setter, false);
+    }
+
+    PostingField(String property, BiConsumer<JobPosting, List<String>> setter, boolean multiValued) {
+        this.property = property;
+        this.setter = setter;
+        this.multiValued = multiValued;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /** List fields collect every match; the others keep the first one. */
+    public boolean multiValued() {
+        return multiValued;
+    }
+
+    public void apply(JobPosting posting, List<String> values) {
+        if (!values.isEmpty()) {
+            setter.accept(posting, new ArrayList<>(values));
+        }
+    }
+
+    public static PostingField of(String property) {
+        for (PostingField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown posting field: " + property);
+    }
+
+    private static BiConsumer<JobPosting, List<String>> single(BiConsumer<JobPosting, String> setter) {
+        return (posting, values) -> setter.accept(posting, values.get(0));
+    }
+}
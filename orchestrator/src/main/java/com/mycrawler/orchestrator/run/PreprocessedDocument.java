@@ -1,6 +1,15 @@
 package com.mycrawler.orchestrator.run;
 
+import java.util.List;
 import java.util.Map;
 
-public record PreprocessedDocument(String title, String text, Map<String, String> snippets) {
+/**
+ * @param site   name of the site whose rules were evaluated, or null
+ * @param fields values the site rules found, in match order
+ */
+public record PreprocessedDocument(String title, String text, Map<String, String> snippets, String site,
+                                   Map<PostingField, List<String>> fields) {
+    public PreprocessedDocument(String title, String text, Map<String, String> snippets) {
+        this(title, text, snippets, null, Map.of());
+    }
 }
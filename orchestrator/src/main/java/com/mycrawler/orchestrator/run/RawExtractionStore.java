@@ -0,0 +1,426 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The raw extractions of a run, kept in append-only segment files instead of one JSON file per posting.
+ * <p>
+ * A segment ({@code <millis>-<writer>-<seq>.seg}) is a header followed by length-prefixed records: body length,
+ * CRC32C of the body, then the body itself (the page's file stem, which keys the record, and the posting's JSON).
+ * Every {@link Appender} writes its own segments, so pipeline runs on several nodes can append to one directory, and
+ * rolls to a new segment at a size limit. Closing a segment writes its {@code .idx}: the offset of every record,
+ * so opening a store reads a few compact index files instead of listing and opening a file per posting. A segment
+ * without an index (its writer died) is scanned instead, up to its first incomplete or corrupt record.
+ * <p>
+ * Segments are ordered by name and a later record for the same page wins, as an overwritten file did. JSON files
+ * written one per posting by earlier versions are still read for pages no segment has.
+ */
+public final class RawExtractionStore implements Closeable {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+    private static final String LOOSE_SUFFIX = ".json";
+    private static final int SEGMENT_MAGIC = 0x52415753;
+    private static final int INDEX_MAGIC = 0x52415749;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    // Body length and checksum before every record body.
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 << 20;
+    // Locations pack the segment number above the offset within it.
+    private static final int OFFSET_BITS = 40;
+    private static final Logger logger = LoggerFactory.getLogger(RawExtractionStore.class);
+    // Segment names start with a timestamp that never repeats in this process, so they sort in creation order.
+    private static final AtomicLong lastTimestamp = new AtomicLong();
+
+    private final ObjectReader reader;
+    private final List<Path> segments;
+    private final Map<String, Long> locations;
+    private final Map<String, Path> looseFiles;
+    private final FileChannel[] channels;
+
+    private RawExtractionStore(ObjectReader reader, List<Path> segments, Map<String, Long> locations,
+                               Map<String, Path> looseFiles) {
+        this.reader = reader;
+        this.segments = segments;
+        this.locations = locations;
+        this.looseFiles = looseFiles;
+        this.channels = new FileChannel[segments.size()];
+    }
+
+    @FunctionalInterface
+    public interface PostingVisitor {
+        void accept(JobPosting posting) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(String key, long offset, byte[] body) throws IOException;
+    }
+
+    /** Reads the segment indexes (or scans unindexed segments) and lists the loose files of {@code dir}. */
+    public static RawExtractionStore open(ObjectMapper objectMapper, Path dir) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        Map<String, Path> looseFiles = new LinkedHashMap<>();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> stream = Files.list(dir)) {
+                stream.forEach(path -> {
+                    String name = path.getFileName().toString();
+                    if (name.endsWith(SEGMENT_SUFFIX)) {
+                        segments.add(path);
+                    } else if (name.endsWith(LOOSE_SUFFIX)) {
+                        looseFiles.put(name.substring(0, name.length() - LOOSE_SUFFIX.length()), path);
+                    }
+                });
+            }
+        }
+        segments.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        Map<String, Long> locations = new HashMap<>();
+        for (int segment = 0; segment < segments.size(); segment++) {
+            int number = segment;
+            Path path = segments.get(segment);
+            if (!readIndex(path, (key, offset, body) -> locations.put(key, location(number, offset)))) {
+                scan(path, (key, offset, body) -> locations.put(key, location(number, offset)));
+            }
+        }
+        return new RawExtractionStore(objectMapper.readerFor(JobPosting.class), segments, locations, looseFiles);
+    }
+
+    /** An appender writing new segments into {@code dir}, rolling to the next one after {@code segmentBytes}. */
+    public static Appender appender(ObjectMapper objectMapper, Path dir, long segmentBytes) {
+        return new Appender(objectMapper.writerFor(JobPosting.class), dir, segmentBytes);
+    }
+
+    public boolean contains(Path htmlPath) {
+        String key = CrawlFiles.stem(htmlPath);
+        return locations.containsKey(key) || looseFiles.containsKey(key);
+    }
+
+    /** The page's latest raw extraction, or null when there is none. Thread-safe. */
+    public JobPosting read(Path htmlPath) throws IOException {
+        String key = CrawlFiles.stem(htmlPath);
+        Long location = locations.get(key);
+        if (location != null) {
+            int segment = (int) (location >>> OFFSET_BITS);
+            byte[] body = readBody(segment, location & ((1L << OFFSET_BITS) - 1));
+            return decode(body);
+        }
+        Path looseFile = looseFiles.get(key);
+        return looseFile != null ? reader.readValue(looseFile.toFile()) : null;
+    }
+
+    /**
+     * Visits the latest raw extraction of every page: the segments one after another, each read sequentially, then
+     * the loose files of pages no segment has.
+     */
+    public void forEach(PostingVisitor visitor) throws IOException {
+        for (int segment = 0; segment < segments.size(); segment++) {
+            int number = segment;
+            scan(segments.get(segment), (key, offset, body) -> {
+                Long location = locations.get(key);
+                if (location != null && location == location(number, offset)) {
+                    visitor.accept(decode(body));
+                }
+            });
+        }
+        for (Map.Entry<String, Path> entry : looseFiles.entrySet()) {
+            if (!locations.containsKey(entry.getKey())) {
+                visitor.accept(reader.readValue(entry.getValue().toFile()));
+            }
+        }
+    }
+
+    /** Pages with a raw extraction. */
+    public int size() {
+        int size = locations.size();
+        for (String key : looseFiles.keySet()) {
+            size += locations.containsKey(key) ? 0 : 1;
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i] != null) {
+                try {
+                    channels[i].close();
+                } catch (IOException ex) {
+                    failure = ex;
+                }
+                channels[i] = null;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static long location(int segment, long offset) {
+        return ((long) segment << OFFSET_BITS) | offset;
+    }
+
+    private JobPosting decode(byte[] body) throws IOException {
+        int keyLength = keyLength(body);
+        return reader.readValue(body, 2 + keyLength, body.length - 2 - keyLength);
+    }
+
+    private byte[] readBody(int segment, long offset) throws IOException {
+        FileChannel channel = channel(segment);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(channel, header, offset);
+        int length = header.getInt(0);
+        if (length < 2 || length > MAX_RECORD_BYTES) {
+            throw new IOException("Bad record length " + length + " at " + offset + " of " + segments.get(segment));
+        }
+        byte[] body = new byte[length];
+        readFully(channel, ByteBuffer.wrap(body), offset + RECORD_HEADER_BYTES);
+        if (checksum(body, 0, length) != header.getInt(4)) {
+            throw new IOException("Checksum mismatch at " + offset + " of " + segments.get(segment));
+        }
+        return body;
+    }
+
+    private synchronized FileChannel channel(int segment) throws IOException {
+        if (channels[segment] == null) {
+            channels[segment] = FileChannel.open(segments.get(segment), StandardOpenOption.READ);
+        }
+        return channels[segment];
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Record past the end of the segment at " + position);
+            }
+        }
+    }
+
+    /** Reads the keys and offsets of the segment's index; false when it has none or it is unusable. */
+    private static boolean readIndex(Path segment, RecordVisitor visitor) throws IOException {
+        Path index = indexPath(segment);
+        if (!Files.exists(index)) {
+            return false;
+        }
+        List<String> keys = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index), 1 << 16))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a raw extraction index");
+            }
+            long segmentLength = in.readLong();
+            if (Files.size(segment) < segmentLength) {
+                throw new IOException("Segment is shorter than its index");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte[] key = new byte[in.readUnsignedShort()];
+                in.readFully(key);
+                keys.add(new String(key, StandardCharsets.UTF_8));
+                offsets.add(in.readLong());
+            }
+        } catch (IOException ex) {
+            logger.warn("Scanning {} instead of its unusable index: {}", segment, ex.getMessage());
+            return false;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            visitor.visit(keys.get(i), offsets.get(i), null);
+        }
+        return true;
+    }
+
+    /** Visits the segment's records in order, up to its end or its first incomplete or corrupt record. */
+    private static void scan(Path segment, RecordVisitor visitor) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+            try {
+                if (in.readInt() != SEGMENT_MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Not a raw extraction segment: " + segment);
+                }
+            } catch (EOFException ex) {
+                // Created by a writer that has not written its header yet.
+                return;
+            }
+            long offset = SEGMENT_HEADER_BYTES;
+            while (true) {
+                byte[] body;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length < 2 || length > MAX_RECORD_BYTES) {
+                        logger.warn("Ignoring {} from offset {}: bad record length {}", segment, offset, length);
+                        return;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                    if (checksum(body, 0, length) != checksum) {
+                        logger.warn("Ignoring {} from offset {}: checksum mismatch", segment, offset);
+                        return;
+                    }
+                } catch (EOFException ex) {
+                    // The end, or a record its writer had not finished.
+                    return;
+                }
+                visitor.visit(new String(body, 2, keyLength(body), StandardCharsets.UTF_8), offset, body);
+                offset += RECORD_HEADER_BYTES + body.length;
+            }
+        }
+    }
+
+    private static int keyLength(byte[] body) {
+        return ((body[0] & 0xff) << 8) | (body[1] & 0xff);
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static Path indexPath(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    /**
+     * Appends raw extractions to segments of its own. Each record is written with one {@code write} call as it is
+     * appended, so once {@link #append} returns it survives a crash of the process and the extraction record that
+     * checkpoints it can be committed. Thread-safe; JSON encoding happens outside the lock.
+     */
+    public static final class Appender implements Closeable {
+        private final ObjectWriter writer;
+        private final Path dir;
+        private final long segmentBytes;
+        private final String writerId = String.format("%08x", ThreadLocalRandom.current().nextInt());
+        private int sequence;
+        private Path segment;
+        private FileChannel channel;
+        private long offset;
+        private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        private final DataOutputStream index = new DataOutputStream(indexBytes);
+        private int indexed;
+        private long appended;
+
+        private Appender(ObjectWriter writer, Path dir, long segmentBytes) {
+            if (segmentBytes <= SEGMENT_HEADER_BYTES) {
+                throw new IllegalArgumentException("segmentBytes must exceed the segment header: " + segmentBytes);
+            }
+            this.writer = writer;
+            this.dir = dir;
+            this.segmentBytes = segmentBytes;
+        }
+
+        public void append(Path htmlPath, JobPosting posting) throws IOException {
+            byte[] key = CrawlFiles.stem(htmlPath).getBytes(StandardCharsets.UTF_8);
+            if (key.length > 0xffff) {
+                throw new IOException("File name too long for a raw extraction key: " + htmlPath);
+            }
+            byte[] json = writer.writeValueAsBytes(posting);
+            int length = 2 + key.length + json.length;
+            if (length > MAX_RECORD_BYTES) {
+                throw new IOException("Raw extraction of " + length + " bytes is too large: " + htmlPath);
+            }
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+            record.putInt(length).putInt(0).putShort((short) key.length).put(key).put(json);
+            record.putInt(4, checksum(record.array(), RECORD_HEADER_BYTES, length));
+            record.flip();
+            synchronized (this) {
+                if (channel == null || (offset + record.remaining() > segmentBytes && indexed > 0)) {
+                    roll();
+                }
+                long recordOffset = offset;
+                while (record.hasRemaining()) {
+                    offset += channel.write(record);
+                }
+                index.writeShort(key.length);
+                index.write(key);
+                index.writeLong(recordOffset);
+                indexed++;
+                appended++;
+            }
+        }
+
+        /** Records appended so far. */
+        public synchronized long appended() {
+            return appended;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            closeSegment();
+        }
+
+        private void roll() throws IOException {
+            closeSegment();
+            Files.createDirectories(dir);
+            segment = dir.resolve(String.format("%013d-%s-%05d%s",
+                    nextTimestamp(), writerId, ++sequence, SEGMENT_SUFFIX));
+            channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES).putInt(SEGMENT_MAGIC).putInt(VERSION).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            offset = SEGMENT_HEADER_BYTES;
+        }
+
+        private static long nextTimestamp() {
+            return lastTimestamp.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+        }
+
+        private void closeSegment() throws IOException {
+            if (channel == null) {
+                return;
+            }
+            channel.close();
+            channel = null;
+            Path indexPath = indexPath(segment);
+            Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(offset);
+                out.writeInt(indexed);
+                indexBytes.writeTo(out);
+            }
+            try {
+                Files.move(tmp, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.debug("Closed raw extraction segment {} with {} records", segment, indexed);
+            indexBytes.reset();
+            indexed = 0;
+        }
+    }
+}
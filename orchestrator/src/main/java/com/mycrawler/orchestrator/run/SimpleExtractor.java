@@ -7,15 +7,26 @@ import java.util.Map;
 import java.util.UUID;
 
 public class SimpleExtractor {
+    private final TermDictionary dictionary;
+    private final LanguageDetector languages;
+
+    public SimpleExtractor() {
+        this(TermDictionary.NONE);
+    }
+
+    public SimpleExtractor(TermDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.languages = LanguageDetector.defaults();
+    }
+
     public JobPosting extract(PreprocessedDocument doc, MetaData meta) {
         JobPosting posting = new JobPosting();
-        String sourceKey = (doc.title() == null ? "" : doc.title()) + "|" + (meta.url() == null ? "" : meta.url());
-        posting.setJobId(UUID.nameUUIDFromBytes(sourceKey.getBytes()).toString());
+        posting.setJobId(jobId(doc.title(), meta.url()));
         posting.setJobTitle(blankToNull(doc.title()));
         posting.setCompanyName(blankToNull(meta.company()));
         posting.setCompanyIndustry(null);
         posting.setJobDescriptionSummary(summarize(doc.text()));
-        posting.setLocationMunicipality("Uusimaa");
+        posting.setLocationMunicipality(null);
         posting.setLocationSpecific(null);
         posting.setEmploymentDuration(null);
         posting.setWorkingHours(null);
@@ -33,21 +44,41 @@ public class SimpleExtractor {
         posting.setBenefits(new ArrayList<>());
         posting.setApplicationInstructions(null);
         posting.setSourceUrl(blankToNull(meta.url()));
-        posting.setSourceLanguage("unknown");
-        posting.setExtractionNotes("heuristic-baseline");
+        posting.setSourceLanguage(languages.detect(doc.text()));
+        posting.setExtractionNotes(doc.site() == null
+                ? "heuristic-baseline"
+                : "heuristic-baseline; site-rules=" + doc.site());
         posting.setRawFields(new HashMap<>());
+        applyFields(posting, dictionary.scan(doc.text()));
+        applyFields(posting, doc.fields());
         posting.setExtractionConfidence(scoreConfidence(posting));
         return posting;
     }
 
-    private String summarize(String text) {
+    // Dictionary matches replace the baseline guesses and site rule values replace both, except that a company
+    // recorded by the crawler wins.
+    private void applyFields(JobPosting posting, Map<PostingField, List<String>> fields) {
+        fields.forEach((field, values) -> {
+            if (field != PostingField.COMPANY_NAME || posting.getCompanyName() == null) {
+                field.apply(posting, values);
+            }
+        });
+    }
+
+    /** Stable id of a posting: the same title on the same page always gets the same id. */
+    static String jobId(String title, String url) {
+        String sourceKey = (title == null ? "" : title) + "|" + (url == null ? "" : url);
+        return UUID.nameUUIDFromBytes(sourceKey.getBytes()).toString();
+    }
+
+    static String summarize(String text) {
         if (text == null || text.isBlank()) {
             return null;
         }
         return text.substring(0, Math.min(text.length(), 600));
     }
 
-    private String scoreConfidence(JobPosting posting) {
+    static String scoreConfidence(JobPosting posting) {
         int score = 0;
         score += posting.getJobTitle() != null ? 1 : 0;
         score += posting.getCompanyName() != null ? 1 : 0;
@@ -62,7 +93,7 @@ public class SimpleExtractor {
         return "low";
     }
 
-    private String blankToNull(String value) {
+    static String blankToNull(String value) {
         if (value == null || value.isBlank()) {
             return null;
         }
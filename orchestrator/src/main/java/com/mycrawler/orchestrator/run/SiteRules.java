@@ -0,0 +1,443 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+
+/**
+ * Per-site field rules, compiled once from JSON. Every rule's {@code selector} is matched against each
+ * element during the preprocessor's single text pass, so a page costs one traversal however many fields
+ * its site declares; the element's text (or {@code attribute}) is optionally narrowed by {@code regex}.
+ * A field's rules are in priority order; the {@code "*"} site's rules follow every site's own, and are all
+ * that unknown hosts get.
+ */
+public final class SiteRules {
+    public static final String DEFAULT_RESOURCE = "site-rules.json";
+    public static final SiteRules NONE = new SiteRules(List.of(), null, "none");
+    static final int MAX_VALUES = 20;
+    static final int MAX_VALUE_CHARS = 1000;
+    private static final String ANY_SITE = "*";
+
+    private final List<Site> sites;
+    private final Site fallback;
+    private final String fingerprint;
+
+    private SiteRules(List<Site> sites, Site fallback, String fingerprint) {
+        this.sites = sites;
+        this.fallback = fallback;
+        this.fingerprint = fingerprint;
+    }
+
+    /** The rules bundled in {@link #DEFAULT_RESOURCE}. */
+    public static SiteRules defaults(ObjectMapper objectMapper) {
+        try (InputStream in = SiteRules.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing classpath resource " + DEFAULT_RESOURCE);
+            }
+            return load(objectMapper, in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException for unknown fields, invalid selectors or invalid regexes
+     */
+    public static SiteRules load(ObjectMapper objectMapper, InputStream in) throws IOException {
+        byte[] content = in.readAllBytes();
+        Spec spec = objectMapper.readerFor(Spec.class)
+                .with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(content);
+        Map<PostingField, List<Rule>> fallbackRules = new EnumMap<>(PostingField.class);
+        List<SiteSpec> siteSpecs = spec.sites() == null ? List.of() : spec.sites();
+        for (SiteSpec site : siteSpecs) {
+            if (ANY_SITE.equals(site.name())) {
+                fallbackRules.putAll(compile(site));
+            }
+        }
+        List<Site> sites = new ArrayList<>();
+        for (SiteSpec site : siteSpecs) {
+            if (ANY_SITE.equals(site.name())) {
+                continue;
+            }
+            Map<PostingField, List<Rule>> rules = compile(site);
+            fallbackRules.forEach((field, fallback) -> rules.merge(field, fallback, (own, any) -> {
+                List<Rule> merged = new ArrayList<>(own);
+                any.forEach(rule -> merged.add(rule.withRank(merged.size())));
+                return merged;
+            }));
+            List<String> domains = site.domains() == null || site.domains().isEmpty()
+                    ? List.of(site.name())
+                    : site.domains();
+            sites.add(new Site(site.name(), domains.stream().map(d -> d.toLowerCase(Locale.ROOT)).toList(), rules));
+        }
+        Site fallback = fallbackRules.isEmpty() ? null : new Site(ANY_SITE, List.of(), fallbackRules);
+        return new SiteRules(List.copyOf(sites), fallback, fingerprint(content));
+    }
+
+    /** The site whose domain (or a parent domain) hosts {@code url}, the {@code "*"} rules, or null. */
+    public Site forUrl(String url) {
+        String host = host(url);
+        if (host != null) {
+            for (Site site : sites) {
+                if (site.hosts(host)) {
+                    return site;
+                }
+            }
+        }
+        return fallback;
+    }
+
+    /** Identifies the rule set for keying cached results. */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    public int size() {
+        return sites.size();
+    }
+
+    private static String host(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        try {
+            String host = URI.create(url.trim()).getHost();
+            return host == null ? null : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static Map<PostingField, List<Rule>> compile(SiteSpec site) {
+        Map<PostingField, List<Rule>> compiled = new EnumMap<>(PostingField.class);
+        if (site.fields() == null) {
+            return compiled;
+        }
+        site.fields().forEach((property, specs) -> {
+            PostingField field;
+            try {
+                field = PostingField.of(property);
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Site rules for " + site.name() + ": " + ex.getMessage(), ex);
+            }
+            List<Rule> rules = new ArrayList<>();
+            for (RuleSpec spec : specs) {
+                rules.add(compile(site.name(), field, rules.size(), spec));
+            }
+            compiled.put(field, rules);
+        });
+        return compiled;
+    }
+
+    private static Rule compile(String site, PostingField field, int rank, RuleSpec spec) {
+        String context = "Site rules for " + site + "/" + field.property() + ": ";
+        if (spec.selector() == null || spec.selector().isBlank()) {
+            throw new IllegalArgumentException(context + "a rule needs a selector");
+        }
+        Evaluator evaluator;
+        try {
+            evaluator = QueryParser.parse(spec.selector());
+        } catch (Selector.SelectorParseException ex) {
+            throw new IllegalArgumentException(context + "invalid selector '" + spec.selector() + "'", ex);
+        }
+        Pattern pattern = null;
+        if (spec.regex() != null && !spec.regex().isBlank()) {
+            try {
+                pattern = Pattern.compile(spec.regex());
+            } catch (PatternSyntaxException ex) {
+                throw new IllegalArgumentException(context + "invalid regex '" + spec.regex() + "'", ex);
+            }
+        }
+        String attribute = spec.attribute() == null || spec.attribute().isBlank() ? null : spec.attribute();
+        return new Rule(field, rank, spec.selector(), evaluator, structural(spec.selector()), Key.of(spec.selector()),
+                attribute, pattern);
+    }
+
+    /**
+     * What every element matched by {@code selector} must have, read off the last compound selector of each
+     * alternative: a tag name when they all name the same one, and attributes when each needs a class, id or
+     * attribute. Lets {@link FieldCollector#visit} skip most rules without running their evaluators.
+     */
+    record Key(String tag, boolean needsAttributes) {
+        static Key of(String selector) {
+            List<String> alternatives = new ArrayList<>();
+            int depth = 0;
+            char quote = 0;
+            int start = 0;
+            for (int i = 0; i <= selector.length(); i++) {
+                char c = i < selector.length() ? selector.charAt(i) : ',';
+                if (quote != 0) {
+                    quote = c == quote ? 0 : quote;
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '[' || c == '(') {
+                    depth++;
+                } else if (c == ']' || c == ')') {
+                    depth--;
+                } else if (depth == 0 && c == ',') {
+                    alternatives.add(selector.substring(start, i).strip());
+                    start = i + 1;
+                } else if (depth == 0 && (Character.isWhitespace(c) || c == '>' || c == '+' || c == '~')) {
+                    start = i + 1;
+                }
+            }
+            String tag = tag(alternatives.get(0));
+            boolean needsAttributes = true;
+            for (String compound : alternatives) {
+                if (tag != null && !tag.equals(tag(compound))) {
+                    tag = null;
+                }
+                needsAttributes &= needsAttributes(compound);
+            }
+            return new Key(tag, needsAttributes);
+        }
+
+        private static String tag(String compound) {
+            int end = 0;
+            while (end < compound.length()
+                    && (Character.isLetterOrDigit(compound.charAt(end)) || compound.charAt(end) == '-')) {
+                end++;
+            }
+            if (end == 0 || !Character.isLetter(compound.charAt(0))
+                    || (end < compound.length() && compound.charAt(end) == '|')) {
+                return null;
+            }
+            return compound.substring(0, end).toLowerCase(Locale.ROOT);
+        }
+
+        private static boolean needsAttributes(String compound) {
+            int depth = 0;
+            for (int i = 0; i < compound.length(); i++) {
+                char c = compound.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (depth == 0 && (c == '.' || c == '#' || c == '[')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** Whether {@code selector} has combinators or pseudo-selectors with arguments, i.e. may memoise matches. */
+    static boolean structural(String selector) {
+        char quote = 0;
+        int brackets = 0;
+        String trimmed = selector.strip();
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                brackets++;
+            } else if (c == ']') {
+                brackets--;
+            } else if (brackets == 0 && (c == '>' || c == '+' || c == '~' || c == '(')) {
+                return true;
+            } else if (brackets == 0 && Character.isWhitespace(c)) {
+                // Whitespace around a group's commas separates selectors; anywhere else it is a combinator.
+                char before = trimmed.charAt(i - 1);
+                int next = i;
+                while (next < trimmed.length() && Character.isWhitespace(trimmed.charAt(next))) {
+                    next++;
+                }
+                if (before != ',' && trimmed.charAt(next) != ',') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static String fingerprint(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** One site's compiled rules, followed by the {@code "*"} rules. */
+    public static final class Site {
+        private final String name;
+        private final List<String> domains;
+        private final Map<String, List<Rule>> rulesByTag = new HashMap<>();
+        private final List<Rule> anyTagRules = new ArrayList<>();
+        private final Set<PostingField> fields = EnumSet.noneOf(PostingField.class);
+
+        private Site(String name, List<String> domains, Map<PostingField, List<Rule>> rules) {
+            this.name = name;
+            this.domains = domains;
+            rules.forEach((field, fieldRules) -> {
+                for (Rule rule : fieldRules) {
+                    String tag = rule.key().tag();
+                    (tag == null ? anyTagRules : rulesByTag.computeIfAbsent(tag, t -> new ArrayList<>())).add(rule);
+                }
+                fields.add(field);
+            });
+        }
+
+        public String name() {
+            return name;
+        }
+
+        private boolean hosts(String host) {
+            for (String domain : domains) {
+                if (host.equals(domain) || host.endsWith("." + domain)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Starts evaluating this site's rules against {@code root}, the document being traversed. */
+        public FieldCollector collector(Element root) {
+            return new FieldCollector(this, root);
+        }
+    }
+
+    /**
+     * Per-document state: feed it every element of one traversal through {@link #visit}, then call
+     * {@link #finish}. A single-valued field keeps the match of its highest priority rule, whatever the
+     * document order.
+     */
+    public static final class FieldCollector {
+        private final Site site;
+        private final Element root;
+        private final Map<PostingField, List<String>> values = new EnumMap<>(PostingField.class);
+        private final Map<PostingField, Integer> ranks = new EnumMap<>(PostingField.class);
+        private final Set<PostingField> open;
+        // Structural evaluators memoise matches per root and are never cleared through the public API, so each
+        // document gets its own, dropped along with the collector.
+        private final Map<Rule, Evaluator> structuralEvaluators = new IdentityHashMap<>();
+
+        private FieldCollector(Site site, Element root) {
+            this.site = site;
+            this.root = root;
+            this.open = site.fields.isEmpty() ? EnumSet.noneOf(PostingField.class) : EnumSet.copyOf(site.fields);
+        }
+
+        public void visit(Element element) {
+            if (open.isEmpty()) {
+                return;
+            }
+            visit(element, site.anyTagRules);
+            List<Rule> tagRules = site.rulesByTag.get(element.normalName());
+            if (tagRules != null) {
+                visit(element, tagRules);
+            }
+        }
+
+        private void visit(Element element, List<Rule> rules) {
+            boolean hasAttributes = element.attributesSize() > 0;
+            for (Rule rule : rules) {
+                int rank = rule.rank();
+                if (!open.contains(rule.field())
+                        || rank >= ranks.getOrDefault(rule.field(), Integer.MAX_VALUE)
+                        || (rule.key().needsAttributes() && !hasAttributes)
+                        || !evaluator(rule).matches(root, element)) {
+                    continue;
+                }
+                String source = rule.attribute() != null ? element.attr(rule.attribute()) : element.text();
+                String value = source;
+                if (rule.pattern() != null) {
+                    Matcher matcher = rule.pattern().matcher(source);
+                    value = matcher.find() ? matcher.group(matcher.groupCount() > 0 ? 1 : 0) : null;
+                }
+                if (rule.field().multiValued()) {
+                    add(rule.field(), value);
+                } else if (value != null && !value.isBlank()) {
+                    values.remove(rule.field());
+                    add(rule.field(), value);
+                    ranks.put(rule.field(), rank);
+                    if (rank > 0) {
+                        open.add(rule.field());
+                    }
+                }
+            }
+        }
+
+        private Evaluator evaluator(Rule rule) {
+            if (!rule.structural()) {
+                return rule.evaluator();
+            }
+            return structuralEvaluators.computeIfAbsent(rule, r -> QueryParser.parse(r.selector()));
+        }
+
+        /** True once no further element can change a field, so the traversal need not continue for them. */
+        public boolean done() {
+            return open.isEmpty();
+        }
+
+        /** Returns the values found. */
+        public Map<PostingField, List<String>> finish() {
+            return values;
+        }
+
+        private void add(PostingField field, String value) {
+            if (value != null) {
+                value = value.strip();
+                if (value.length() > MAX_VALUE_CHARS) {
+                    value = value.substring(0, MAX_VALUE_CHARS);
+                }
+            }
+            List<String> fieldValues = values.computeIfAbsent(field, ignored -> new ArrayList<>());
+            if (value != null && !value.isEmpty() && !fieldValues.contains(value)) {
+                fieldValues.add(value);
+            }
+            if (fieldValues.isEmpty()) {
+                values.remove(field);
+            }
+            if (!field.multiValued() ? !fieldValues.isEmpty() : fieldValues.size() >= MAX_VALUES) {
+                open.remove(field);
+            }
+        }
+    }
+
+    /** {@code rank} is the rule's position among its field's rules; a rank 0 match needs no better one. */
+    private record Rule(PostingField field, int rank, String selector, Evaluator evaluator, boolean structural, Key key,
+                        String attribute, Pattern pattern) {
+        Rule withRank(int rank) {
+            return new Rule(field, rank, selector, evaluator, structural, key, attribute, pattern);
+        }
+    }
+
+    private record Spec(List<SiteSpec> sites) {
+    }
+
+    private record SiteSpec(String name, List<String> domains, LinkedHashMap<String, List<RuleSpec>> fields) {
+    }
+
+    private record RuleSpec(String selector, String attribute, String regex) {
+    }
+}
@@ -0,0 +1,369 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Term lists for skills, municipalities and benefits, compiled once from JSON into an Aho-Corasick automaton
+ * so that every term is found in one linear scan of a page's text. Each term lists its Finnish, Swedish and
+ * English forms in lower case; a trailing {@code *} also matches inflected forms (any letters that follow,
+ * as in {@code "helsin*"} for Helsingissä), without it the form has to end at a word boundary. Matching is
+ * case-insensitive, and a form found inside a longer match (such as "ajokortti" in "b-ajokortti") is dropped.
+ */
+public final class TermDictionary {
+    public static final String DEFAULT_RESOURCE = "dictionary.json";
+    public static final TermDictionary NONE = compile(new EnumMap<>(Category.class), "none");
+    private static final int MAX_TERMS = 30;
+
+    /** The JSON sections; skills in a sentence with a preferred marker ("eduksi", "meriterande") are preferred. */
+    public enum Category {
+        MUNICIPALITIES("municipalities"),
+        SKILLS("skills"),
+        BENEFITS("benefits"),
+        PREFERRED_MARKERS("preferredMarkers");
+
+        private final String property;
+
+        Category(String property) {
+            this.property = property;
+        }
+
+        static Category of(String property) {
+            for (Category category : values()) {
+                if (category.property.equals(property)) {
+                    return category;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dictionary section: " + property);
+        }
+    }
+
+    private final String fingerprint;
+    private final String[] termNames;
+    private final Category[] termCategories;
+    // Automaton: classes maps a char to its column, 0 for chars no form contains; next is the full DFA.
+    private final char[] classes;
+    private final int alphabet;
+    private final int[] next;
+    private final int[] outputStart;
+    private final int[] outputs;
+    private final int[] formTerms;
+    private final int[] formLengths;
+    private final boolean[] formInflected;
+
+    private TermDictionary(String fingerprint, String[] termNames, Category[] termCategories, char[] classes,
+                           int alphabet, int[] next, int[] outputStart, int[] outputs, int[] formTerms,
+                           int[] formLengths, boolean[] formInflected) {
+        this.fingerprint = fingerprint;
+        this.termNames = termNames;
+        this.termCategories = termCategories;
+        this.classes = classes;
+        this.alphabet = alphabet;
+        this.next = next;
+        this.outputStart = outputStart;
+        this.outputs = outputs;
+        this.formTerms = formTerms;
+        this.formLengths = formLengths;
+        this.formInflected = formInflected;
+    }
+
+    /** The terms bundled in {@link #DEFAULT_RESOURCE}. */
+    public static TermDictionary defaults(ObjectMapper objectMapper) {
+        try (InputStream in = TermDictionary.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing classpath resource " + DEFAULT_RESOURCE);
+            }
+            return load(objectMapper, in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException for unknown sections or empty forms
+     */
+    public static TermDictionary load(ObjectMapper objectMapper, InputStream in) throws IOException {
+        byte[] content = in.readAllBytes();
+        Map<String, LinkedHashMap<String, List<String>>> spec = objectMapper
+                .readerFor(new TypeReference<LinkedHashMap<String, LinkedHashMap<String, List<String>>>>() { })
+                .with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+                .readValue(content);
+        Map<Category, Map<String, List<String>>> sections = new EnumMap<>(Category.class);
+        spec.forEach((section, terms) -> sections.put(Category.of(section), terms));
+        return compile(sections, SiteRules.fingerprint(content));
+    }
+
+    /** Identifies the term lists for keying cached results. */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    public int size() {
+        return termNames.length;
+    }
+
+    /**
+     * Tags {@code text} in one pass: the most mentioned municipality (the first on a tie), skills split into
+     * required and preferred, and benefits, each in order of first mention. Fields without a match are absent.
+     */
+    public Map<PostingField, List<String>> scan(String text) {
+        Map<PostingField, List<String>> fields = new EnumMap<>(PostingField.class);
+        if (termNames.length == 0 || text == null || text.isEmpty()) {
+            return fields;
+        }
+        Scan scan = new Scan(termNames.length);
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            state = next[state * alphabet + (c < classes.length ? classes[c] : 0)];
+            for (int o = outputStart[state]; o < outputStart[state + 1]; o++) {
+                int form = outputs[o];
+                int start = i - formLengths[form] + 1;
+                if ((start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)))
+                        && (formInflected[form] || i + 1 == length || !Character.isLetterOrDigit(text.charAt(i + 1)))) {
+                    scan.offer(formTerms[form], start, i);
+                }
+            }
+            if ((c == '.' || c == '!' || c == '?') && (i + 1 == length || text.charAt(i + 1) == ' ')) {
+                scan.endSentence();
+            }
+        }
+        scan.endSentence();
+        return scan.fields(fields);
+    }
+
+    private static TermDictionary compile(Map<Category, Map<String, List<String>>> sections, String fingerprint) {
+        List<String> names = new ArrayList<>();
+        List<Category> categories = new ArrayList<>();
+        List<String> forms = new ArrayList<>();
+        List<Integer> terms = new ArrayList<>();
+        sections.forEach((category, entries) -> entries.forEach((name, variants) -> {
+            if (variants == null || variants.isEmpty()) {
+                throw new IllegalArgumentException("Dictionary " + category.property + "/" + name + ": no forms");
+            }
+            for (String variant : variants) {
+                String form = variant == null ? "" : variant.strip().toLowerCase(Locale.ROOT);
+                int star = form.indexOf('*');
+                if (form.isEmpty() || form.equals("*") || (star >= 0 && star < form.length() - 1)) {
+                    throw new IllegalArgumentException("Dictionary " + category.property + "/" + name
+                            + ": invalid form '" + variant + "'; '*' may only end a form");
+                }
+                forms.add(form);
+                terms.add(names.size());
+            }
+            names.add(name);
+            categories.add(category);
+        }));
+
+        // Columns: one per distinct char in the forms, shared by its upper-case twin.
+        char max = 0;
+        for (String form : forms) {
+            for (char c : form.toCharArray()) {
+                max = (char) Math.max(max, Math.max(c, Character.toUpperCase(c)));
+            }
+        }
+        char[] classes = new char[forms.isEmpty() ? 0 : max + 1];
+        int alphabet = 1;
+        for (String form : forms) {
+            for (char c : form.toCharArray()) {
+                if (c != '*' && classes[c] == 0) {
+                    classes[c] = (char) alphabet;
+                    classes[Character.toUpperCase(c)] = (char) alphabet;
+                    alphabet++;
+                }
+            }
+        }
+
+        // Trie of the forms; -1 marks a missing edge until the breadth-first pass fills it in.
+        int[] next = new int[alphabet * 16];
+        Arrays.fill(next, -1);
+        int states = 1;
+        List<List<Integer>> own = new ArrayList<>();
+        own.add(new ArrayList<>());
+        int[] formTerms = new int[forms.size()];
+        int[] formLengths = new int[forms.size()];
+        boolean[] formInflected = new boolean[forms.size()];
+        for (int f = 0; f < forms.size(); f++) {
+            String form = forms.get(f);
+            formInflected[f] = form.endsWith("*");
+            formLengths[f] = formInflected[f] ? form.length() - 1 : form.length();
+            formTerms[f] = terms.get(f);
+            int state = 0;
+            for (int i = 0; i < formLengths[f]; i++) {
+                int edge = state * alphabet + classes[form.charAt(i)];
+                if (next[edge] < 0) {
+                    if ((states + 1) * alphabet > next.length) {
+                        int old = next.length;
+                        next = Arrays.copyOf(next, old * 2);
+                        Arrays.fill(next, old, next.length, -1);
+                    }
+                    next[edge] = states++;
+                    own.add(new ArrayList<>());
+                }
+                state = next[edge];
+            }
+            own.get(state).add(f);
+        }
+        next = Arrays.copyOf(next, states * alphabet);
+
+        // Failure links folded into the transitions, so scanning is one table lookup per char.
+        int[] fail = new int[states];
+        List<List<Integer>> output = new ArrayList<>(own);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < alphabet; c++) {
+            int child = next[c];
+            if (child < 0) {
+                next[c] = 0;
+            } else {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> merged = new ArrayList<>(own.get(state));
+            merged.addAll(output.get(fail[state]));
+            merged.sort(Comparator.comparingInt((Integer f) -> formLengths[f]).reversed());
+            output.set(state, merged);
+            for (int c = 0; c < alphabet; c++) {
+                int edge = state * alphabet + c;
+                int fallback = next[fail[state] * alphabet + c];
+                if (next[edge] < 0) {
+                    next[edge] = fallback;
+                } else {
+                    fail[next[edge]] = fallback;
+                    queue.add(next[edge]);
+                }
+            }
+        }
+        int[] outputStart = new int[states + 1];
+        for (int s = 0; s < states; s++) {
+            outputStart[s + 1] = outputStart[s] + output.get(s).size();
+        }
+        int[] outputs = new int[outputStart[states]];
+        for (int s = 0; s < states; s++) {
+            for (int o = 0; o < output.get(s).size(); o++) {
+                outputs[outputStart[s] + o] = output.get(s).get(o);
+            }
+        }
+        return new TermDictionary(fingerprint, names.toArray(String[]::new), categories.toArray(Category[]::new),
+                classes, alphabet, next, outputStart, outputs, formTerms, formLengths, formInflected);
+    }
+
+    /** Per-scan counters, sized by the number of terms so that matches themselves allocate nothing. */
+    private final class Scan {
+        private final int[] mentions;
+        private final int[] firstMention;
+        private final int[] required;
+        private final int[] preferred;
+        private int[] sentenceSkills = new int[16];
+        private int sentenceSkillCount;
+        private boolean sentencePreferred;
+        private int order;
+        // The latest match is held back until no longer match can contain it.
+        private int pendingTerm = -1;
+        private int pendingStart;
+        private int pendingEnd;
+
+        private Scan(int terms) {
+            mentions = new int[terms];
+            firstMention = new int[terms];
+            required = new int[terms];
+            preferred = new int[terms];
+        }
+
+        // Matches arrive by end position, longest first at each, so one containing the pending one comes later.
+        private void offer(int term, int start, int end) {
+            if (pendingTerm >= 0 && start > pendingStart && end <= pendingEnd) {
+                return;
+            }
+            if (pendingTerm >= 0 && start > pendingStart) {
+                match(pendingTerm);
+            }
+            pendingTerm = term;
+            pendingStart = start;
+            pendingEnd = end;
+        }
+
+        private void match(int term) {
+            if (mentions[term]++ == 0) {
+                firstMention[term] = order++;
+            }
+            Category category = termCategories[term];
+            if (category == Category.PREFERRED_MARKERS) {
+                sentencePreferred = true;
+            } else if (category == Category.SKILLS) {
+                if (sentenceSkillCount == sentenceSkills.length) {
+                    sentenceSkills = Arrays.copyOf(sentenceSkills, sentenceSkillCount * 2);
+                }
+                sentenceSkills[sentenceSkillCount++] = term;
+            }
+        }
+
+        // A marker anywhere in the sentence makes its skills preferred, as in "Excel-osaaminen katsotaan eduksi".
+        private void endSentence() {
+            if (pendingTerm >= 0) {
+                match(pendingTerm);
+                pendingTerm = -1;
+            }
+            int[] counts = sentencePreferred ? preferred : required;
+            for (int i = 0; i < sentenceSkillCount; i++) {
+                counts[sentenceSkills[i]]++;
+            }
+            sentenceSkillCount = 0;
+            sentencePreferred = false;
+        }
+
+        private Map<PostingField, List<String>> fields(Map<PostingField, List<String>> fields) {
+            Integer[] byMention = new Integer[termNames.length];
+            int found = 0;
+            for (int term = 0; term < termNames.length; term++) {
+                if (mentions[term] > 0) {
+                    byMention[found++] = term;
+                }
+            }
+            Arrays.sort(byMention, 0, found, Comparator.comparingInt((Integer term) -> firstMention[term]));
+            int municipality = -1;
+            for (int i = 0; i < found; i++) {
+                int term = byMention[i];
+                switch (termCategories[term]) {
+                    case MUNICIPALITIES -> {
+                        if (municipality < 0 || mentions[term] > mentions[municipality]) {
+                            municipality = term;
+                        }
+                    }
+                    case SKILLS -> add(fields, required[term] > 0
+                            ? PostingField.REQUIRED_SKILLS
+                            : PostingField.PREFERRED_SKILLS, termNames[term]);
+                    case BENEFITS -> add(fields, PostingField.BENEFITS, termNames[term]);
+                    case PREFERRED_MARKERS -> {
+                    }
+                }
+            }
+            if (municipality >= 0) {
+                fields.put(PostingField.LOCATION_MUNICIPALITY, List.of(termNames[municipality]));
+            }
+            return fields;
+        }
+
+        private void add(Map<PostingField, List<String>> fields, PostingField field, String name) {
+            List<String> values = fields.computeIfAbsent(field, f -> new ArrayList<>());
+            if (values.size() < MAX_TERMS) {
+                values.add(name);
+            }
+        }
+    }
+}
@@ -1,58 +1,361 @@
 package com.mycrawler.orchestrator.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.run.CrawlFiles;
+import com.mycrawler.orchestrator.run.DuplicateIndex;
 import com.mycrawler.orchestrator.run.JobPosting;
+import com.mycrawler.orchestrator.run.ParquetFile;
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ExportService {
     private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("job_id", "job_title", "company_name", "location_municipality", "source_url", "confidence")
+            .build();
+    private static final CSVFormat DUPLICATES_CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("job_id", "source_url", "canonical_job_id", "canonical_source_url", "similarity")
+            .build();
+    public static final int DEFAULT_ROW_GROUP_MB = 32;
+    private static final String JSONL = "jobs.jsonl";
+    private static final String CSV = "jobs.csv";
+    private static final String PARQUET = "jobs.parquet";
+    private static final int WRITER_BUFFER_CHARS = 64 * 1024;
+    private static final int COLUMNS_ZSTD_LEVEL = 3;
+    // Every scalar field of jobs.jsonl and its lists; rawFields stay in jobs.jsonl only.
+    private static final List<ParquetFile.Column<JobPosting>> COLUMNS = List.of(
+            ParquetFile.Column.string("job_id", JobPosting::getJobId),
+            ParquetFile.Column.string("job_title", JobPosting::getJobTitle),
+            ParquetFile.Column.string("company_name", JobPosting::getCompanyName),
+            ParquetFile.Column.string("company_industry", JobPosting::getCompanyIndustry),
+            ParquetFile.Column.string("job_description_summary", JobPosting::getJobDescriptionSummary),
+            ParquetFile.Column.string("location_municipality", JobPosting::getLocationMunicipality),
+            ParquetFile.Column.string("location_specific", JobPosting::getLocationSpecific),
+            ParquetFile.Column.string("employment_duration", JobPosting::getEmploymentDuration),
+            ParquetFile.Column.string("working_hours", JobPosting::getWorkingHours),
+            ParquetFile.Column.string("application_deadline", JobPosting::getApplicationDeadline),
+            ParquetFile.Column.string("application_method", JobPosting::getApplicationMethod),
+            ParquetFile.Column.string("contact_email", JobPosting::getContactEmail),
+            ParquetFile.Column.string("contact_phone", JobPosting::getContactPhone),
+            ParquetFile.Column.string("contact_person_name", JobPosting::getContactPersonName),
+            ParquetFile.Column.string("contact_person_title", JobPosting::getContactPersonTitle),
+            ParquetFile.Column.list("required_skills", JobPosting::getRequiredSkills),
+            ParquetFile.Column.list("preferred_skills", JobPosting::getPreferredSkills),
+            ParquetFile.Column.string("education_requirements", JobPosting::getEducationRequirements),
+            ParquetFile.Column.string("language_requirements", JobPosting::getLanguageRequirements),
+            ParquetFile.Column.string("salary_info", JobPosting::getSalaryInfo),
+            ParquetFile.Column.list("benefits", JobPosting::getBenefits),
+            ParquetFile.Column.string("application_instructions", JobPosting::getApplicationInstructions),
+            ParquetFile.Column.string("source_url", JobPosting::getSourceUrl),
+            ParquetFile.Column.string("source_language", JobPosting::getSourceLanguage),
+            ParquetFile.Column.string("confidence", JobPosting::getExtractionConfidence),
+            ParquetFile.Column.string("extraction_notes", JobPosting::getExtractionNotes));
     private final ObjectMapper objectMapper;
+    private final boolean deduplicate;
+    private final double duplicateMinSimilarity;
+    private final boolean columnar;
+    private final int rowGroupMb;
+    private final Output defaultOutput;
 
     public ExportService(ObjectMapper objectMapper) {
+        this(objectMapper, true, DuplicateIndex.DEFAULT_MIN_SIMILARITY, true, DEFAULT_ROW_GROUP_MB,
+                CrawlFiles.Compression.NONE, 0);
+    }
+
+    /**
+     * @param deduplicate            link near-duplicate postings instead of exporting them
+     * @param duplicateMinSimilarity estimated Jaccard similarity of two postings' text from which they are
+     *                               near-duplicates
+     * @param columnar               also write jobs.parquet, the postings as a Parquet file
+     * @param rowGroupMb             megabytes of postings per jobs.parquet row group, about the most a sink buffers
+     * @param compression            compression of jobs.jsonl and jobs.csv for runs that do not choose one
+     * @param compressionLevel       its level, 0 for the codec's default
+     */
+    @Autowired
+    public ExportService(
+            ObjectMapper objectMapper,
+            @Value("${exports.duplicates.enabled:true}") boolean deduplicate,
+            @Value("${exports.duplicates.min-similarity:" + DuplicateIndex.DEFAULT_MIN_SIMILARITY + "}")
+            double duplicateMinSimilarity,
+            @Value("${exports.columnar.enabled:true}") boolean columnar,
+            @Value("${exports.columnar.row-group-mb:" + DEFAULT_ROW_GROUP_MB + "}") int rowGroupMb,
+            @Value("${exports.compression:NONE}") CrawlFiles.Compression compression,
+            @Value("${exports.compression-level:0}") int compressionLevel
+    ) {
+        if (!(duplicateMinSimilarity > 0 && duplicateMinSimilarity <= 1)) {
+            throw new IllegalArgumentException(
+                    "exports.duplicates.min-similarity must be in (0, 1]: " + duplicateMinSimilarity);
+        }
+        if (rowGroupMb < 1) {
+            throw new IllegalArgumentException("exports.columnar.row-group-mb must be positive: " + rowGroupMb);
+        }
+        if (compressionLevel < 0 || compressionLevel > compression.maxLevel()) {
+            throw new IllegalArgumentException("exports.compression-level must be in [0, " + compression.maxLevel()
+                    + "] for " + compression + ": " + compressionLevel);
+        }
         this.objectMapper = objectMapper;
+        this.deduplicate = deduplicate;
+        this.duplicateMinSimilarity = duplicateMinSimilarity;
+        this.columnar = columnar;
+        this.rowGroupMb = rowGroupMb;
+        this.defaultOutput = new Output(compression, compressionLevel);
+    }
+
+    /**
+     * How jobs.jsonl and jobs.csv are written: plain, or compressed while they are streamed out (as jobs.jsonl.gz
+     * or jobs.jsonl.zst, and likewise jobs.csv) at {@code level}, 0 being the codec's default.
+     *
+     * @throws IllegalArgumentException when {@code level} is negative or above the compression's highest level
+     */
+    public record Output(CrawlFiles.Compression compression, int level) {
+        public static final Output PLAIN = new Output(CrawlFiles.Compression.NONE, 0);
+
+        public Output {
+            if (level < 0 || level > compression.maxLevel()) {
+                throw new IllegalArgumentException(compression + " compression level must be in [0, "
+                        + compression.maxLevel() + "]: " + level);
+            }
+        }
+    }
+
+    /**
+     * The output a run asks for; what it leaves unset is the configured default.
+     *
+     * @throws IllegalArgumentException when the level is too high for the compression, such as 10 for GZIP
+     */
+    public Output output(CrawlFiles.Compression compression, Integer level) {
+        if (compression == null || compression == defaultOutput.compression()) {
+            return level == null ? defaultOutput : new Output(defaultOutput.compression(), level);
+        }
+        return new Output(compression, level == null ? 0 : level);
+    }
+
+    /** Whether sinks that link duplicates look for near-duplicates, which depends on the order postings arrive in. */
+    public boolean deduplicates() {
+        return deduplicate;
+    }
+
+    /** The existing jobs.jsonl of an export directory, compressed or not; the plain name when there is none. */
+    public static Path jsonlPath(Path exportDir) {
+        return CrawlFiles.firstExisting(exportDir.resolve(JSONL));
     }
 
     public void writeExports(Path exportsDir, String runDate, List<JobPosting> postings) throws IOException {
+        try (ExportSink sink = openExport(exportsDir, runDate)) {
+            for (JobPosting posting : postings) {
+                sink.write(posting);
+            }
+            sink.commit();
+        }
+    }
+
+    public ExportSink openExport(Path exportsDir, String runDate) throws IOException {
+        return openExport(exportsDir, runDate, StageMetrics.NOOP);
+    }
+
+    public ExportSink openExport(Path exportsDir, String runDate, StageMetrics metrics) throws IOException {
+        return openExport(exportsDir, runDate, metrics, true);
+    }
+
+    /**
+     * @param linkDuplicates rewrite duplicates.csv, linking near-duplicates to their canonical posting there
+     *                       (when enabled) instead of exporting them; without it every posting is exported and
+     *                       an existing duplicates.csv is left as it is
+     */
+    public ExportSink openExport(Path exportsDir, String runDate, StageMetrics metrics, boolean linkDuplicates)
+            throws IOException {
+        return openExport(exportsDir, runDate, metrics, linkDuplicates, defaultOutput);
+    }
+
+    public ExportSink openExport(Path exportsDir, String runDate, StageMetrics metrics, boolean linkDuplicates,
+                                 Output output) throws IOException {
         Path exportDir = exportsDir.resolve(runDate);
         Files.createDirectories(exportDir);
-        writeJsonl(exportDir.resolve("jobs.jsonl"), postings);
-        writeCsv(exportDir.resolve("jobs.csv"), postings);
-        logger.info("Exported {} postings to {}", postings.size(), exportDir);
+        return new ExportSink(exportDir, metrics, linkDuplicates, output);
     }
 
-    private void writeJsonl(Path path, List<JobPosting> postings) throws IOException {
-        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            for (JobPosting posting : postings) {
-                writer.write(objectMapper.writeValueAsString(posting));
-                writer.newLine();
+    /**
+     * Writes jobs.jsonl, jobs.csv and (when enabled) jobs.parquet one posting at a time into temporary
+     * files and moves them into place on {@link #commit()}, replacing the files of an earlier export
+     * whatever their compression. Closing without committing discards them.
+     * A deduplicating sink also writes duplicates.csv: postings that are near-duplicates of an
+     * earlier one are listed there with that canonical posting instead of being exported. Either way
+     * postings are written in the order they arrive.
+     */
+    public class ExportSink implements Closeable {
+        private final Path exportDir;
+        private final Output output;
+        private final Path jsonlTmp;
+        private final Path csvTmp;
+        private final Path duplicatesTmp;
+        private final Path columnsTmp;
+        private final BufferedWriter jsonlWriter;
+        private final CSVPrinter csvPrinter;
+        private final ParquetFile.Writer<JobPosting> columnsWriter;
+        private final CSVPrinter duplicatesPrinter;
+        private final DuplicateIndex duplicateIndex;
+        private final StageMetrics metrics;
+        private long count;
+        private long duplicates;
+        private boolean committed;
+        private boolean closed;
+
+        private ExportSink(Path exportDir, StageMetrics metrics, boolean linkDuplicates, Output output)
+                throws IOException {
+            this.exportDir = exportDir;
+            this.metrics = metrics;
+            this.output = output;
+            this.jsonlTmp = Files.createTempFile(exportDir, "jobs.jsonl.", ".tmp");
+            this.csvTmp = Files.createTempFile(exportDir, "jobs.csv.", ".tmp");
+            this.jsonlWriter = newWriter(jsonlTmp);
+            this.csvPrinter = new CSVPrinter(newWriter(csvTmp), CSV_FORMAT);
+            if (columnar) {
+                this.columnsTmp = Files.createTempFile(exportDir, "jobs.parquet.", ".tmp");
+                this.columnsWriter = new ParquetFile.Writer<>(columnsTmp, "job", COLUMNS,
+                        rowGroupMb * 1024L * 1024L, COLUMNS_ZSTD_LEVEL);
+            } else {
+                this.columnsTmp = null;
+                this.columnsWriter = null;
+            }
+            if (linkDuplicates) {
+                this.duplicatesTmp = Files.createTempFile(exportDir, "duplicates.csv.", ".tmp");
+                this.duplicatesPrinter = new CSVPrinter(Files.newBufferedWriter(duplicatesTmp), DUPLICATES_CSV_FORMAT);
+                this.duplicateIndex = deduplicate ? new DuplicateIndex(duplicateMinSimilarity) : null;
+            } else {
+                this.duplicatesTmp = null;
+                this.duplicatesPrinter = null;
+                this.duplicateIndex = null;
             }
         }
-    }
 
-    private void writeCsv(Path path, List<JobPosting> postings) throws IOException {
-        CSVFormat format = CSVFormat.DEFAULT.builder()
-                .setHeader("job_id", "job_title", "company_name", "location_municipality", "source_url", "confidence")
-                .build();
-        try (BufferedWriter writer = Files.newBufferedWriter(path);
-             CSVPrinter printer = new CSVPrinter(writer, format)) {
-            for (JobPosting posting : postings) {
-                printer.printRecord(
-                        posting.getJobId(),
-                        posting.getJobTitle(),
-                        posting.getCompanyName(),
-                        posting.getLocationMunicipality(),
-                        posting.getSourceUrl(),
-                        posting.getExtractionConfidence());
+        public synchronized void write(JobPosting posting) throws IOException {
+            DuplicateIndex.Match match = duplicateIndex != null ? duplicateIndex.add(posting) : null;
+            if (match != null) {
+                duplicatesPrinter.printRecord(posting.getJobId(), posting.getSourceUrl(), match.canonicalJobId(),
+                        match.canonicalSourceUrl(), match.similarity());
+                duplicates++;
+                return;
+            }
+            metrics.run(StageMetrics.Stage.EXPORT, () -> writeRow(posting));
+            count++;
+        }
+
+        private void writeRow(JobPosting posting) throws IOException {
+            jsonlWriter.write(objectMapper.writeValueAsString(posting));
+            jsonlWriter.newLine();
+            csvPrinter.printRecord(
+                    posting.getJobId(),
+                    posting.getJobTitle(),
+                    posting.getCompanyName(),
+                    posting.getLocationMunicipality(),
+                    posting.getSourceUrl(),
+                    posting.getExtractionConfidence());
+            if (columnsWriter != null) {
+                columnsWriter.write(posting);
+            }
+        }
+
+        public synchronized long count() {
+            return count;
+        }
+
+        /** Postings linked to a canonical posting in duplicates.csv rather than exported. */
+        public synchronized long duplicates() {
+            return duplicates;
+        }
+
+        public synchronized void commit() throws IOException {
+            closeWriters();
+            publish(jsonlTmp, JSONL);
+            publish(csvTmp, CSV);
+            if (columnsTmp != null) {
+                moveIntoPlace(columnsTmp, exportDir.resolve(PARQUET));
+            }
+            if (duplicatesTmp != null) {
+                moveIntoPlace(duplicatesTmp, exportDir.resolve("duplicates.csv"));
+            }
+            committed = true;
+            logger.info("Exported {} postings to {} ({} near-duplicates, compression {})", count, exportDir, duplicates,
+                    output.compression());
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (committed) {
+                return;
+            }
+            closeWriters();
+            Files.deleteIfExists(jsonlTmp);
+            Files.deleteIfExists(csvTmp);
+            if (columnsTmp != null) {
+                Files.deleteIfExists(columnsTmp);
+            }
+            if (duplicatesTmp != null) {
+                Files.deleteIfExists(duplicatesTmp);
+            }
+        }
+
+        private void closeWriters() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                jsonlWriter.close();
+            } finally {
+                try {
+                    csvPrinter.close();
+                } finally {
+                    try {
+                        if (columnsWriter != null) {
+                            columnsWriter.close();
+                        }
+                    } finally {
+                        if (duplicatesPrinter != null) {
+                            duplicatesPrinter.close();
+                        }
+                    }
+                }
+            }
+        }
+
+        private BufferedWriter newWriter(Path path) throws IOException {
+            OutputStream out = output.compression().compress(Files.newOutputStream(path), output.level());
+            return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITER_BUFFER_CHARS);
+        }
+
+        /** Moves a written file into place under its name for the output's compression; other variants go. */
+        private void publish(Path source, String name) throws IOException {
+            moveIntoPlace(source, exportDir.resolve(name + output.compression().suffix()));
+            for (CrawlFiles.Compression other : CrawlFiles.Compression.values()) {
+                if (other != output.compression()) {
+                    Files.deleteIfExists(exportDir.resolve(name + other.suffix()));
+                }
+            }
+        }
+
+        private void moveIntoPlace(Path source, Path target) throws IOException {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
             }
         }
     }
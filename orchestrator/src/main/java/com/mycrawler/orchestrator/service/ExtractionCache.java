@@ -0,0 +1,275 @@
+package com.mycrawler.orchestrator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.run.JobPosting;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * On-disk cache of extraction results keyed by a hash of the HTML bytes, the {@code _meta.json} bytes and
+ * the extractor version. Entries are one JSON file each; the least recently used are deleted once the
+ * cache grows past its size bound. File mtimes carry the LRU order across restarts. The Spring bean's meters
+ * are bound by Spring Boot; other instances have none unless {@link #bindTo} is called.
+ */
+@Component
+public class ExtractionCache implements MeterBinder {
+    public static final String LOOKUPS_COUNTER = "crawler.extraction.cache.lookups";
+    public static final String EVICTIONS_COUNTER = "crawler.extraction.cache.evictions";
+    public static final String SIZE_GAUGE = "crawler.extraction.cache.size";
+    public static final ExtractionCache DISABLED = new ExtractionCache(null, null, 0);
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionCache.class);
+    private static final String SUFFIX = ".json";
+
+    private final ObjectMapper objectMapper;
+    private final Path dir;
+    private final long maxBytes;
+    // Access-ordered: iteration starts at the least recently used key.
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(1024, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long totalBytes;
+    private boolean loaded;
+
+    @Autowired
+    public ExtractionCache(
+            ObjectMapper objectMapper,
+            @Value("${extraction.cache.enabled:true}") boolean enabled,
+            @Value("${extraction.cache.dir:./data/extraction-cache}") String dir,
+            @Value("${extraction.cache.max-size-mb:512}") long maxSizeMb
+    ) {
+        this(objectMapper, enabled ? Path.of(dir) : null, maxSizeMb * 1024 * 1024);
+    }
+
+    /** A cache without meters; a null {@code dir} disables it. */
+    public ExtractionCache(ObjectMapper objectMapper, Path dir, long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.dir = dir;
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(LOOKUPS_COUNTER, hits, AtomicLong::get)
+                .description("Extraction cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(LOOKUPS_COUNTER, misses, AtomicLong::get)
+                .description("Extraction cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(EVICTIONS_COUNTER, evictions, AtomicLong::get)
+                .description("Extraction cache entries deleted to stay within the size bound")
+                .register(registry);
+        Gauge.builder(SIZE_GAUGE, this, ExtractionCache::sizeBytes)
+                .description("Bytes held by the extraction cache")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public boolean enabled() {
+        return dir != null && maxBytes > 0;
+    }
+
+    public String key(ByteBuffer html, byte[] meta, String version) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        if (meta != null) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(meta.length).flip());
+            digest.update(meta);
+        } else {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).flip());
+        }
+        digest.update(html.duplicate().rewind());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Returns the cached posting, or null on a miss. Unreadable entries are dropped and count as misses. */
+    public JobPosting get(String key) {
+        synchronized (this) {
+            ensureLoaded();
+            if (index.get(key) == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        Path path = path(key);
+        try {
+            JobPosting posting = objectMapper.readValue(path.toFile(), JobPosting.class);
+            hits.incrementAndGet();
+            touch(path);
+            return posting;
+        } catch (IOException ex) {
+            if (!(ex instanceof NoSuchFileException)) {
+                logger.warn("Dropping unreadable extraction cache entry {}: {}", path, ex.toString());
+            }
+            remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /** Stores a posting; failures are logged and leave the cache without the entry. */
+    public void put(String key, JobPosting posting) {
+        Path path = path(key);
+        long size;
+        try {
+            byte[] content = objectMapper.writeValueAsBytes(posting);
+            Files.createDirectories(path.getParent());
+            Path tmp = Files.createTempFile(path.getParent(), key, ".tmp");
+            Files.write(tmp, content);
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            size = content.length;
+        } catch (IOException ex) {
+            logger.warn("Could not write extraction cache entry {}: {}", path, ex.toString());
+            return;
+        }
+        List<String> evicted;
+        synchronized (this) {
+            ensureLoaded();
+            Long previous = index.put(key, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            evicted = evictOverflow(key);
+        }
+        delete(evicted);
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public synchronized long sizeBytes() {
+        if (enabled()) {
+            ensureLoaded();
+        }
+        return totalBytes;
+    }
+
+    public synchronized int entries() {
+        if (enabled()) {
+            ensureLoaded();
+        }
+        return index.size();
+    }
+
+    private Path path(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    private synchronized void remove(String key) {
+        Long size = index.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    private List<String> evictOverflow(String keep) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            eldest.remove();
+        }
+        evictions.addAndGet(evicted.size());
+        return evicted;
+    }
+
+    private void delete(List<String> keys) {
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(path(key));
+            } catch (IOException ex) {
+                logger.warn("Could not delete extraction cache entry {}: {}", key, ex.toString());
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        record Existing(String key, long size, long modified) {
+        }
+        List<Existing> existing = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SUFFIX)) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                existing.add(new Existing(name.substring(0, name.length() - SUFFIX.length()),
+                        attributes.size(), attributes.lastModifiedTime().toMillis()));
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not index extraction cache {}: {}", dir, ex.toString());
+        }
+        existing.sort(Comparator.comparingLong(Existing::modified));
+        for (Existing entry : existing) {
+            index.put(entry.key(), entry.size());
+            totalBytes += entry.size();
+        }
+        List<String> evicted = evictOverflow(null);
+        delete(evicted);
+        logger.info("Extraction cache {}: {} entries, {} bytes", dir, index.size(), totalBytes);
+    }
+
+    private static void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ex) {
+            // Only the LRU order after a restart depends on it.
+        }
+    }
+}
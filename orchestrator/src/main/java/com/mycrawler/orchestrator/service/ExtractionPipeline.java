@@ -0,0 +1,337 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.run.CrawlManifest;
+import com.mycrawler.orchestrator.run.ExtractionManifest;
+import com.mycrawler.orchestrator.run.JobPosting;
+import com.mycrawler.orchestrator.run.RawExtractionStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Staged FULL-run pipeline: scan -> parse/extract -> raw write -> persist.
+ * Stages are connected by bounded queues; the persist stage re-orders items
+ * by scan sequence so records and exports follow the order files were scanned in.
+ * At most {@link #IN_FLIGHT_PER_QUEUE_SLOT} times the queue capacity files are between scan
+ * and persist, so one slow file stalls the scan instead of growing the reorder buffer.
+ */
+@Service
+public class ExtractionPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionPipeline.class);
+    private static final Item END = new Item(-1, null);
+    // The three queues plus as many items again waiting in the persist stage for an earlier one.
+    static final int IN_FLIGHT_PER_QUEUE_SLOT = 4;
+
+    private final ExtractionService extractionService;
+    private final int extractWorkers;
+    private final int writeWorkers;
+    private final int queueCapacity;
+    private final long rawSegmentBytes;
+
+    public ExtractionPipeline(ExtractionService extractionService, int extractWorkers, int writeWorkers,
+                              int queueCapacity) {
+        this(extractionService, extractWorkers, writeWorkers, queueCapacity,
+                (int) (RawExtractionStore.DEFAULT_SEGMENT_BYTES >> 20));
+    }
+
+    @Autowired
+    public ExtractionPipeline(
+            ExtractionService extractionService,
+            @Value("${runs.pipeline.extract-workers:0}") int extractWorkers,
+            @Value("${runs.pipeline.write-workers:2}") int writeWorkers,
+            @Value("${runs.pipeline.queue-capacity:256}") int queueCapacity,
+            @Value("${runs.raw.segment-mb:64}") int rawSegmentMb
+    ) {
+        this.extractionService = extractionService;
+        this.extractWorkers = extractWorkers > 0 ? extractWorkers : Runtime.getRuntime().availableProcessors();
+        this.writeWorkers = Math.max(1, writeWorkers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.rawSegmentBytes = (long) Math.max(1, rawSegmentMb) << 20;
+    }
+
+    public enum Outcome {
+        EXTRACTED,
+        REUSED,
+        CHECKPOINTED,
+        FAILED
+    }
+
+    /**
+     * One file's result as seen by the persist stage. {@code posting} is null for FAILED files and
+     * for checkpointed files that had already failed before a restart.
+     */
+    public record Extraction(Path htmlPath, JobPosting posting, Outcome outcome, String error) {
+    }
+
+    @FunctionalInterface
+    public interface PersistStage {
+        void persist(Extraction extraction) throws IOException;
+    }
+
+    /**
+     * @param manifest        when set, every file is fingerprinted and recorded in it
+     * @param reuseUnchanged  read files whose fingerprint matches the manifest back from their raw extraction
+     * @param checkpointed    source paths already persisted for this run; read back from their raw extraction
+     * @param metrics         stage timers and outcome counters for the run type
+     */
+    public record Options(Path rawDir, ExtractionManifest manifest, boolean reuseUnchanged, Set<String> checkpointed,
+                          StageMetrics metrics) {
+        public Options(Path rawDir, ExtractionManifest manifest, boolean reuseUnchanged, Set<String> checkpointed) {
+            this(rawDir, manifest, reuseUnchanged, checkpointed, StageMetrics.NOOP);
+        }
+
+        public static Options of(Path rawDir) {
+            return new Options(rawDir, null, false, Set.of());
+        }
+
+        public Options withMetrics(StageMetrics metrics) {
+            return new Options(rawDir, manifest, reuseUnchanged, checkpointed, metrics);
+        }
+    }
+
+    public record Result(long processed, Map<Outcome, Long> outcomes) {
+        public long count(Outcome outcome) {
+            return outcomes.getOrDefault(outcome, 0L);
+        }
+    }
+
+    /** Version to key extraction manifests on; see {@link ExtractionService#version()}. */
+    public String extractionVersion() {
+        return extractionService.version();
+    }
+
+    /**
+     * Runs the stages over {@code htmlFiles}. New raw extractions are appended to segments of this run's own in
+     * {@code rawDir}; the raw extractions already there are opened first, and only if checkpointed or unchanged
+     * files may be read back from them.
+     */
+    public Result run(Iterable<Path> htmlFiles, Options options, PersistStage persistStage) throws IOException {
+        boolean readBack = !options.checkpointed().isEmpty() || options.reuseUnchanged();
+        try (RawExtractionStore stored = readBack ? extractionService.openRawExtractions(options.rawDir()) : null;
+             RawExtractionStore.Appender appender =
+                     extractionService.appendRawExtractions(options.rawDir(), rawSegmentBytes)) {
+            return run(htmlFiles, options, persistStage, stored, appender);
+        }
+    }
+
+    private Result run(Iterable<Path> htmlFiles, Options options, PersistStage persistStage, RawExtractionStore stored,
+                       RawExtractionStore.Appender appender) throws IOException {
+        BlockingQueue<Item> extractQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item> writeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item> persistQueue = new ArrayBlockingQueue<>(queueCapacity);
+        Semaphore inFlight = new Semaphore(IN_FLIGHT_PER_QUEUE_SLOT * queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger extractRemaining = new AtomicInteger(extractWorkers);
+        AtomicInteger writeRemaining = new AtomicInteger(writeWorkers);
+        Map<Outcome, Long> outcomes = new EnumMap<>(Outcome.class);
+        StageMetrics metrics = options.metrics();
+        CrawlManifest.Directories crawlManifests = extractionService.crawlManifests();
+        long[] processed = new long[1];
+
+        ExecutorService executor = Executors.newFixedThreadPool(extractWorkers + writeWorkers + 2, threadFactory());
+        try {
+            executor.execute(guard(failure, executor, () -> {
+                long sequence = 0;
+                long scanNanos = 0;
+                boolean scanned = false;
+                Iterator<Path> paths = htmlFiles.iterator();
+                try {
+                    while (true) {
+                        // Only time spent listing directories counts as scan time, not waiting on a full queue.
+                        long start = System.nanoTime();
+                        Path htmlPath = paths.hasNext() ? paths.next() : null;
+                        scanNanos += System.nanoTime() - start;
+                        if (htmlPath == null) {
+                            break;
+                        }
+                        inFlight.acquire();
+                        extractQueue.put(new Item(sequence++, htmlPath));
+                    }
+                    scanned = true;
+                } finally {
+                    metrics.record(StageMetrics.Stage.SCAN, scanNanos, scanned);
+                }
+                for (int i = 0; i < extractWorkers; i++) {
+                    extractQueue.put(END);
+                }
+            }));
+            for (int i = 0; i < extractWorkers; i++) {
+                executor.execute(guard(failure, executor, () -> {
+                    Item item;
+                    while ((item = extractQueue.take()) != END) {
+                        item.startNanos = System.nanoTime();
+                        try {
+                            extract(item, options, crawlManifests, stored);
+                        } catch (Exception ex) {
+                            logger.warn("Extraction failed for {}: {}", item.htmlPath, ex.toString());
+                            item.posting = null;
+                            item.writeRaw = false;
+                            item.outcome = Outcome.FAILED;
+                            item.error = ex.toString();
+                        }
+                        writeQueue.put(item);
+                    }
+                    if (extractRemaining.decrementAndGet() == 0) {
+                        for (int j = 0; j < writeWorkers; j++) {
+                            writeQueue.put(END);
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < writeWorkers; i++) {
+                executor.execute(guard(failure, executor, () -> {
+                    Item item;
+                    while ((item = writeQueue.take()) != END) {
+                        if (item.writeRaw) {
+                            Item written = item;
+                            metrics.run(StageMetrics.Stage.RAW_WRITE, () ->
+                                    appender.append(written.htmlPath, written.posting));
+                        }
+                        persistQueue.put(item);
+                    }
+                    if (writeRemaining.decrementAndGet() == 0) {
+                        persistQueue.put(END);
+                    }
+                }));
+            }
+            executor.execute(guard(failure, executor, () -> {
+                Map<Long, Item> pending = new TreeMap<>();
+                long next = 0;
+                Item item;
+                while ((item = persistQueue.take()) != END) {
+                    pending.put(item.sequence, item);
+                    Item ready;
+                    while ((ready = pending.remove(next)) != null) {
+                        persistStage.persist(new Extraction(ready.htmlPath, ready.posting, ready.outcome, ready.error));
+                        if (options.manifest() != null && ready.fingerprint != null) {
+                            options.manifest().record(ready.htmlPath, ready.fingerprint);
+                        }
+                        outcomes.merge(ready.outcome, 1L, Long::sum);
+                        metrics.countFile(ready.outcome);
+                        metrics.recordFileLatency(System.nanoTime() - ready.startNanos);
+                        processed[0]++;
+                        next++;
+                        inFlight.release();
+                    }
+                }
+            }));
+        } catch (RejectedExecutionException ex) {
+            // An early stage already failed and shut the pool down; the failure is reported below.
+        }
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                logger.debug("Pipeline still running: extractQueue={} writeQueue={} persistQueue={}",
+                        extractQueue.size(), writeQueue.size(), persistQueue.size());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new IOException("Extraction pipeline interrupted", ex);
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof UncheckedIOException unchecked) {
+            error = unchecked.getCause();
+        }
+        if (error instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (error instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (error != null) {
+            throw new IOException("Extraction pipeline failed: " + error.getMessage(), error);
+        }
+        return new Result(processed[0], outcomes);
+    }
+
+    private void extract(Item item, Options options, CrawlManifest.Directories crawlManifests,
+                         RawExtractionStore stored) throws IOException {
+        ExtractionManifest manifest = options.manifest();
+        if (manifest != null) {
+            item.fingerprint = manifest.fingerprint(item.htmlPath);
+        }
+        if (options.checkpointed().contains(item.htmlPath.toString())) {
+            // No raw extraction means the file had already failed; it stays in the dead-letter records.
+            item.outcome = Outcome.CHECKPOINTED;
+            item.posting = stored.read(item.htmlPath);
+            return;
+        }
+        if (options.reuseUnchanged() && manifest != null && manifest.isUnchanged(item.htmlPath, item.fingerprint)) {
+            item.posting = stored.read(item.htmlPath);
+            if (item.posting != null) {
+                item.outcome = Outcome.REUSED;
+                return;
+            }
+        }
+        item.outcome = Outcome.EXTRACTED;
+        item.posting = extractionService.extractFromHtml(item.htmlPath, options.metrics(), crawlManifests);
+        item.writeRaw = true;
+    }
+
+    private Runnable guard(AtomicReference<Throwable> failure, ExecutorService executor, StageTask task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable ex) {
+                if (failure.compareAndSet(null, ex)) {
+                    logger.error("Extraction pipeline stage failed: {}", ex.getMessage());
+                    executor.shutdownNow();
+                }
+            }
+        };
+    }
+
+    private ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @FunctionalInterface
+    private interface StageTask {
+        void run() throws Exception;
+    }
+
+    private static final class Item {
+        private final long sequence;
+        private final Path htmlPath;
+        private JobPosting posting;
+        private Outcome outcome;
+        private ExtractionManifest.Entry fingerprint;
+        private boolean writeRaw;
+        private String error;
+        private long startNanos;
+
+        private Item(long sequence, Path htmlPath) {
+            this.sequence = sequence;
+            this.htmlPath = htmlPath;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.ExtractionRecord;
+import com.mycrawler.orchestrator.db.ExtractionRecordRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ExtractionRecordWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionRecordWriter.class);
+    private final ExtractionRecordRepository extractionRecordRepository;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService flusher;
+    private volatile boolean idsChecked;
+
+    public ExtractionRecordWriter(
+            ExtractionRecordRepository extractionRecordRepository,
+            @Value("${runs.persistence.batch-size:200}") int batchSize,
+            @Value("${runs.persistence.flush-interval-ms:2000}") long flushIntervalMillis
+    ) {
+        this.extractionRecordRepository = extractionRecordRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "record-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Batch open() {
+        return open(StageMetrics.NOOP);
+    }
+
+    public Batch open(StageMetrics metrics) {
+        ensureIdSequenceAhead();
+        return new Batch(metrics);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    /**
+     * Databases created while extraction record ids were IDENTITY columns get the id sequence created at 1 by the
+     * schema update, below the ids already in the table. Before the first batch the sequence is moved past them,
+     * under a row lock that other nodes checking at the same time wait for.
+     */
+    private synchronized void ensureIdSequenceAhead() {
+        if (idsChecked) {
+            return;
+        }
+        if (extractionRecordRepository.moveIdSequencePastExistingIds()) {
+            logger.info("Moved {} past the existing extraction record ids", ExtractionRecord.ID_SEQUENCE);
+        }
+        idsChecked = true;
+    }
+
+    /**
+     * Buffers records and saves them in one transaction per batch, flushing when the batch
+     * is full or, from a timer, once the flush interval has passed since the last flush, so
+     * records of a slow run are not held back. Closing flushes whatever is left.
+     */
+    public class Batch implements Closeable {
+        private final List<ExtractionRecord> pending = new ArrayList<>();
+        private final StageMetrics metrics;
+        private final ScheduledFuture<?> timer;
+        private long lastFlush = System.currentTimeMillis();
+        private long saved;
+
+        private Batch(StageMetrics metrics) {
+            this.metrics = metrics;
+            this.timer = flusher.scheduleWithFixedDelay(this::flushIfDue, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        public synchronized void add(ExtractionRecord record) {
+            pending.add(record);
+            if (pending.size() >= batchSize || System.currentTimeMillis() - lastFlush >= flushIntervalMillis) {
+                flush();
+            }
+        }
+
+        public synchronized void flush() {
+            lastFlush = System.currentTimeMillis();
+            if (pending.isEmpty()) {
+                return;
+            }
+            metrics.run(StageMetrics.Stage.DB_SAVE, () -> extractionRecordRepository.saveAll(pending));
+            saved += pending.size();
+            logger.debug("Flushed {} extraction records ({} total)", pending.size(), saved);
+            pending.clear();
+        }
+
+        public synchronized long saved() {
+            return saved;
+        }
+
+        @Override
+        public void close() {
+            timer.cancel(false);
+            flush();
+        }
+
+        private synchronized void flushIfDue() {
+            if (System.currentTimeMillis() - lastFlush < flushIntervalMillis) {
+                return;
+            }
+            try {
+                flush();
+            } catch (RuntimeException ex) {
+                // The records stay pending; the next add or close saves them or reports the failure.
+                logger.warn("Timed flush of {} extraction records failed: {}", pending.size(), ex.getMessage());
+            }
+        }
+    }
+}
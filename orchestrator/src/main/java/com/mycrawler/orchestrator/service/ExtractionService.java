@@ -1,51 +1,205 @@
 package com.mycrawler.orchestrator.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.run.CrawlFiles;
+import com.mycrawler.orchestrator.run.CrawlManifest;
+import com.mycrawler.orchestrator.run.HtmlInput;
 import com.mycrawler.orchestrator.run.HtmlPreprocessor;
 import com.mycrawler.orchestrator.run.JobPosting;
+import com.mycrawler.orchestrator.run.JsonLdExtractor;
 import com.mycrawler.orchestrator.run.MetaData;
 import com.mycrawler.orchestrator.run.MetaParser;
 import com.mycrawler.orchestrator.run.PreprocessedDocument;
+import com.mycrawler.orchestrator.run.RawExtractionStore;
 import com.mycrawler.orchestrator.run.SimpleExtractor;
+import com.mycrawler.orchestrator.run.SiteRules;
+import com.mycrawler.orchestrator.run.TermDictionary;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ExtractionService {
+    public static final String EXTRACTOR_VERSION = "heuristic-baseline-7";
     private static final Logger logger = LoggerFactory.getLogger(ExtractionService.class);
     private final ObjectMapper objectMapper;
     private final HtmlPreprocessor preprocessor;
+    private final JsonLdExtractor jsonLdExtractor;
     private final SimpleExtractor extractor;
     private final MetaParser metaParser;
+    private final ExtractionCache cache;
+    private final SiteRules siteRules;
+    private final String version;
 
     public ExtractionService(ObjectMapper objectMapper) {
+        this(objectMapper, new HtmlPreprocessor());
+    }
+
+    @Autowired
+    public ExtractionService(
+            ObjectMapper objectMapper,
+            @Value("${extraction.html.mode:LEAN}") HtmlPreprocessor.Mode htmlMode,
+            @Value("${extraction.html.max-bytes:" + HtmlPreprocessor.DEFAULT_MAX_BYTES + "}") int maxBytes,
+            @Value("${extraction.html.max-text-chars:" + HtmlPreprocessor.DEFAULT_MAX_TEXT_CHARS + "}") int maxTextChars,
+            @Value("${extraction.site-rules:classpath:" + SiteRules.DEFAULT_RESOURCE + "}") Resource siteRules,
+            @Value("${extraction.dictionary:classpath:" + TermDictionary.DEFAULT_RESOURCE + "}") Resource dictionary,
+            ExtractionCache cache
+    ) {
+        this(objectMapper, new HtmlPreprocessor(htmlMode, maxBytes, maxTextChars), cache,
+                loadSiteRules(objectMapper, siteRules), loadDictionary(objectMapper, dictionary));
+    }
+
+    public ExtractionService(ObjectMapper objectMapper, HtmlPreprocessor preprocessor) {
+        this(objectMapper, preprocessor, ExtractionCache.DISABLED);
+    }
+
+    public ExtractionService(ObjectMapper objectMapper, HtmlPreprocessor preprocessor, ExtractionCache cache) {
+        this(objectMapper, preprocessor, cache, SiteRules.defaults(objectMapper));
+    }
+
+    public ExtractionService(ObjectMapper objectMapper, HtmlPreprocessor preprocessor, ExtractionCache cache,
+                             SiteRules siteRules) {
+        this(objectMapper, preprocessor, cache, siteRules, TermDictionary.defaults(objectMapper));
+    }
+
+    public ExtractionService(ObjectMapper objectMapper, HtmlPreprocessor preprocessor, ExtractionCache cache,
+                             SiteRules siteRules, TermDictionary dictionary) {
         this.objectMapper = objectMapper;
-        this.preprocessor = new HtmlPreprocessor();
-        this.extractor = new SimpleExtractor();
+        this.preprocessor = preprocessor;
+        this.jsonLdExtractor = new JsonLdExtractor(dictionary);
+        this.extractor = new SimpleExtractor(dictionary);
         this.metaParser = new MetaParser(objectMapper);
+        this.cache = cache;
+        this.siteRules = siteRules;
+        this.version = EXTRACTOR_VERSION + "/" + preprocessor.settings() + "/" + siteRules.fingerprint()
+                + "/" + dictionary.fingerprint();
+    }
+
+    /**
+     * {@link #EXTRACTOR_VERSION} plus the HTML settings, site rules and dictionary this service extracts with. Cached
+     * results and extraction manifests recorded under another version are not reused.
+     */
+    public String version() {
+        return version;
     }
 
     public JobPosting extractFromHtml(Path htmlPath) throws IOException {
+        return extractFromHtml(htmlPath, StageMetrics.NOOP);
+    }
+
+    public JobPosting extractFromHtml(Path htmlPath, StageMetrics metrics) throws IOException {
+        return extractFromHtml(htmlPath, metrics, null);
+    }
+
+    /**
+     * @param crawlManifests the run's crawl manifests, consulted before the page's {@code _meta.json}; null reads
+     *                       only the latter
+     */
+    public JobPosting extractFromHtml(Path htmlPath, StageMetrics metrics, CrawlManifest.Directories crawlManifests)
+            throws IOException {
         logger.debug("Extracting from {}", htmlPath);
-        PreprocessedDocument doc = preprocessor.preprocess(htmlPath);
-        MetaData meta = metaParser.parse(resolveMetaPath(htmlPath));
-        return extractor.extract(doc, meta);
+        // Meta first: it may carry the charset the page has to be decoded with.
+        MetaInput metaInput = metrics.time(StageMetrics.Stage.META, () -> readMeta(htmlPath, crawlManifests));
+        MetaData meta = metaInput.meta();
+        SiteRules.Site site = siteRules.forUrl(meta.url());
+        if (!cache.enabled()) {
+            StructuredData structured = metrics.time(StageMetrics.Stage.JSON_LD, () -> {
+                HtmlInput.Page page = preprocessor.read(htmlPath, meta.charset());
+                return new StructuredData(page, jsonLdExtractor.extract(page, meta));
+            });
+            if (structured.posting() != null) {
+                return structured.posting();
+            }
+            return extractHeuristically(structured.page(), meta, site, metrics);
+        }
+        // The page is read once: its bytes are hashed for the lookup and, on a miss, parsed as they are.
+        CacheLookup lookup = metrics.time(StageMetrics.Stage.CACHE, () -> {
+            HtmlInput.Page page = preprocessor.read(htmlPath, meta.charset());
+            String key = cache.key(page.bytes(), metaInput.content(), version);
+            return new CacheLookup(page, key, cache.get(key));
+        });
+        if (lookup.cached() != null) {
+            return lookup.cached();
+        }
+        JobPosting posting = metrics.time(StageMetrics.Stage.JSON_LD,
+                () -> jsonLdExtractor.extract(lookup.page(), meta));
+        if (posting == null) {
+            posting = extractHeuristically(lookup.page(), meta, site, metrics);
+        }
+        cache.put(lookup.key(), posting);
+        return posting;
+    }
+
+    /** Crawl manifests for one run, loaded per directory on first use. */
+    public CrawlManifest.Directories crawlManifests() {
+        return new CrawlManifest.Directories(metaParser);
+    }
+
+    private MetaInput readMeta(Path htmlPath, CrawlManifest.Directories crawlManifests) throws IOException {
+        MetaData listed = crawlManifests != null ? crawlManifests.forPage(htmlPath).get(htmlPath) : null;
+        if (listed != null) {
+            // Stands in for the _meta.json bytes in the cache key.
+            String content = "crawl-manifest\0" + listed.url() + "\0" + listed.company() + "\0" + listed.charset();
+            return new MetaInput(content.getBytes(StandardCharsets.UTF_8), listed);
+        }
+        Path metaPath = CrawlFiles.metaPath(htmlPath);
+        byte[] content = Files.exists(metaPath) ? CrawlFiles.readAllBytes(metaPath) : null;
+        return new MetaInput(content, metaParser.parse(content));
+    }
+
+    /** The Jsoup pass and heuristics, for pages without a usable JSON-LD JobPosting. */
+    private JobPosting extractHeuristically(HtmlInput.Page page, MetaData meta, SiteRules.Site site,
+                                            StageMetrics metrics) throws IOException {
+        PreprocessedDocument doc = metrics.time(StageMetrics.Stage.PARSE, () -> preprocessor.preprocess(page, site));
+        return metrics.time(StageMetrics.Stage.EXTRACT, () -> extractor.extract(doc, meta));
+    }
+
+    /** The raw extractions already in {@code rawDir}, for reading them back. */
+    public RawExtractionStore openRawExtractions(Path rawDir) throws IOException {
+        return RawExtractionStore.open(objectMapper, rawDir);
+    }
+
+    /** An appender of new raw extractions to segments in {@code rawDir}. */
+    public RawExtractionStore.Appender appendRawExtractions(Path rawDir, long segmentBytes) {
+        return RawExtractionStore.appender(objectMapper, rawDir, segmentBytes);
+    }
+
+    private static SiteRules loadSiteRules(ObjectMapper objectMapper, Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            SiteRules rules = SiteRules.load(objectMapper, in);
+            logger.info("Loaded site rules for {} sites from {}", rules.size(), resource);
+            return rules;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not load site rules from " + resource, ex);
+        }
+    }
+
+    private record MetaInput(byte[] content, MetaData meta) {
+    }
+
+    private static TermDictionary loadDictionary(ObjectMapper objectMapper, Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            TermDictionary dictionary = TermDictionary.load(objectMapper, in);
+            logger.info("Loaded {} dictionary terms from {}", dictionary.size(), resource);
+            return dictionary;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not load the term dictionary from " + resource, ex);
+        }
     }
 
-    public void writeRawExtraction(Path outputPath, JobPosting posting) throws IOException {
-        Files.createDirectories(outputPath.getParent());
-        objectMapper.writeValue(outputPath.toFile(), posting);
-        logger.debug("Wrote raw extraction {}", outputPath);
+    private record StructuredData(HtmlInput.Page page, JobPosting posting) {
     }
 
-    private Path resolveMetaPath(Path htmlPath) {
-        String filename = htmlPath.getFileName().toString();
-        String metaName = filename.replace(".html", "_meta.json");
-        return htmlPath.getParent().resolve(metaName);
+    private record CacheLookup(HtmlInput.Page page, String key, JobPosting cached) {
     }
 }
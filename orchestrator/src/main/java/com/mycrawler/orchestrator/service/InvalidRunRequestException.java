@@ -0,0 +1,7 @@
+package com.mycrawler.orchestrator.service;
+
+public class InvalidRunRequestException extends RuntimeException {
+    public InvalidRunRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
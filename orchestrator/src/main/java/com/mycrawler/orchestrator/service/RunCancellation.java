@@ -0,0 +1,64 @@
+package com.mycrawler.orchestrator.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cooperative cancellation flag handed to a run while it executes. Long loops call
+ * {@link #throwIfCancelled()} between units of work so a cancelled run stops at a safe point.
+ * A cancellation requested through another node only reaches the run through the database,
+ * so the flag can also {@link #pollWith poll} for it.
+ */
+public final class RunCancellation {
+    private volatile boolean cancelled;
+    private volatile BooleanSupplier requested;
+    private long pollIntervalNanos;
+    private final AtomicLong nextPoll = new AtomicLong();
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Also cancels once {@code requested} reports a cancellation, asking it from {@link #throwIfCancelled()} at
+     * most once per {@code interval}.
+     */
+    public void pollWith(BooleanSupplier requested, Duration interval) {
+        this.pollIntervalNanos = interval.toNanos();
+        this.nextPoll.set(System.nanoTime() + pollIntervalNanos);
+        this.requested = requested;
+    }
+
+    public void throwIfCancelled() {
+        if (!cancelled) {
+            poll();
+        }
+        if (cancelled) {
+            throw new CancelledException();
+        }
+    }
+
+    private void poll() {
+        BooleanSupplier supplier = requested;
+        if (supplier == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long due = nextPoll.get();
+        // One caller per interval asks; the others go on with the flag as it is.
+        if (now - due >= 0 && nextPoll.compareAndSet(due, now + pollIntervalNanos) && supplier.getAsBoolean()) {
+            cancelled = true;
+        }
+    }
+
+    public static final class CancelledException extends RuntimeException {
+        private CancelledException() {
+            super("Run cancelled");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunChunk;
+import com.mycrawler.orchestrator.db.RunRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+/**
+ * Polls the shared database for claimable chunks of RUNNING FULL runs and extracts them on this
+ * node. It also takes over coordination of runs whose coordinator lease has expired.
+ */
+@Service
+public class RunChunkWorker implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(RunChunkWorker.class);
+    private final RunLeaseService leaseService;
+    private final RunLeaseService.ChunkHandler handler;
+    private final RunRepository runRepository;
+    private final RunScheduler runScheduler;
+    private final int workers;
+    private final long pollIntervalMillis;
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    @Autowired
+    public RunChunkWorker(
+            RunLeaseService leaseService,
+            RunProcessor runProcessor,
+            RunRepository runRepository,
+            RunScheduler runScheduler,
+            @Value("${runs.distributed.chunk-workers:1}") int workers,
+            @Value("${runs.distributed.poll-interval-ms:2000}") long pollIntervalMillis
+    ) {
+        this(leaseService, runProcessor::processChunk, runRepository, runScheduler, workers, pollIntervalMillis);
+    }
+
+    RunChunkWorker(
+            RunLeaseService leaseService,
+            RunLeaseService.ChunkHandler handler,
+            RunRepository runRepository,
+            RunScheduler runScheduler,
+            int workers,
+            long pollIntervalMillis
+    ) {
+        this.leaseService = leaseService;
+        this.handler = handler;
+        this.runRepository = runRepository;
+        this.runScheduler = runScheduler;
+        this.workers = Math.max(1, workers);
+        this.pollIntervalMillis = Math.max(100, pollIntervalMillis);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!leaseService.isEnabled()) {
+            return;
+        }
+        running = true;
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "chunk-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            boolean coordinatorWatch = i == 0;
+            executor.execute(() -> loop(coordinatorWatch));
+        }
+        logger.info("Started {} chunk workers on node {}", workers, leaseService.nodeId());
+    }
+
+    private void loop(boolean coordinatorWatch) {
+        while (running) {
+            try {
+                if (coordinatorWatch) {
+                    takeOverExpiredRuns();
+                }
+                if (!processNextChunk()) {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                logger.warn("Chunk worker iteration failed: {}", ex.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * Claims one chunk of any running run and processes it. Returns false when no chunk was claimable.
+     */
+    boolean processNextChunk() {
+        Optional<RunChunk> chunk = leaseService.claimChunk(null);
+        chunk.ifPresent(claimed -> leaseService.processChunk(claimed, handler));
+        return chunk.isPresent();
+    }
+
+    void takeOverExpiredRuns() {
+        for (Long runId : runRepository.findRunningWithExpiredLease(Instant.now())) {
+            runRepository.findById(runId).ifPresent(run -> {
+                if (runScheduler.submit(run)) {
+                    logger.info("Run {} coordinator lease expired; taking over on node {}", runId, leaseService.nodeId());
+                }
+            });
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
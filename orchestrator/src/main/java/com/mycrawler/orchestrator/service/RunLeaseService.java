@@ -0,0 +1,185 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunChunk;
+import com.mycrawler.orchestrator.db.RunChunkRepository;
+import com.mycrawler.orchestrator.db.RunRepository;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Time-limited leases on runs (coordination) and run chunks (extraction work) for multi-node
+ * execution. Leases held by this node are renewed by a heartbeat; a lease that is not renewed
+ * expires and can be claimed by any other node. A chunk claimed {@code max-chunk-attempts} times
+ * without completing is marked FAILED instead of being offered again.
+ */
+@Service
+public class RunLeaseService {
+    private static final Logger logger = LoggerFactory.getLogger(RunLeaseService.class);
+    private final RunRepository runRepository;
+    private final RunChunkRepository runChunkRepository;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration leaseTtl;
+    private final int maxChunkAttempts;
+    private final Set<Long> heldRuns = ConcurrentHashMap.newKeySet();
+    private final Set<Long> heldChunks = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat;
+
+    @FunctionalInterface
+    public interface ChunkHandler {
+        void process(RunChunk chunk) throws Exception;
+    }
+
+    public RunLeaseService(
+            RunRepository runRepository,
+            RunChunkRepository runChunkRepository,
+            @Value("${runs.distributed.enabled:false}") boolean enabled,
+            @Value("${runs.distributed.node-id:}") String nodeId,
+            @Value("${runs.distributed.lease-ttl-seconds:60}") long leaseTtlSeconds,
+            @Value("${runs.distributed.max-chunk-attempts:3}") int maxChunkAttempts
+    ) {
+        this.runRepository = runRepository;
+        this.runChunkRepository = runChunkRepository;
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.leaseTtl = Duration.ofSeconds(Math.max(3, leaseTtlSeconds));
+        this.maxChunkAttempts = Math.max(1, maxChunkAttempts);
+        if (enabled) {
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "lease-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long periodMillis = leaseTtl.toMillis() / 3;
+            heartbeat.scheduleWithFixedDelay(this::renewAll, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+            logger.info("Distributed runs enabled: node={} leaseTtl={}", this.nodeId, leaseTtl);
+        } else {
+            this.heartbeat = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public boolean claimRun(Long runId) {
+        Instant now = Instant.now();
+        if (runRepository.claim(runId, nodeId, now, now.plus(leaseTtl)) == 0) {
+            return false;
+        }
+        heldRuns.add(runId);
+        return true;
+    }
+
+    public boolean holdsRun(Long runId) {
+        return heldRuns.contains(runId);
+    }
+
+    public void releaseRun(Long runId) {
+        heldRuns.remove(runId);
+    }
+
+    public Optional<RunChunk> claimChunk(Long runId) {
+        Instant now = Instant.now();
+        for (Long chunkId : runChunkRepository.findClaimableIds(runId, now, PageRequest.of(0, 8))) {
+            if (runChunkRepository.claim(chunkId, nodeId, now, now.plus(leaseTtl)) == 1) {
+                heldChunks.add(chunkId);
+                return runChunkRepository.findById(chunkId);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Runs {@code handler} on a chunk claimed by this node and completes the chunk. When the handler
+     * throws, the chunk goes back to PENDING, or to FAILED once it has used up its attempts.
+     */
+    public boolean processChunk(RunChunk chunk, ChunkHandler handler) {
+        try {
+            handler.process(chunk);
+        } catch (Exception ex) {
+            logger.error("Chunk {} of run {} failed on node {} (attempt {} of {}): {}", chunk.getChunkIndex(),
+                    chunk.getRun().getId(), nodeId, chunk.getAttempts(), maxChunkAttempts, ex.getMessage());
+            failChunk(chunk, ex.getMessage() == null ? ex.getClass().getName() : ex.getMessage());
+            return false;
+        }
+        return completeChunk(chunk);
+    }
+
+    public boolean completeChunk(RunChunk chunk) {
+        heldChunks.remove(chunk.getId());
+        boolean completed = runChunkRepository.complete(chunk.getId(), nodeId, Instant.now()) == 1;
+        if (!completed) {
+            logger.warn("Lost lease on chunk {} of run {} before completion", chunk.getChunkIndex(), chunk.getRun().getId());
+        }
+        return completed;
+    }
+
+    public void failChunk(RunChunk chunk, String error) {
+        heldChunks.remove(chunk.getId());
+        String message = error != null && error.length() > 2000 ? error.substring(0, 2000) : error;
+        if (chunk.getAttempts() >= maxChunkAttempts) {
+            if (runChunkRepository.fail(chunk.getId(), nodeId, message, Instant.now()) == 1) {
+                logger.warn("Chunk {} of run {} failed after {} attempts", chunk.getChunkIndex(), chunk.getRun().getId(),
+                        chunk.getAttempts());
+            }
+        } else {
+            runChunkRepository.release(chunk.getId(), nodeId, message);
+        }
+    }
+
+    private void renewAll() {
+        try {
+            Instant expiresAt = Instant.now().plus(leaseTtl);
+            for (Long runId : heldRuns) {
+                if (runRepository.renew(runId, nodeId, expiresAt) == 0) {
+                    logger.warn("Lease on run {} was taken over by another node", runId);
+                    heldRuns.remove(runId);
+                }
+            }
+            for (Long chunkId : heldChunks) {
+                if (runChunkRepository.renew(chunkId, nodeId, expiresAt) == 0) {
+                    logger.warn("Lease on chunk {} was taken over by another node", chunkId);
+                    heldChunks.remove(chunkId);
+                }
+            }
+        } catch (Exception ex) {
+            logger.warn("Lease heartbeat failed: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception ex) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
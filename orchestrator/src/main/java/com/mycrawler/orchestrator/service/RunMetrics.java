@@ -0,0 +1,38 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunStatus;
+import com.mycrawler.orchestrator.db.RunType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RunMetrics {
+    public static final String RUN_TIMER = "crawler.run.duration";
+    private final MeterRegistry registry;
+    private final Map<RunType, StageMetrics> stages = new EnumMap<>(RunType.class);
+
+    public RunMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (RunType runType : RunType.values()) {
+            stages.put(runType, new StageMetrics(registry, runType));
+        }
+    }
+
+    public StageMetrics stages(RunType runType) {
+        return stages.get(runType);
+    }
+
+    public void runFinished(RunType runType, RunStatus status, Duration duration) {
+        Timer.builder(RUN_TIMER)
+                .description("Wall-clock time of a run from start to its final status")
+                .tag("run_type", runType.name())
+                .tag("outcome", status.name().toLowerCase(Locale.ROOT))
+                .register(registry)
+                .record(duration);
+    }
+}
@@ -4,6 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycrawler.orchestrator.db.ExtractionRecord;
 import com.mycrawler.orchestrator.db.ExtractionRecordRepository;
 import com.mycrawler.orchestrator.db.ExtractionStatus;
+import com.mycrawler.orchestrator.db.RunChunk;
+import com.mycrawler.orchestrator.db.RunChunkRepository;
+import com.mycrawler.orchestrator.db.RunChunkStatus;
 import com.mycrawler.orchestrator.db.RunEntity;
 import com.mycrawler.orchestrator.db.RunEvent;
 import com.mycrawler.orchestrator.db.RunEventRepository;
@@ -11,52 +14,116 @@ import com.mycrawler.orchestrator.db.RunRepository;
 import com.mycrawler.orchestrator.db.RunStatus;
 import com.mycrawler.orchestrator.db.RunType;
 import com.mycrawler.orchestrator.run.BatchScanner;
+import com.mycrawler.orchestrator.run.CrawlFiles;
+import com.mycrawler.orchestrator.run.ExtractionManifest;
 import com.mycrawler.orchestrator.run.JobPosting;
+import com.mycrawler.orchestrator.run.RawExtractionStore;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class RunProcessor {
     private static final Logger logger = LoggerFactory.getLogger(RunProcessor.class);
+    private static final String MANIFEST_FILE = "extraction_manifest.json";
+    private static final List<RunChunkStatus> OPEN_CHUNKS = List.of(RunChunkStatus.PENDING, RunChunkStatus.CLAIMED);
     private final RunRepository runRepository;
     private final RunEventRepository runEventRepository;
     private final ExtractionRecordRepository extractionRecordRepository;
-    private final ExtractionService extractionService;
+    private final ExtractionRecordWriter extractionRecordWriter;
+    private final ExtractionPipeline extractionPipeline;
     private final ExportService exportService;
     private final ObjectMapper objectMapper;
+    private final BatchScanner scanner;
+    private final boolean orderedScan;
+    private final RunChunkRepository runChunkRepository;
+    private final RunLeaseService leaseService;
+    private final RunMetrics runMetrics;
+    private final int chunkSize;
+    private final long pollIntervalMillis;
+    private final long cancelPollIntervalMillis;
+    private final Map<Long, ExtractionManifest> chunkManifests = Collections.synchronizedMap(new LinkedHashMap<>(4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ExtractionManifest> eldest) {
+            return size() > 4;
+        }
+    });
 
     public RunProcessor(
             RunRepository runRepository,
             RunEventRepository runEventRepository,
             ExtractionRecordRepository extractionRecordRepository,
-            ExtractionService extractionService,
+            ExtractionRecordWriter extractionRecordWriter,
+            ExtractionPipeline extractionPipeline,
             ExportService exportService,
-            ObjectMapper objectMapper
+            ObjectMapper objectMapper,
+            @Value("${runs.scan.threads:4}") int scanThreads,
+            @Value("${runs.scan.queue-capacity:1024}") int scanQueueCapacity,
+            @Value("${runs.scan.ordered:false}") boolean orderedScan,
+            RunChunkRepository runChunkRepository,
+            RunLeaseService leaseService,
+            RunMetrics runMetrics,
+            @Value("${runs.distributed.chunk-size:500}") int chunkSize,
+            @Value("${runs.distributed.poll-interval-ms:2000}") long pollIntervalMillis,
+            @Value("${runs.cancel-poll-interval-ms:2000}") long cancelPollIntervalMillis
     ) {
         this.runRepository = runRepository;
         this.runEventRepository = runEventRepository;
         this.extractionRecordRepository = extractionRecordRepository;
-        this.extractionService = extractionService;
+        this.extractionRecordWriter = extractionRecordWriter;
+        this.extractionPipeline = extractionPipeline;
         this.exportService = exportService;
         this.objectMapper = objectMapper;
+        this.scanner = new BatchScanner(scanThreads, scanQueueCapacity);
+        // Near-duplicate clusters depend on the order postings reach the export, so deduplicating runs scan in
+        // path order to export the same duplicates.csv every time.
+        this.orderedScan = orderedScan || exportService.deduplicates();
+        this.runChunkRepository = runChunkRepository;
+        this.leaseService = leaseService;
+        this.runMetrics = runMetrics;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pollIntervalMillis = Math.max(100, pollIntervalMillis);
+        this.cancelPollIntervalMillis = Math.max(100, cancelPollIntervalMillis);
     }
 
-    @Async("runExecutor")
-    public void processRun(Long runId) {
+    /**
+     * Executes a run on the calling thread; invoked by {@link RunScheduler} on a {@code runExecutor}
+     * thread. A cancelled run stops at its next checkpoint and ends as CANCELLED.
+     */
+    public void processRun(Long runId, RunCancellation cancellation) {
+        if (leaseService.isEnabled() && !leaseService.claimRun(runId)) {
+            logger.info("Run {} is not claimable by node {}; skipping", runId, leaseService.nodeId());
+            return;
+        }
         RunEntity run = runRepository.findById(runId).orElse(null);
-        if (run == null) {
+        if (run == null || run.getStatus() == RunStatus.CANCELLED) {
+            leaseService.releaseRun(runId);
             return;
         }
+        if (Boolean.TRUE.equals(run.getCancelRequested())) {
+            cancellation.cancel();
+        }
+        // A cancel sent to another node only sets the run's flag in the database.
+        cancellation.pollWith(() -> Boolean.TRUE.equals(runRepository.findCancelRequestedById(runId)),
+                Duration.ofMillis(cancelPollIntervalMillis));
         logger.info("Processing run {} type={} date={}", run.getId(), run.getRunType(), run.getRunDate());
         run.setStatus(RunStatus.RUNNING);
         run.setStartedAt(Instant.now());
@@ -64,62 +131,329 @@ public class RunProcessor {
         recordEvent(run, "RUN_STARTED", "Run started");
 
         try {
-            if (run.getRunType() == RunType.FULL) {
-                processFullRun(run);
+            if (run.getRunType() == RunType.FULL && leaseService.isEnabled()) {
+                processDistributedFullRun(run, cancellation);
+            } else if (run.getRunType() == RunType.FULL) {
+                processFullRun(run, cancellation);
             } else if (run.getRunType() == RunType.REPROCESS) {
-                processReprocess(run);
+                processReprocess(run, cancellation);
             } else if (run.getRunType() == RunType.APPLY_REVIEW) {
-                processApplyReview(run);
+                processApplyReview(run, cancellation);
+            } else if (run.getRunType() == RunType.RETRY_FAILED) {
+                processRetryFailed(run, cancellation);
             }
             run.setStatus(RunStatus.COMPLETED);
             run.setMessage("completed");
             logger.info("Run {} completed", run.getId());
+        } catch (RunCancellation.CancelledException ex) {
+            run.setStatus(RunStatus.CANCELLED);
+            run.setMessage("cancelled by user");
+            recordEvent(run, "RUN_CANCELLED", "Stopped after cancellation request");
+            logger.info("Run {} cancelled", run.getId());
         } catch (Exception ex) {
             run.setStatus(RunStatus.FAILED);
             run.setMessage(ex.getMessage());
             recordEvent(run, "RUN_FAILED", ex.getMessage());
             logger.error("Run {} failed: {}", run.getId(), ex.getMessage());
         } finally {
-            run.setFinishedAt(Instant.now());
-            runRepository.save(run);
+            if (leaseService.isEnabled() && !leaseService.holdsRun(runId)) {
+                logger.warn("Run {} lease was lost; leaving completion to the node that took it over", runId);
+            } else {
+                run.setFinishedAt(Instant.now());
+                runMetrics.runFinished(run.getRunType(), run.getStatus(), Duration.between(run.getStartedAt(), run.getFinishedAt()));
+                run.setLeaseOwner(null);
+                run.setLeaseExpiresAt(null);
+                runRepository.save(run);
+            }
+            leaseService.releaseRun(runId);
         }
     }
 
-    private void processFullRun(RunEntity run) throws IOException {
-        BatchScanner scanner = new BatchScanner();
-        List<Path> htmlFiles = scanner.scanHtmlFiles(Path.of(run.getInputDir()));
-        logger.info("Run {} found {} HTML files", run.getId(), htmlFiles.size());
-        List<JobPosting> postings = new ArrayList<>();
-        Path rawDir = Path.of(run.getRunsDir(), run.getRunDate(), "raw_extractions");
-        for (Path htmlPath : htmlFiles) {
-            JobPosting posting = extractionService.extractFromHtml(htmlPath);
-            postings.add(posting);
-            Path rawPath = rawDir.resolve(htmlPath.getFileName().toString().replace(".html", ".json"));
-            extractionService.writeRawExtraction(rawPath, posting);
-            saveRecord(run, htmlPath, posting, ExtractionStatus.SUCCESS);
+    private void processFullRun(RunEntity run, RunCancellation cancellation) throws IOException {
+        Path inputDir = Path.of(run.getInputDir());
+        Path runDir = Path.of(run.getRunsDir(), run.getRunDate());
+        Path rawDir = runDir.resolve("raw_extractions");
+        boolean incremental = Boolean.TRUE.equals(run.getIncremental());
+        ExtractionManifest manifest = ExtractionManifest.load(
+                objectMapper, runDir.resolve(MANIFEST_FILE), inputDir, extractionPipeline.extractionVersion());
+        if (incremental) {
+            logger.info("Run {} incremental against {} manifest entries", run.getId(), manifest.previousSize());
+        }
+        Set<String> checkpointed = new HashSet<>(extractionRecordRepository.findSourcePathsByRunId(run.getId()));
+        if (!checkpointed.isEmpty()) {
+            logger.info("Run {} resuming after {} checkpointed files", run.getId(), checkpointed.size());
+        }
+        ExtractionPipeline.Options options = new ExtractionPipeline.Options(
+                rawDir, manifest, incremental, checkpointed, metrics(run));
+        ExtractionPipeline.Result result;
+        long exported;
+        try (BatchScanner.HtmlFileStream htmlFiles = scanner.streamHtmlFiles(inputDir, orderedScan);
+             ExportService.ExportSink sink = openExport(run);
+             ExtractionRecordWriter.Batch records = extractionRecordWriter.open(metrics(run))) {
+            result = extractionPipeline.run(htmlFiles, options, extraction -> {
+                cancellation.throwIfCancelled();
+                if (extraction.outcome() != ExtractionPipeline.Outcome.CHECKPOINTED) {
+                    records.add(toRecord(run, extraction));
+                }
+                if (extraction.posting() != null) {
+                    sink.write(extraction.posting());
+                }
+            });
+            records.flush();
+            sink.commit();
+            exported = sink.count();
+            recordDuplicates(run, sink);
+        }
+        manifest.save(objectMapper);
+        logger.info("Run {} extracted {} HTML files", run.getId(), result.processed());
+        long reused = result.count(ExtractionPipeline.Outcome.REUSED);
+        long resumed = result.count(ExtractionPipeline.Outcome.CHECKPOINTED);
+        if (incremental) {
+            recordEvent(run, "RUN_INCREMENTAL", "Reused " + reused + " of " + result.processed() + " extractions");
+            logger.info("Run {} reused {} unchanged extractions", run.getId(), reused);
         }
-        exportService.writeExports(Path.of(run.getExportsDir()), run.getRunDate(), postings);
-        recordEvent(run, "RUN_EXPORTED", "Exported " + postings.size() + " postings");
-        logger.info("Run {} exported {} postings", run.getId(), postings.size());
+        if (resumed > 0) {
+            recordEvent(run, "RUN_CHECKPOINTS_REUSED", "Skipped " + resumed + " files completed before restart");
+        }
+        long failed = extractionRecordRepository.countByRunIdAndStatus(run.getId(), ExtractionStatus.FAILED);
+        if (failed > 0) {
+            recordEvent(run, "RUN_FILES_FAILED", failed + " files failed extraction; retry with /api/runs/" + run.getId() + "/retry-failed");
+            logger.warn("Run {} has {} failed files", run.getId(), failed);
+        }
+        recordEvent(run, "RUN_EXPORTED", "Exported " + exported + " postings");
+        logger.info("Run {} exported {} postings", run.getId(), exported);
     }
 
-    private void processReprocess(RunEntity run) throws IOException {
-        Path rawDir = Path.of(run.getRunsDir(), run.getRunDate(), "raw_extractions");
-        List<JobPosting> postings = new ArrayList<>();
-        if (Files.exists(rawDir)) {
-            try (var stream = Files.list(rawDir)) {
-                for (Path jsonPath : stream.filter(path -> path.toString().endsWith(".json")).toList()) {
-                    JobPosting posting = objectMapper.readValue(jsonPath.toFile(), JobPosting.class);
-                    postings.add(posting);
+    /**
+     * Splits the input tree into chunks that any node can claim, works on chunks until none are
+     * left, then exports from the raw extractions in chunk order. Planning is idempotent so a node
+     * that takes over an expired run lease continues with the chunks already recorded.
+     */
+    private void processDistributedFullRun(RunEntity run, RunCancellation cancellation) throws IOException {
+        Path inputDir = Path.of(run.getInputDir());
+        Path runDir = Path.of(run.getRunsDir(), run.getRunDate());
+        Path rawDir = runDir.resolve("raw_extractions");
+        int chunks = planChunks(run, inputDir);
+        recordEvent(run, "RUN_CHUNKED", "Planned " + chunks + " chunks of up to " + chunkSize + " files on node " + leaseService.nodeId());
+        logger.info("Run {} planned {} chunks", run.getId(), chunks);
+
+        while (true) {
+            cancellation.throwIfCancelled();
+            if (!leaseService.holdsRun(run.getId())) {
+                throw new IllegalStateException("Lost lease on run " + run.getId());
+            }
+            RunChunk chunk = leaseService.claimChunk(run.getId()).orElse(null);
+            if (chunk != null) {
+                leaseService.processChunk(chunk, this::processChunk);
+                continue;
+            }
+            if (runChunkRepository.countByRunIdAndStatusIn(run.getId(), OPEN_CHUNKS) == 0) {
+                break;
+            }
+            try {
+                Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for chunks of run " + run.getId(), ex);
+            }
+        }
+
+        deadLetterFailedChunks(run);
+        ExtractionManifest manifest = ExtractionManifest.load(
+                objectMapper, runDir.resolve(MANIFEST_FILE), inputDir, extractionPipeline.extractionVersion());
+        Set<String> failedPaths = new HashSet<>(
+                extractionRecordRepository.findSourcePathsByRunIdAndStatus(run.getId(), ExtractionStatus.FAILED));
+        long exported;
+        try (ExportService.ExportSink sink = openExport(run);
+             RawExtractionStore raw = RawExtractionStore.open(objectMapper, rawDir)) {
+            for (int index = 0; index < chunks; index++) {
+                cancellation.throwIfCancelled();
+                RunChunk chunk = runChunkRepository.findByRunIdAndChunkIndex(run.getId(), index)
+                        .orElseThrow(() -> new IllegalStateException("Missing chunk of run " + run.getId()));
+                for (Path htmlPath : chunk.paths()) {
+                    manifest.record(htmlPath, manifest.fingerprint(htmlPath));
+                    JobPosting posting = failedPaths.contains(htmlPath.toString()) ? null : raw.read(htmlPath);
+                    if (posting != null) {
+                        sink.write(posting);
+                    }
                 }
             }
+            sink.commit();
+            exported = sink.count();
+            recordDuplicates(run, sink);
         }
-        exportService.writeExports(Path.of(run.getExportsDir()), run.getRunDate(), postings);
-        recordEvent(run, "RUN_REPROCESSED", "Reprocessed " + postings.size() + " postings");
-        logger.info("Run {} reprocessed {} postings", run.getId(), postings.size());
+        manifest.save(objectMapper);
+        chunkManifests.remove(run.getId());
+        if (!failedPaths.isEmpty()) {
+            recordEvent(run, "RUN_FILES_FAILED", failedPaths.size() + " files failed extraction; retry with /api/runs/" + run.getId() + "/retry-failed");
+            logger.warn("Run {} has {} failed files", run.getId(), failedPaths.size());
+        }
+        recordEvent(run, "RUN_EXPORTED", "Exported " + exported + " postings");
+        logger.info("Run {} exported {} postings", run.getId(), exported);
+    }
+
+    private int planChunks(RunEntity run, Path inputDir) {
+        Set<Integer> planned = new HashSet<>(runChunkRepository.findChunkIndexesByRunId(run.getId()));
+        int index = 0;
+        List<Path> paths = new ArrayList<>(chunkSize);
+        // Ordered scan keeps chunk boundaries stable when another node re-plans after a takeover.
+        try (BatchScanner.HtmlFileStream htmlFiles = scanner.streamHtmlFiles(inputDir, true)) {
+            for (Path htmlPath : htmlFiles) {
+                paths.add(htmlPath);
+                if (paths.size() == chunkSize) {
+                    saveChunk(run, index++, paths, planned);
+                    paths = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        if (!paths.isEmpty()) {
+            saveChunk(run, index++, paths, planned);
+        }
+        return index;
+    }
+
+    private void saveChunk(RunEntity run, int index, List<Path> paths, Set<Integer> planned) {
+        if (planned.contains(index)) {
+            return;
+        }
+        RunChunk chunk = new RunChunk();
+        chunk.setRun(run);
+        chunk.setChunkIndex(index);
+        chunk.setStatus(RunChunkStatus.PENDING);
+        chunk.setFilePaths(paths);
+        chunk.setCreatedAt(Instant.now());
+        runChunkRepository.save(chunk);
+    }
+
+    /**
+     * Extracts one chunk claimed by this node; {@link RunLeaseService#processChunk} completes it or counts the
+     * failed attempt. Files of the chunk already recorded for the run (by a node that lost the lease part-way)
+     * are read back instead of extracted again.
+     */
+    public void processChunk(RunChunk chunk) throws IOException {
+        RunEntity run = runRepository.findById(chunk.getRun().getId())
+                .orElseThrow(() -> new IllegalStateException("Run " + chunk.getRun().getId() + " no longer exists"));
+        List<Path> htmlFiles = chunk.paths();
+        Set<String> checkpointed = new HashSet<>(extractionRecordRepository.findSourcePathsByRunIdAndSourcePathIn(
+                run.getId(), htmlFiles.stream().map(Path::toString).toList()));
+        Path runDir = Path.of(run.getRunsDir(), run.getRunDate());
+        boolean incremental = Boolean.TRUE.equals(run.getIncremental());
+        ExtractionManifest manifest = incremental ? chunkManifest(run, runDir) : null;
+        ExtractionPipeline.Options options = new ExtractionPipeline.Options(
+                runDir.resolve("raw_extractions"), manifest, incremental, checkpointed, metrics(run));
+        ExtractionPipeline.Result result;
+        try (ExtractionRecordWriter.Batch records = extractionRecordWriter.open(metrics(run))) {
+            result = extractionPipeline.run(htmlFiles, options, extraction -> {
+                if (extraction.outcome() != ExtractionPipeline.Outcome.CHECKPOINTED) {
+                    records.add(toRecord(run, extraction));
+                }
+            });
+        }
+        logger.info("Run {} chunk {} extracted on node {}: processed={} reused={} failed={}", run.getId(),
+                chunk.getChunkIndex(), leaseService.nodeId(), result.processed(),
+                result.count(ExtractionPipeline.Outcome.REUSED), result.count(ExtractionPipeline.Outcome.FAILED));
     }
 
-    private void processApplyReview(RunEntity run) throws IOException {
+    /**
+     * Records the files of chunks that used up their attempts as FAILED extractions (unless an attempt got as far
+     * as recording them), so the export leaves them out and RETRY_FAILED picks them up.
+     */
+    private void deadLetterFailedChunks(RunEntity run) {
+        List<RunChunk> failed = runChunkRepository.findByRunIdAndStatusOrderByChunkIndex(run.getId(), RunChunkStatus.FAILED);
+        if (failed.isEmpty()) {
+            return;
+        }
+        try (ExtractionRecordWriter.Batch records = extractionRecordWriter.open(metrics(run))) {
+            for (RunChunk chunk : failed) {
+                List<String> paths = chunk.paths().stream().map(Path::toString).toList();
+                Set<String> recorded = new HashSet<>(
+                        extractionRecordRepository.findSourcePathsByRunIdAndSourcePathIn(run.getId(), paths));
+                for (String path : paths) {
+                    if (recorded.contains(path)) {
+                        continue;
+                    }
+                    ExtractionRecord record = new ExtractionRecord();
+                    record.setRun(run);
+                    record.setSourcePath(path);
+                    record.setCreatedAt(Instant.now());
+                    record.setStatus(ExtractionStatus.FAILED);
+                    record.setErrorMessage(truncate("Chunk " + chunk.getChunkIndex() + " failed after "
+                            + chunk.getAttempts() + " attempts: " + chunk.getLastError(), 2000));
+                    records.add(record);
+                }
+            }
+        }
+        recordEvent(run, "RUN_CHUNKS_FAILED", failed.size() + " chunks failed; their files are recorded as failed extractions");
+        logger.warn("Run {} has {} failed chunks", run.getId(), failed.size());
+    }
+
+    private ExtractionManifest chunkManifest(RunEntity run, Path runDir) {
+        return chunkManifests.computeIfAbsent(run.getId(), id -> {
+            try {
+                return ExtractionManifest.load(objectMapper, runDir.resolve(MANIFEST_FILE),
+                        Path.of(run.getInputDir()), extractionPipeline.extractionVersion());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private void processReprocess(RunEntity run, RunCancellation cancellation) throws IOException {
+        long reprocessed = exportRawExtractions(run, cancellation);
+        recordEvent(run, "RUN_REPROCESSED", "Reprocessed " + reprocessed + " postings");
+        logger.info("Run {} reprocessed {} postings", run.getId(), reprocessed);
+    }
+
+    private void processRetryFailed(RunEntity run, RunCancellation cancellation) throws IOException {
+        Long sourceRunId = run.getSourceRunId();
+        Map<String, ExtractionRecord> deadLetters = new LinkedHashMap<>();
+        for (ExtractionRecord record : extractionRecordRepository.findByRunIdAndStatus(sourceRunId, ExtractionStatus.FAILED)) {
+            deadLetters.put(record.getSourcePath(), record);
+        }
+        logger.info("Run {} retrying {} failed files from run {}", run.getId(), deadLetters.size(), sourceRunId);
+        Path rawDir = Path.of(run.getRunsDir(), run.getRunDate(), "raw_extractions");
+        List<Path> htmlFiles = deadLetters.keySet().stream().map(Path::of).toList();
+        ExtractionPipeline.Result result;
+        try (ExtractionRecordWriter.Batch records = extractionRecordWriter.open(metrics(run))) {
+            ExtractionPipeline.Options options = ExtractionPipeline.Options.of(rawDir).withMetrics(metrics(run));
+            result = extractionPipeline.run(htmlFiles, options, extraction -> {
+                cancellation.throwIfCancelled();
+                ExtractionRecord record = deadLetters.get(extraction.htmlPath().toString());
+                applyExtraction(record, extraction);
+                records.add(record);
+            });
+        }
+        long recovered = result.count(ExtractionPipeline.Outcome.EXTRACTED);
+        recordEvent(run, "RETRY_COMPLETED", "Recovered " + recovered + " of " + deadLetters.size() + " failed files from run " + sourceRunId);
+        logger.info("Run {} recovered {} of {} failed files", run.getId(), recovered, deadLetters.size());
+        if (recovered > 0) {
+            long exported = exportRawExtractions(run, cancellation);
+            recordEvent(run, "RUN_EXPORTED", "Exported " + exported + " postings");
+        }
+    }
+
+    private long exportRawExtractions(RunEntity run, RunCancellation cancellation) throws IOException {
+        Path rawDir = Path.of(run.getRunsDir(), run.getRunDate(), "raw_extractions");
+        try (ExportService.ExportSink sink = openExport(run);
+             RawExtractionStore raw = RawExtractionStore.open(objectMapper, rawDir)) {
+            raw.forEach(posting -> {
+                cancellation.throwIfCancelled();
+                sink.write(posting);
+            });
+            sink.commit();
+            recordDuplicates(run, sink);
+            return sink.count();
+        }
+    }
+
+    private void recordDuplicates(RunEntity run, ExportService.ExportSink sink) {
+        if (sink.duplicates() > 0) {
+            recordEvent(run, "RUN_DUPLICATES_LINKED", "Linked " + sink.duplicates() + " near-duplicate postings in duplicates.csv");
+            logger.info("Run {} linked {} near-duplicate postings", run.getId(), sink.duplicates());
+        }
+    }
+
+    private void processApplyReview(RunEntity run, RunCancellation cancellation) throws IOException {
         Path reviewPath = Path.of(run.getReviewCsvPath());
         if (!Files.exists(reviewPath)) {
             recordEvent(run, "REVIEW_MISSING", "Review CSV not found");
@@ -127,32 +461,72 @@ public class RunProcessor {
             return;
         }
         Path exportDir = Path.of(run.getExportsDir(), run.getRunDate());
-        Path jsonlPath = exportDir.resolve("jobs.jsonl");
-        List<JobPosting> postings = new ArrayList<>();
-        if (Files.exists(jsonlPath)) {
-            try (BufferedReader reader = Files.newBufferedReader(jsonlPath)) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    postings.add(objectMapper.readValue(line, JobPosting.class));
+        Path jsonlPath = ExportService.jsonlPath(exportDir);
+        CrawlFiles.Compression compression = Files.exists(jsonlPath) ? CrawlFiles.Compression.of(jsonlPath) : null;
+        Map<String, List<Map<String, String>>> edits = readReviewEdits(reviewPath);
+        int updated = 0;
+        // jobs.jsonl is already deduplicated; duplicates.csv from the export stays as it is. The rewritten export
+        // keeps the compression it had.
+        try (ExportService.ExportSink sink = exportService.openExport(Path.of(run.getExportsDir()), run.getRunDate(),
+                metrics(run), false, exportService.output(compression, null))) {
+            if (compression != null) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(compression.open(jsonlPath), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        cancellation.throwIfCancelled();
+                        JobPosting posting = objectMapper.readValue(line, JobPosting.class);
+                        List<Map<String, String>> postingEdits = posting.getJobId() != null ? edits.remove(posting.getJobId()) : null;
+                        if (postingEdits != null) {
+                            updated += applyReviewEdits(posting, postingEdits);
+                        }
+                        sink.write(posting);
+                    }
                 }
             }
+            recordEvent(run, "REVIEW_APPLIED", "Review updates applied: " + updated);
+            sink.commit();
         }
-        int updated = applyReviewEdits(reviewPath, postings);
-        recordEvent(run, "REVIEW_APPLIED", "Review updates applied: " + updated);
-        exportService.writeExports(Path.of(run.getExportsDir()), run.getRunDate(), postings);
         logger.info("Run {} applied review updates: {}", run.getId(), updated);
     }
 
-    private void saveRecord(RunEntity run, Path htmlPath, JobPosting posting, ExtractionStatus status) {
+    private ExportService.ExportSink openExport(RunEntity run) throws IOException {
+        return exportService.openExport(Path.of(run.getExportsDir()), run.getRunDate(), metrics(run), true,
+                exportService.output(run.getExportCompression(), run.getExportCompressionLevel()));
+    }
+
+    private StageMetrics metrics(RunEntity run) {
+        return runMetrics.stages(run.getRunType());
+    }
+
+    private ExtractionRecord toRecord(RunEntity run, ExtractionPipeline.Extraction extraction) {
         ExtractionRecord record = new ExtractionRecord();
         record.setRun(run);
-        record.setSourcePath(htmlPath.toString());
+        record.setSourcePath(extraction.htmlPath().toString());
+        record.setCreatedAt(Instant.now());
+        applyExtraction(record, extraction);
+        return record;
+    }
+
+    private void applyExtraction(ExtractionRecord record, ExtractionPipeline.Extraction extraction) {
+        JobPosting posting = extraction.posting();
+        if (posting == null) {
+            record.setStatus(ExtractionStatus.FAILED);
+            record.setErrorMessage(truncate(extraction.error(), 2000));
+            return;
+        }
+        record.setStatus(ExtractionStatus.SUCCESS);
         record.setSourceUrl(posting.getSourceUrl());
-        record.setStatus(status);
         record.setConfidence(posting.getExtractionConfidence());
         record.setPayloadJson(writePayload(posting));
-        record.setCreatedAt(Instant.now());
-        extractionRecordRepository.save(record);
+        record.setErrorMessage(null);
+    }
+
+    private String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
     }
 
     private String writePayload(JobPosting posting) {
@@ -172,11 +546,8 @@ public class RunProcessor {
         runEventRepository.save(event);
     }
 
-    private int applyReviewEdits(Path reviewPath, List<JobPosting> postings) throws IOException {
-        Map<String, JobPosting> index = postings.stream()
-                .filter(posting -> posting.getJobId() != null)
-                .collect(java.util.stream.Collectors.toMap(JobPosting::getJobId, posting -> posting, (a, b) -> a));
-        int updated = 0;
+    private Map<String, List<Map<String, String>>> readReviewEdits(Path reviewPath) throws IOException {
+        Map<String, List<Map<String, String>>> edits = new HashMap<>();
         try (var reader = Files.newBufferedReader(reviewPath);
              var parser = org.apache.commons.csv.CSVFormat.DEFAULT
                      .builder()
@@ -185,23 +556,26 @@ public class RunProcessor {
                      .build()
                      .parse(reader)) {
             for (var record : parser) {
-                String jobId = record.get("job_id");
-                JobPosting posting = index.get(jobId);
-                if (posting == null) {
-                    continue;
-                }
-                updated += applyField(record, "job_title", posting.getJobTitle(), posting::setJobTitle) ? 1 : 0;
-                updated += applyField(record, "company_name", posting.getCompanyName(), posting::setCompanyName) ? 1 : 0;
-                updated += applyField(record, "location_municipality", posting.getLocationMunicipality(), posting::setLocationMunicipality) ? 1 : 0;
-                updated += applyField(record, "source_url", posting.getSourceUrl(), posting::setSourceUrl) ? 1 : 0;
-                updated += applyField(record, "confidence", posting.getExtractionConfidence(), posting::setExtractionConfidence) ? 1 : 0;
+                edits.computeIfAbsent(record.get("job_id"), key -> new ArrayList<>()).add(record.toMap());
             }
         }
+        return edits;
+    }
+
+    private int applyReviewEdits(JobPosting posting, List<Map<String, String>> records) {
+        int updated = 0;
+        for (Map<String, String> record : records) {
+            updated += applyField(record, "job_title", posting.getJobTitle(), posting::setJobTitle) ? 1 : 0;
+            updated += applyField(record, "company_name", posting.getCompanyName(), posting::setCompanyName) ? 1 : 0;
+            updated += applyField(record, "location_municipality", posting.getLocationMunicipality(), posting::setLocationMunicipality) ? 1 : 0;
+            updated += applyField(record, "source_url", posting.getSourceUrl(), posting::setSourceUrl) ? 1 : 0;
+            updated += applyField(record, "confidence", posting.getExtractionConfidence(), posting::setExtractionConfidence) ? 1 : 0;
+        }
         return updated;
     }
 
-    private boolean applyField(org.apache.commons.csv.CSVRecord record, String field, String current, java.util.function.Consumer<String> setter) {
-        if (!record.isMapped(field)) {
+    private boolean applyField(Map<String, String> record, String field, String current, java.util.function.Consumer<String> setter) {
+        if (!record.containsKey(field)) {
             return false;
         }
         String value = record.get(field);
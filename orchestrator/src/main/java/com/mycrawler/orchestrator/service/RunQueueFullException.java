@@ -0,0 +1,16 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.dto.RunResponse;
+
+public class RunQueueFullException extends RuntimeException {
+    private final RunResponse run;
+
+    public RunQueueFullException(RunResponse run) {
+        super(run.message());
+        this.run = run;
+    }
+
+    public RunResponse getRun() {
+        return run;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunEntity;
+import com.mycrawler.orchestrator.db.RunEvent;
+import com.mycrawler.orchestrator.db.RunEventRepository;
+import com.mycrawler.orchestrator.db.RunRepository;
+import com.mycrawler.orchestrator.db.RunStatus;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-queues runs left QUEUED or RUNNING by a previous process. FULL runs pick up from
+ * their extraction records, so files completed before the restart are not extracted again.
+ * With distributed runs enabled, runs whose lease is still held by another node are left alone.
+ */
+@Service
+public class RunRecoveryService implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(RunRecoveryService.class);
+    private final RunRepository runRepository;
+    private final RunEventRepository runEventRepository;
+    private final RunScheduler runScheduler;
+    private final RunLeaseService leaseService;
+    private final boolean enabled;
+
+    public RunRecoveryService(
+            RunRepository runRepository,
+            RunEventRepository runEventRepository,
+            RunScheduler runScheduler,
+            RunLeaseService leaseService,
+            @Value("${runs.recovery.enabled:true}") boolean enabled
+    ) {
+        this.runRepository = runRepository;
+        this.runEventRepository = runEventRepository;
+        this.runScheduler = runScheduler;
+        this.leaseService = leaseService;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        List<RunEntity> interrupted = runRepository.findByStatusInOrderByCreatedAtAsc(List.of(RunStatus.QUEUED, RunStatus.RUNNING));
+        Instant now = Instant.now();
+        for (RunEntity run : interrupted) {
+            if (leaseService.isEnabled() && run.getLeaseExpiresAt() != null && run.getLeaseExpiresAt().isAfter(now)) {
+                // Another node still holds this run; it is taken over only if that lease expires.
+                continue;
+            }
+            logger.info("Resuming interrupted run {} type={} status={}", run.getId(), run.getRunType(), run.getStatus());
+            recordEvent(run, "RUN_RESUMED", "Resumed after restart (was " + run.getStatus() + ")");
+            runScheduler.submit(run);
+        }
+    }
+
+    private void recordEvent(RunEntity run, String eventType, String message) {
+        RunEvent event = new RunEvent();
+        event.setRun(run);
+        event.setEventType(eventType);
+        event.setMessage(message);
+        event.setCreatedAt(Instant.now());
+        runEventRepository.save(event);
+    }
+}
@@ -0,0 +1,236 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunEntity;
+import com.mycrawler.orchestrator.db.RunType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Admission control in front of {@code runExecutor}. Waiting runs are dispatched by priority
+ * (higher first, FIFO within a priority) as long as the pool and the per-type limit have room,
+ * so a long FULL run does not hold back REPROCESS or APPLY_REVIEW runs queued after it.
+ * Queue depths are published as gauges once Spring Boot binds the bean's meters.
+ */
+@Service
+public class RunScheduler implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(RunScheduler.class);
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt((Entry entry) -> -entry.priority)
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final RunHandler handler;
+    private final Executor executor;
+    private final int maxRunning;
+    private final int queueCapacity;
+    private final Map<RunType, Integer> limits;
+    private final TreeSet<Entry> waiting = new TreeSet<>(ORDER);
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<RunType, Integer> running = new EnumMap<>(RunType.class);
+    private int runningTotal;
+    private long sequence;
+
+    @FunctionalInterface
+    public interface RunHandler {
+        void handle(Long runId, RunCancellation cancellation);
+    }
+
+    public enum CancelResult {
+        DEQUEUED,
+        SIGNALLED,
+        NOT_FOUND
+    }
+
+    @Autowired
+    public RunScheduler(
+            RunProcessor runProcessor,
+            @Qualifier("runExecutor") Executor executor,
+            @Value("${runs.scheduler.threads:4}") int maxRunning,
+            @Value("${runs.scheduler.queue-capacity:100}") int queueCapacity,
+            @Value("${runs.scheduler.limits.full:1}") int fullLimit,
+            @Value("${runs.scheduler.limits.reprocess:2}") int reprocessLimit,
+            @Value("${runs.scheduler.limits.apply-review:2}") int applyReviewLimit,
+            @Value("${runs.scheduler.limits.retry-failed:1}") int retryFailedLimit
+    ) {
+        this(runProcessor::processRun, executor, maxRunning, queueCapacity,
+                limits(fullLimit, reprocessLimit, applyReviewLimit, retryFailedLimit));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("crawler.run.scheduler.waiting", this, RunScheduler::waitingCount)
+                .description("Runs admitted but not started yet")
+                .register(registry);
+        Gauge.builder("crawler.run.scheduler.running", this, RunScheduler::runningCount)
+                .description("Runs executing on this node")
+                .register(registry);
+    }
+
+    RunScheduler(RunHandler handler, Executor executor, int maxRunning, int queueCapacity, Map<RunType, Integer> limits) {
+        this.handler = handler;
+        this.executor = executor;
+        this.maxRunning = Math.max(1, maxRunning);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.limits = new EnumMap<>(limits);
+    }
+
+    static Map<RunType, Integer> limits(int full, int reprocess, int applyReview, int retryFailed) {
+        Map<RunType, Integer> limits = new EnumMap<>(RunType.class);
+        limits.put(RunType.FULL, full);
+        limits.put(RunType.REPROCESS, reprocess);
+        limits.put(RunType.APPLY_REVIEW, applyReview);
+        limits.put(RunType.RETRY_FAILED, retryFailed);
+        return limits;
+    }
+
+    public static int defaultPriority(RunType runType) {
+        return switch (runType) {
+            case APPLY_REVIEW, REPROCESS -> 20;
+            case RETRY_FAILED -> 10;
+            case FULL -> 0;
+        };
+    }
+
+    /**
+     * Queues a newly created run. Returns false without queueing when it cannot start right away
+     * and {@code queue-capacity} runs are already waiting.
+     */
+    public boolean trySubmit(RunEntity run) {
+        return trySubmit(run.getId(), run.getRunType(), run.getPriority());
+    }
+
+    synchronized boolean trySubmit(Long runId, RunType runType, Integer priority) {
+        if (entries.containsKey(runId)) {
+            return true;
+        }
+        Entry entry = enqueue(runId, runType, priority);
+        if (waiting.contains(entry) && waiting.size() > queueCapacity) {
+            waiting.remove(entry);
+            entries.remove(runId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Queues a run regardless of capacity; used for runs recovered after a restart or taken over
+     * from another node, which were already admitted once. Returns false if it is already queued
+     * or running here.
+     */
+    public boolean submit(RunEntity run) {
+        return submit(run.getId(), run.getRunType(), run.getPriority());
+    }
+
+    synchronized boolean submit(Long runId, RunType runType, Integer priority) {
+        if (entries.containsKey(runId)) {
+            return false;
+        }
+        enqueue(runId, runType, priority);
+        return true;
+    }
+
+    public synchronized CancelResult cancel(Long runId) {
+        Entry entry = entries.get(runId);
+        if (entry == null) {
+            return CancelResult.NOT_FOUND;
+        }
+        if (waiting.remove(entry)) {
+            entries.remove(runId);
+            return CancelResult.DEQUEUED;
+        }
+        entry.cancellation.cancel();
+        return CancelResult.SIGNALLED;
+    }
+
+    public synchronized int waitingCount() {
+        return waiting.size();
+    }
+
+    public synchronized int runningCount() {
+        return runningTotal;
+    }
+
+    public int queueCapacity() {
+        return queueCapacity;
+    }
+
+    private Entry enqueue(Long runId, RunType runType, Integer priority) {
+        int effective = priority != null ? priority : defaultPriority(runType);
+        Entry entry = new Entry(runId, runType, effective, sequence++);
+        entries.put(entry.runId, entry);
+        waiting.add(entry);
+        dispatch();
+        return entry;
+    }
+
+    private void dispatch() {
+        Entry entry;
+        while (runningTotal < maxRunning && (entry = nextDispatchable()) != null) {
+            waiting.remove(entry);
+            running.merge(entry.runType, 1, Integer::sum);
+            runningTotal++;
+            Entry dispatched = entry;
+            try {
+                executor.execute(() -> execute(dispatched));
+            } catch (RejectedExecutionException ex) {
+                logger.warn("Run executor rejected run {}; leaving it queued", entry.runId);
+                waiting.add(entry);
+                running.merge(entry.runType, -1, Integer::sum);
+                runningTotal--;
+                return;
+            }
+        }
+    }
+
+    private Entry nextDispatchable() {
+        for (Entry entry : waiting) {
+            if (running.getOrDefault(entry.runType, 0) < limits.getOrDefault(entry.runType, maxRunning)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void execute(Entry entry) {
+        try {
+            handler.handle(entry.runId, entry.cancellation);
+        } catch (Exception ex) {
+            logger.error("Run {} handler failed: {}", entry.runId, ex.getMessage());
+        } finally {
+            synchronized (this) {
+                entries.remove(entry.runId);
+                running.merge(entry.runType, -1, Integer::sum);
+                runningTotal--;
+                dispatch();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Long runId;
+        private final RunType runType;
+        private final int priority;
+        private final long sequence;
+        private final RunCancellation cancellation = new RunCancellation();
+
+        private Entry(Long runId, RunType runType, int priority, long sequence) {
+            this.runId = runId;
+            this.runType = runType;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
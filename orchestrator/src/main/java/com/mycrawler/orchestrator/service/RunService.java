@@ -11,6 +11,7 @@ import com.mycrawler.orchestrator.dto.ReprocessRequest;
 import com.mycrawler.orchestrator.dto.RunResponse;
 import com.mycrawler.orchestrator.dto.RunSummary;
 import com.mycrawler.orchestrator.dto.StartRunRequest;
+import com.mycrawler.orchestrator.run.CrawlFiles;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -23,15 +24,23 @@ public class RunService {
     private static final Logger logger = LoggerFactory.getLogger(RunService.class);
     private final RunRepository runRepository;
     private final RunEventRepository runEventRepository;
-    private final RunProcessor runProcessor;
+    private final RunScheduler runScheduler;
+    private final ExportService exportService;
 
-    public RunService(RunRepository runRepository, RunEventRepository runEventRepository, RunProcessor runProcessor) {
+    public RunService(RunRepository runRepository, RunEventRepository runEventRepository, RunScheduler runScheduler,
+                      ExportService exportService) {
         this.runRepository = runRepository;
         this.runEventRepository = runEventRepository;
-        this.runProcessor = runProcessor;
+        this.runScheduler = runScheduler;
+        this.exportService = exportService;
     }
 
+    /**
+     * @throws InvalidRunRequestException when the export compression level is too high for the compression the run
+     *                                    would use
+     */
     public RunResponse startRun(StartRunRequest request) {
+        checkExportOutput(request.exportCompression(), request.exportCompressionLevel());
         RunEntity run = new RunEntity();
         run.setRunType(RunType.FULL);
         run.setStatus(RunStatus.QUEUED);
@@ -39,15 +48,22 @@ public class RunService {
         run.setInputDir(request.inputDir());
         run.setRunsDir(request.runsDir());
         run.setExportsDir(request.exportsDir());
+        run.setIncremental(Boolean.TRUE.equals(request.incremental()));
+        run.setExportCompression(request.exportCompression());
+        run.setExportCompressionLevel(request.exportCompressionLevel());
+        run.setPriority(priority(request.priority(), RunType.FULL));
         run.setCreatedAt(Instant.now());
         run = runRepository.save(run);
         recordEvent(run, "RUN_CREATED", "Run queued by user");
-        logger.info("Queued run {} type={} date={}", run.getId(), run.getRunType(), run.getRunDate());
-        runProcessor.processRun(run.getId());
-        return toResponse(run);
+        return toResponse(admit(run));
     }
 
+    /**
+     * @throws InvalidRunRequestException when the export compression level is too high for the compression the run
+     *                                    would use
+     */
     public RunResponse reprocess(ReprocessRequest request) {
+        checkExportOutput(request.exportCompression(), request.exportCompressionLevel());
         RunEntity run = new RunEntity();
         run.setRunType(RunType.REPROCESS);
         run.setStatus(RunStatus.QUEUED);
@@ -55,12 +71,13 @@ public class RunService {
         run.setInputDir("n/a");
         run.setRunsDir(request.runsDir());
         run.setExportsDir(request.exportsDir());
+        run.setExportCompression(request.exportCompression());
+        run.setExportCompressionLevel(request.exportCompressionLevel());
+        run.setPriority(priority(request.priority(), RunType.REPROCESS));
         run.setCreatedAt(Instant.now());
         run = runRepository.save(run);
         recordEvent(run, "REPROCESS_CREATED", "Reprocess queued by user");
-        logger.info("Queued run {} type={} date={}", run.getId(), run.getRunType(), run.getRunDate());
-        runProcessor.processRun(run.getId());
-        return toResponse(run);
+        return toResponse(admit(run));
     }
 
     public RunResponse applyReview(ApplyReviewRequest request) {
@@ -72,12 +89,75 @@ public class RunService {
         run.setRunsDir("n/a");
         run.setExportsDir(request.exportsDir());
         run.setReviewCsvPath(request.reviewCsvPath());
+        run.setPriority(priority(request.priority(), RunType.APPLY_REVIEW));
         run.setCreatedAt(Instant.now());
         run = runRepository.save(run);
         recordEvent(run, "APPLY_REVIEW_CREATED", "Review apply queued by user");
-        logger.info("Queued run {} type={} date={}", run.getId(), run.getRunType(), run.getRunDate());
-        runProcessor.processRun(run.getId());
-        return toResponse(run);
+        return toResponse(admit(run));
+    }
+
+    public Optional<RunResponse> retryFailed(Long sourceRunId) {
+        RunEntity source = runRepository.findById(sourceRunId).orElse(null);
+        if (source == null || source.getRunType() != RunType.FULL) {
+            return Optional.empty();
+        }
+        RunEntity run = new RunEntity();
+        run.setRunType(RunType.RETRY_FAILED);
+        run.setStatus(RunStatus.QUEUED);
+        run.setRunDate(source.getRunDate());
+        run.setInputDir(source.getInputDir());
+        run.setRunsDir(source.getRunsDir());
+        run.setExportsDir(source.getExportsDir());
+        run.setSourceRunId(source.getId());
+        run.setExportCompression(source.getExportCompression());
+        run.setExportCompressionLevel(source.getExportCompressionLevel());
+        run.setPriority(RunScheduler.defaultPriority(RunType.RETRY_FAILED));
+        run.setCreatedAt(Instant.now());
+        run = runRepository.save(run);
+        recordEvent(run, "RETRY_FAILED_CREATED", "Retry of failed files from run " + source.getId() + " queued by user");
+        return Optional.of(toResponse(admit(run)));
+    }
+
+    // A level can be fine for ZSTD but not for GZIP, and an unset compression is the configured default.
+    private void checkExportOutput(CrawlFiles.Compression compression, Integer level) {
+        try {
+            exportService.output(compression, level);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRunRequestException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Cancels a queued run immediately; a running run is signalled and stops at its next
+     * checkpoint, ending as CANCELLED. Finished runs are returned unchanged.
+     */
+    public Optional<RunResponse> cancel(Long id) {
+        RunEntity run = runRepository.findById(id).orElse(null);
+        if (run == null) {
+            return Optional.empty();
+        }
+        if (run.getStatus() != RunStatus.QUEUED && run.getStatus() != RunStatus.RUNNING) {
+            return Optional.of(toResponse(run));
+        }
+        RunScheduler.CancelResult result = runScheduler.cancel(id);
+        if (result == RunScheduler.CancelResult.DEQUEUED) {
+            run.setStatus(RunStatus.CANCELLED);
+            run.setMessage("cancelled before start");
+            run.setFinishedAt(Instant.now());
+            runRepository.save(run);
+            recordEvent(run, "RUN_CANCELLED", "Cancelled by user before start");
+            logger.info("Cancelled queued run {}", id);
+        } else if (result == RunScheduler.CancelResult.NOT_FOUND
+                && runRepository.cancelQueued(id, "cancelled before start", Instant.now()) == 1) {
+            recordEvent(run, "RUN_CANCELLED", "Cancelled by user before start");
+            logger.info("Cancelled queued run {}", id);
+        } else {
+            // Also persisted so a coordinator on another node, or this node after a restart, sees it.
+            runRepository.requestCancel(id);
+            recordEvent(run, "RUN_CANCEL_REQUESTED", "Cancellation requested by user");
+            logger.info("Cancellation requested for run {}", id);
+        }
+        return runRepository.findById(id).map(this::toResponse);
     }
 
     public Optional<RunResponse> getRun(Long id) {
@@ -96,6 +176,26 @@ public class RunService {
                 .toList();
     }
 
+    private RunEntity admit(RunEntity run) {
+        if (!runScheduler.trySubmit(run)) {
+            String message = "Run queue is full (" + runScheduler.queueCapacity() + " runs waiting); retry later";
+            run.setStatus(RunStatus.REJECTED);
+            run.setMessage(message);
+            run.setFinishedAt(Instant.now());
+            run = runRepository.save(run);
+            recordEvent(run, "RUN_REJECTED", message);
+            logger.warn("Rejected run {} type={}: queue full", run.getId(), run.getRunType());
+            throw new RunQueueFullException(toResponse(run));
+        }
+        logger.info("Queued run {} type={} date={} priority={} waiting={}", run.getId(), run.getRunType(), run.getRunDate(),
+                run.getPriority(), runScheduler.waitingCount());
+        return run;
+    }
+
+    private int priority(Integer requested, RunType runType) {
+        return requested != null ? requested : RunScheduler.defaultPriority(runType);
+    }
+
     private void recordEvent(RunEntity run, String eventType, String message) {
         RunEvent event = new RunEvent();
         event.setRun(run);
@@ -115,6 +215,11 @@ public class RunService {
                 run.getRunsDir(),
                 run.getExportsDir(),
                 run.getReviewCsvPath(),
+                run.getIncremental(),
+                run.getSourceRunId(),
+                run.getExportCompression(),
+                run.getExportCompressionLevel(),
+                run.getPriority(),
                 run.getCreatedAt(),
                 run.getStartedAt(),
                 run.getFinishedAt(),
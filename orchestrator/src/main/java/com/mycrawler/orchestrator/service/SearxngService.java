@@ -6,10 +6,12 @@ import com.mycrawler.orchestrator.dto.SearchRequest;
 import com.mycrawler.orchestrator.dto.SearchResponse;
 import com.mycrawler.orchestrator.dto.SearchResult;
 import com.mycrawler.orchestrator.dto.SearxngHealthResponse;
+import com.mycrawler.orchestrator.run.LanguageDetector;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.time.Duration;
@@ -32,6 +34,7 @@ public class SearxngService {
     private final ObjectMapper objectMapper;
     private static final String DEFAULT_ACCEPT_LANGUAGE = "en-US,en;q=0.5";
     private static final String DEFAULT_CLIENT_IP = "127.0.0.1";
+    private static final Pattern SITE_OPERATOR = Pattern.compile("(?i)\\bsite:\\S+");
 
     public SearxngService(
             RestClient.Builder restClientBuilder,
@@ -198,22 +201,13 @@ public class SearxngService {
         return collapsed + " Uusimaa";
     }
 
+    /** fi, sv or en by the query's character n-grams, ignoring {@code site:} operators; fi when unsure. */
     static String detectLang(String query) {
-        String raw = query == null ? "" : query.trim();
-        if (raw.isEmpty()) {
-            return "fi";
-        }
-        String lowered = raw.toLowerCase();
-        if (lowered.matches(".*[äöå].*")) {
+        if (query == null || query.isBlank()) {
             return "fi";
         }
-        if (lowered.matches("(?is).*\\b(kesätyö|kesäduuni|työ|harjoittelu|opiskelija|pääkaupunkiseutu|pk-seutu|uusimaa)\\b.*")) {
-            return "fi";
-        }
-        if (lowered.matches("(?is).*\\b(summer|internship|intern|trainee|student|job)\\b.*")) {
-            return "en";
-        }
-        return "fi";
+        String words = SITE_OPERATOR.matcher(query).replaceAll(" ");
+        return LanguageDetector.defaults().detect(words, "fi");
     }
 
     static boolean containsUusimaaLocation(String query) {
@@ -0,0 +1,123 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stage timers and file counters bound to one run type. Meters are resolved once up front so the
+ * per-file hot path only does a map lookup and a timer update.
+ */
+public final class StageMetrics {
+    public static final String STAGE_TIMER = "crawler.run.stage";
+    public static final String FILES_COUNTER = "crawler.run.files";
+    public static final String FILE_LATENCY_TIMER = "crawler.run.file.latency";
+    public static final StageMetrics NOOP = new StageMetrics(null, null);
+
+    public enum Stage {
+        SCAN,
+        PARSE,
+        META,
+        CACHE,
+        JSON_LD,
+        EXTRACT,
+        RAW_WRITE,
+        DB_SAVE,
+        EXPORT;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @FunctionalInterface
+    public interface StageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface StageTask<E extends Exception> {
+        void run() throws E;
+    }
+
+    private final Map<Stage, Timer> succeeded = new EnumMap<>(Stage.class);
+    private final Map<Stage, Timer> failed = new EnumMap<>(Stage.class);
+    private final Map<ExtractionPipeline.Outcome, Counter> files = new EnumMap<>(ExtractionPipeline.Outcome.class);
+    private final Timer fileLatency;
+
+    StageMetrics(MeterRegistry registry, RunType runType) {
+        if (registry == null) {
+            fileLatency = null;
+            return;
+        }
+        String type = runType.name();
+        fileLatency = Timer.builder(FILE_LATENCY_TIMER)
+                .description("Time from a pipeline worker picking up a file until it is persisted, queueing included")
+                .tag("run_type", type)
+                .register(registry);
+        for (Stage stage : Stage.values()) {
+            succeeded.put(stage, stageTimer(registry, stage, type, "success"));
+            failed.put(stage, stageTimer(registry, stage, type, "failure"));
+        }
+        for (ExtractionPipeline.Outcome outcome : ExtractionPipeline.Outcome.values()) {
+            files.put(outcome, Counter.builder(FILES_COUNTER)
+                    .description("HTML files handled by the extraction pipeline")
+                    .tag("run_type", type)
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, Stage stage, String runType, String outcome) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in one run stage per unit of work")
+                .tag("stage", stage.tag())
+                .tag("run_type", runType)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public <T, E extends Exception> T time(Stage stage, StageCall<T, E> call) throws E {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.call();
+            success = true;
+            return result;
+        } finally {
+            record(stage, System.nanoTime() - start, success);
+        }
+    }
+
+    public <E extends Exception> void run(Stage stage, StageTask<E> task) throws E {
+        time(stage, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public void record(Stage stage, long nanos, boolean success) {
+        Timer timer = (success ? succeeded : failed).get(stage);
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordFileLatency(long nanos) {
+        if (fileLatency != null) {
+            fileLatency.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void countFile(ExtractionPipeline.Outcome outcome) {
+        Counter counter = files.get(outcome);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycrawler.orchestrator.run;
+
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.spi.FileSystemProvider;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchScannerTest {
+
+    @Test
+    void orderedStreamMatchesSortedScan() throws Exception {
+        Path inputDir = createTree();
+        BatchScanner scanner = new BatchScanner(3, 4);
+
+        List<Path> streamed = new ArrayList<>();
+        try (BatchScanner.HtmlFileStream stream = scanner.streamHtmlFiles(inputDir, true)) {
+            stream.forEach(streamed::add);
+        }
+
+        assertEquals(scanner.scanHtmlFiles(inputDir), streamed);
+    }
+
+    @Test
+    void parallelStreamFindsEveryHtmlFile() throws Exception {
+        Path inputDir = createTree();
+        BatchScanner scanner = new BatchScanner(3, 4);
+
+        List<Path> streamed = new ArrayList<>();
+        try (BatchScanner.HtmlFileStream stream = scanner.streamHtmlFiles(inputDir, false)) {
+            stream.forEach(streamed::add);
+        }
+
+        List<Path> expected = scanner.scanHtmlFiles(inputDir);
+        assertEquals(expected.size(), streamed.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(streamed));
+    }
+
+    @Test
+    void parallelStreamEndsWithTheFailureWhenListingThrows() throws Exception {
+        Path inputDir = mock(Path.class);
+        FileSystem fileSystem = mock(FileSystem.class);
+        FileSystemProvider provider = mock(FileSystemProvider.class);
+        BasicFileAttributes directory = mock(BasicFileAttributes.class);
+        when(inputDir.getFileSystem()).thenReturn(fileSystem);
+        when(fileSystem.provider()).thenReturn(provider);
+        when(directory.isDirectory()).thenReturn(true);
+        when(provider.readAttributesIfExists(eq(inputDir), eq(BasicFileAttributes.class), any(LinkOption[].class)))
+                .thenReturn(directory);
+        when(provider.newDirectoryStream(eq(inputDir), any())).thenThrow(new IllegalStateException("provider bug"));
+        BatchScanner scanner = new BatchScanner(2, 4);
+
+        try (BatchScanner.HtmlFileStream stream = scanner.streamHtmlFiles(inputDir, false)) {
+            UncheckedIOException ex = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> assertThrows(UncheckedIOException.class, () -> stream.iterator().hasNext()));
+            assertInstanceOf(IllegalStateException.class, ex.getCause().getCause());
+        }
+    }
+
+    @Test
+    void compressedPagesAreScannedAndMetaFilesAreNot() throws Exception {
+        Path inputDir = Files.createTempDirectory("scan-test");
+        for (String name : List.of("a.html", "b.html.gz", "c.html.zst", "a_meta.json", "b_meta.json.gz", "d.htm", "e.gz")) {
+            Files.writeString(inputDir.resolve(name), "");
+        }
+
+        List<String> names = new BatchScanner().scanHtmlFiles(inputDir).stream()
+                .map(path -> path.getFileName().toString())
+                .toList();
+
+        assertEquals(List.of("a.html", "b.html.gz", "c.html.zst"), names);
+    }
+
+    private Path createTree() throws Exception {
+        Path inputDir = Files.createTempDirectory("scan-test");
+        Files.writeString(inputDir.resolve("a.html"), "<html></html>");
+        Files.writeString(inputDir.resolve("a_meta.json"), "{}");
+        for (String dir : List.of("a", "a-b", "b/c", "b/d")) {
+            Path sub = Files.createDirectories(inputDir.resolve(dir));
+            for (int i = 0; i < 5; i++) {
+                Files.writeString(sub.resolve("page" + i + ".html"), "<html></html>");
+            }
+        }
+        return inputDir;
+    }
+}
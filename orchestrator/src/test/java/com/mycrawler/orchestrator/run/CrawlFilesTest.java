@@ -0,0 +1,81 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+import com.mycrawler.orchestrator.service.ExtractionService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlFilesTest {
+    private static final String HTML = "<html><head><title>Kesätyö</title></head><body><p>Työ Oulussa.</p></body></html>";
+    private static final String META = "{\"url\":\"https://example.com/1\",\"company\":\"Example Oy\"}";
+
+    @Test
+    void namesCompressedArtifacts() {
+        Path dir = Path.of("crawl");
+
+        assertEquals("duunitori_00001", CrawlFiles.stem(dir.resolve("duunitori_00001.html.zst")));
+        assertEquals("duunitori_00001", CrawlFiles.stem(dir.resolve("duunitori_00001.html")));
+        assertEquals(CrawlFiles.Compression.GZIP, CrawlFiles.Compression.of(dir.resolve("a.html.gz")));
+        assertTrue(CrawlFiles.isHtml(dir.resolve("a.html.gz")));
+        assertFalse(CrawlFiles.isHtml(dir.resolve("a_meta.json.gz")));
+    }
+
+    @Test
+    void findsMetaFileInAnyCompression() throws Exception {
+        Path dir = Files.createTempDirectory("crawl-files");
+        Files.write(dir.resolve("a_meta.json.zst"), Zstd.compress(META.getBytes(StandardCharsets.UTF_8)));
+
+        Path metaPath = CrawlFiles.metaPath(dir.resolve("a.html.gz"));
+
+        assertEquals(dir.resolve("a_meta.json.zst"), metaPath);
+        assertEquals(META, new String(CrawlFiles.readAllBytes(metaPath), StandardCharsets.UTF_8));
+        assertEquals(dir.resolve("b_meta.json"), CrawlFiles.metaPath(dir.resolve("b.html")));
+    }
+
+    @Test
+    void inflatesPagesUpToByteLimit() throws Exception {
+        Path dir = Files.createTempDirectory("crawl-files");
+        String html = HTML + "<!--" + "x".repeat(200_000) + "-->";
+        Path gzip = dir.resolve("a.html.gz");
+        Path zstd = dir.resolve("b.html.zst");
+        Files.write(gzip, gzip(html.getBytes(StandardCharsets.UTF_8)));
+        Files.write(zstd, Zstd.compress(html.getBytes(StandardCharsets.UTF_8)));
+
+        for (Path path : new Path[] {gzip, zstd}) {
+            HtmlInput.Page page = HtmlInput.read(path, null, Long.MAX_VALUE);
+            assertEquals(html.getBytes(StandardCharsets.UTF_8).length, page.size());
+            assertEquals(StandardCharsets.UTF_8, page.charset());
+            assertEquals(5000, HtmlInput.read(path, null, 5000).size());
+        }
+    }
+
+    @Test
+    void extractsFromCompressedPageAndMeta() throws Exception {
+        Path dir = Files.createTempDirectory("crawl-files");
+        Path htmlPath = dir.resolve("example_00001.html.zst");
+        Files.write(htmlPath, Zstd.compress(HTML.getBytes(StandardCharsets.UTF_8)));
+        Files.write(dir.resolve("example_00001_meta.json.gz"), gzip(META.getBytes(StandardCharsets.UTF_8)));
+
+        JobPosting posting = new ExtractionService(new ObjectMapper()).extractFromHtml(htmlPath);
+
+        assertEquals("Kesätyö", posting.getJobTitle());
+        assertEquals("Example Oy", posting.getCompanyName());
+        assertEquals("Työ Oulussa.", posting.getJobDescriptionSummary());
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+}
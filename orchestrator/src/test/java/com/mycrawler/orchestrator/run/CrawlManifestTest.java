@@ -0,0 +1,69 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+import com.mycrawler.orchestrator.service.ExtractionService;
+import com.mycrawler.orchestrator.service.StageMetrics;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlManifestTest {
+    private static final MetaParser PARSER = new MetaParser(new ObjectMapper());
+
+    @Test
+    void keysEntriesByStemAndSkipsUnusableLines() throws Exception {
+        Path dir = Files.createTempDirectory("crawl-manifest");
+        String manifest = """
+                {"file":"duunitori_00001.html","url":"https://duunitori.fi/1","company":"Kauppa Oy","tags":["a",{"b":1}]}
+
+                {"file":"oikotie_00002.html.gz","url":"https://oikotie.fi/2","content_type":"text/html; charset=ISO-8859-1"}
+                {"url":"https://nofile.fi/3"}
+                {"file":"broken_00004.html","url":
+                {"file":"duunitori_00001.html","url":"https://duunitori.fi/1b","company":"Kauppa Oy"}
+                """;
+        Files.write(dir.resolve(CrawlManifest.FILE_NAME + ".zst"), Zstd.compress(manifest.getBytes(StandardCharsets.UTF_8)));
+
+        CrawlManifest loaded = CrawlManifest.load(PARSER, dir);
+
+        assertEquals(2, loaded.size());
+        assertEquals(new MetaData("https://duunitori.fi/1b", "Kauppa Oy", null),
+                loaded.get(dir.resolve("duunitori_00001.html.zst")), "the later line wins");
+        assertEquals(new MetaData("https://oikotie.fi/2", null, "ISO-8859-1"), loaded.get(dir.resolve("oikotie_00002.html")));
+        assertNull(loaded.get(dir.resolve("broken_00004.html")));
+        assertSame(CrawlManifest.NONE, CrawlManifest.load(PARSER, Files.createTempDirectory("no-manifest")));
+    }
+
+    @Test
+    void listedPagesNeedNoMetaFile() throws Exception {
+        Path dir = Files.createTempDirectory("crawl-manifest");
+        String html = "<html><head><title>Kesätyö</title></head><body><p>Työ Oulussa.</p></body></html>";
+        Files.writeString(dir.resolve("listed_00001.html"), html);
+        Files.writeString(dir.resolve("unlisted_00002.html"), html);
+        Files.writeString(dir.resolve("unlisted_00002_meta.json"), "{\"company\":\"Meta Oy\"}");
+        Files.writeString(dir.resolve(CrawlManifest.FILE_NAME),
+                "{\"file\":\"listed_00001.html\",\"url\":\"https://example.com/1\",\"company\":\"Manifest Oy\"}\n");
+        ExtractionService service = new ExtractionService(new ObjectMapper());
+        CrawlManifest.Directories manifests = service.crawlManifests();
+
+        assertEquals("Manifest Oy", service.extractFromHtml(dir.resolve("listed_00001.html"), StageMetrics.NOOP,
+                manifests).getCompanyName());
+        assertEquals("Meta Oy", service.extractFromHtml(dir.resolve("unlisted_00002.html"), StageMetrics.NOOP,
+                manifests).getCompanyName());
+        assertNull(service.extractFromHtml(dir.resolve("listed_00001.html")).getCompanyName(),
+                "without the run's manifests only _meta.json is read");
+    }
+
+    @Test
+    void parsesMetaFilesWithoutDecodingOtherFields() throws Exception {
+        MetaData meta = PARSER.parse(("{\"headers\":{\"charset\":\"latin1\"},\"encoding\":\"windows-1252\","
+                + "\"charset\":\"utf-8\",\"url\":\"https://example.com\",\"company\":null}").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(new MetaData("https://example.com", null, "utf-8"), meta, "charset wins over encoding");
+        assertThrows(IOException.class, () -> PARSER.parse("[1]".getBytes(StandardCharsets.UTF_8)));
+    }
+}
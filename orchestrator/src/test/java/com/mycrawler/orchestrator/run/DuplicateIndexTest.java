@@ -0,0 +1,69 @@
+package com.mycrawler.orchestrator.run;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateIndexTest {
+    private static final String SUMMARY = "Haemme kesätyöntekijöitä Espoon myymäläämme ajalle 1.6.–31.8. "
+            + "Työtehtäviin kuuluu asiakaspalvelu, kassatyöskentely ja hyllytys. Edellytämme hyvää "
+            + "asiakaspalveluasennetta ja täysi-ikäisyyttä. Tarjoamme henkilökunta-alennuksen ja perehdytyksen.";
+
+    @Test
+    void linksRepostsToTheFirstPosting() {
+        DuplicateIndex index = new DuplicateIndex(DuplicateIndex.DEFAULT_MIN_SIMILARITY);
+        assertNull(index.add(posting("mol", "Kesätyöntekijä", "Kauppa Oy", SUMMARY)));
+
+        DuplicateIndex.Match repost = index.add(posting("duunitori", "KESÄTYÖNTEKIJÄ", "Kauppa Oy",
+                SUMMARY.replace("Espoon", "Espoon Leppävaaran") + " Hae viimeistään 15.4."));
+        assertNotNull(repost);
+        assertEquals("mol", repost.canonicalJobId());
+        assertEquals("https://mol/1", repost.canonicalSourceUrl());
+        assertTrue(repost.similarity() >= DuplicateIndex.DEFAULT_MIN_SIMILARITY);
+        assertEquals("mol", index.add(posting("oikotie", "Kesätyöntekijä", "Kauppa Oy", SUMMARY)).canonicalJobId());
+        assertEquals(1, index.size(), "duplicates are not indexed themselves");
+    }
+
+    @Test
+    void keepsDifferentJobsApart() {
+        DuplicateIndex index = new DuplicateIndex(DuplicateIndex.DEFAULT_MIN_SIMILARITY);
+        assertNull(index.add(posting("a", "Kesätyöntekijä", "Kauppa Oy", SUMMARY)));
+        assertNull(index.add(posting("b", "Ohjelmistokehittäjä harjoittelija", "Koodi Oy",
+                "Etsimme ohjelmistokehittäjää harjoitteluun Helsingin toimistollemme. Työssä pääset rakentamaan "
+                        + "verkkopalveluita Javalla ja TypeScriptillä osana kokenutta tiimiä.")));
+        assertNull(index.add(posting("c", "Varastotyöntekijä", "Logistiikka Oy",
+                "Haemme varastotyöntekijöitä Vantaan keskusvarastolle kesäksi. Työ on keräilyä ja pakkaamista "
+                        + "kolmessa vuorossa, trukkikortti katsotaan eduksi.")));
+        assertNull(index.add(posting("d", "Kassatyöntekijä", "Kauppa Oy",
+                SUMMARY.replace("kesätyöntekijöitä", "kassatyöntekijöitä"))), "same template, different role");
+        JobPosting otherStore = posting("e", "Kesätyöntekijä", "Kauppa Oy", SUMMARY.replace("Espoon", "Vantaan"));
+        otherStore.setLocationMunicipality("Vantaa");
+        assertNotNull(index.add(otherStore), "no municipality on the canonical posting, so it may match");
+        JobPosting espoo = posting("f", "Kesätyöntekijä", "Kauppa Oy", SUMMARY);
+        espoo.setLocationMunicipality("Espoo");
+        DuplicateIndex byMunicipality = new DuplicateIndex(DuplicateIndex.DEFAULT_MIN_SIMILARITY);
+        assertNull(byMunicipality.add(espoo));
+        assertNull(byMunicipality.add(otherStore), "same template, different store");
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void neverLinksPostingsTooShortToCompare() {
+        DuplicateIndex index = new DuplicateIndex(DuplicateIndex.DEFAULT_MIN_SIMILARITY);
+        assertNull(index.add(posting("a", "Myyjä", null, null)));
+        assertNull(index.add(posting("b", "Myyjä", null, null)));
+        assertEquals(0, index.size());
+        assertThrows(IllegalArgumentException.class, () -> new DuplicateIndex(0));
+        assertThrows(IllegalArgumentException.class, () -> new DuplicateIndex(1.5));
+    }
+
+    private static JobPosting posting(String jobId, String title, String company, String summary) {
+        JobPosting posting = new JobPosting();
+        posting.setJobId(jobId);
+        posting.setJobTitle(title);
+        posting.setCompanyName(company);
+        posting.setJobDescriptionSummary(summary);
+        posting.setSourceUrl("https://" + jobId + "/1");
+        return posting;
+    }
+}
@@ -0,0 +1,117 @@
+package com.mycrawler.orchestrator.run;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlInputTest {
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+    private static final String TEXT = "Kesätyö: myyjä – Jyväskylä";
+
+    @Test
+    void decodesLatinPageDeclaredInMetaTag() throws Exception {
+        Path htmlPath = write(page("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=ISO-8859-1\">"),
+                WINDOWS_1252);
+
+        HtmlInput.Page page = HtmlInput.read(htmlPath, null, Long.MAX_VALUE);
+
+        assertEquals(WINDOWS_1252, page.charset());
+        assertTrue(decode(page).contains(TEXT));
+    }
+
+    @Test
+    void utf8BytesWinOverStaleMetaTag() throws Exception {
+        Path htmlPath = write(page("<meta charset=\"iso-8859-1\">"), StandardCharsets.UTF_8);
+
+        HtmlInput.Page page = HtmlInput.read(htmlPath, null, Long.MAX_VALUE);
+
+        assertEquals(StandardCharsets.UTF_8, page.charset());
+        assertTrue(decode(page).contains(TEXT));
+    }
+
+    @Test
+    void utf8BytesWinOverCharsetFromMetaJson() throws Exception {
+        Path htmlPath = write(page(""), StandardCharsets.UTF_8);
+
+        HtmlInput.Page page = HtmlInput.read(htmlPath, HtmlInput.charsetFromContentType("text/html; charset=iso-8859-1"),
+                Long.MAX_VALUE);
+
+        assertEquals(StandardCharsets.UTF_8, page.charset());
+        assertTrue(decode(page).contains(TEXT));
+    }
+
+    @Test
+    void charsetFromMetaJsonDecodesPagesThatAreNotUtf8() throws Exception {
+        Path htmlPath = write(page(""), WINDOWS_1252);
+
+        HtmlInput.Page page = HtmlInput.read(htmlPath, HtmlInput.charsetFromContentType("text/html; charset=windows-1252"),
+                Long.MAX_VALUE);
+
+        assertEquals(WINDOWS_1252, page.charset());
+        assertTrue(decode(page).contains(TEXT));
+    }
+
+    @Test
+    void undeclaredInvalidUtf8FallsBackToWindows1252() throws Exception {
+        Path htmlPath = write(page(""), WINDOWS_1252);
+
+        assertTrue(decode(HtmlInput.read(htmlPath, null, Long.MAX_VALUE)).contains(TEXT));
+    }
+
+    @Test
+    void byteOrderMarkSelectsCharsetAndIsSkipped() throws Exception {
+        Path htmlPath = Files.createTempDirectory("html-input").resolve("page.html");
+        byte[] body = page("<meta charset=\"utf-8\">").getBytes(StandardCharsets.UTF_16LE);
+        byte[] bytes = new byte[body.length + 2];
+        bytes[0] = (byte) 0xff;
+        bytes[1] = (byte) 0xfe;
+        System.arraycopy(body, 0, bytes, 2, body.length);
+        Files.write(htmlPath, bytes);
+
+        HtmlInput.Page page = HtmlInput.read(htmlPath, null, Long.MAX_VALUE);
+
+        assertEquals(StandardCharsets.UTF_16LE, page.charset());
+        assertTrue(decode(page).startsWith("<html>"));
+    }
+
+    @Test
+    void mapsLargeFilesAndHonoursByteLimit() throws Exception {
+        String html = page("<meta charset=\"utf-8\">") + "<!--" + "x".repeat(HtmlInput.MAP_THRESHOLD_BYTES) + "-->";
+        Path htmlPath = write(html, StandardCharsets.UTF_8);
+
+        assertEquals(html, decode(HtmlInput.read(htmlPath, null, Long.MAX_VALUE)));
+        assertEquals(100, decode(HtmlInput.read(htmlPath, null, 100)).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void preprocessorUsesSniffedCharset() throws Exception {
+        Path htmlPath = write(page("<meta charset=\"windows-1252\">"), WINDOWS_1252);
+
+        assertEquals(TEXT, new HtmlPreprocessor().preprocess(htmlPath).text());
+    }
+
+    private static String page(String head) {
+        return "<html><head>" + head + "<title>Työpaikka</title></head><body><p>" + TEXT + "</p></body></html>";
+    }
+
+    private static Path write(String html, Charset charset) throws IOException {
+        Path htmlPath = Files.createTempDirectory("html-input").resolve("page.html");
+        Files.writeString(htmlPath, html, charset);
+        return htmlPath;
+    }
+
+    private static String decode(HtmlInput.Page page) throws IOException {
+        StringWriter out = new StringWriter();
+        try (Reader reader = page.reader()) {
+            reader.transferTo(out);
+        }
+        return out.toString();
+    }
+}
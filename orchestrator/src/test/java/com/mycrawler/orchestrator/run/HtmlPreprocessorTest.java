@@ -0,0 +1,67 @@
+package com.mycrawler.orchestrator.run;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlPreprocessorTest {
+    private static final String PAGE = "<html><head><title>Kesätyöntekijä</title><style>p { color: red; }</style></head>"
+            + "<body><nav>Etusivu Työpaikat</nav><script>var tracking = 1;</script>"
+            + "<h1>Kesätyöntekijä</h1><p>Työ   alkaa\nkesäkuussa.</p><noscript>Enable JavaScript</noscript>"
+            + "<svg><text>logo</text></svg><div>Hae<br>nyt</div><footer>© Example Oy</footer></body></html>";
+
+    @Test
+    void leanModeSkipsNoiseSubtreesAndNormalisesWhitespace() throws Exception {
+        Path htmlPath = write(PAGE);
+
+        PreprocessedDocument document = new HtmlPreprocessor().preprocess(htmlPath);
+
+        assertEquals("Kesätyöntekijä", document.title());
+        assertEquals("Kesätyöntekijä Työ alkaa kesäkuussa. Hae nyt", document.text());
+        assertEquals(document.text(), document.snippets().get("preview"));
+
+        // Pages above the streaming threshold go through the stream parser and must read the same.
+        Path largePath = write(PAGE.replace("<body>", "<body><!--" + "x".repeat(64 * 1024) + "-->"));
+        assertEquals(document.text(), new HtmlPreprocessor().preprocess(largePath).text());
+    }
+
+    @Test
+    void fullModeKeepsAllBodyText() throws Exception {
+        Path htmlPath = write(PAGE);
+
+        PreprocessedDocument document = new HtmlPreprocessor(HtmlPreprocessor.Mode.FULL, 0, 0).preprocess(htmlPath);
+
+        assertTrue(document.text().contains("Etusivu"));
+        assertTrue(document.text().contains("Enable JavaScript"));
+    }
+
+    @Test
+    void leanModeCapsBytesAndCharacters() throws Exception {
+        StringBuilder html = new StringBuilder("<html><head><title>Iso sivu</title></head><body>");
+        for (int i = 0; i < 20_000; i++) {
+            html.append("<p>kappale ").append(i).append("</p>");
+        }
+        html.append("<p>LOPPU</p></body></html>");
+        Path htmlPath = write(html.toString());
+
+        PreprocessedDocument document = new HtmlPreprocessor(HtmlPreprocessor.Mode.LEAN, 64 * 1024, 1000)
+                .preprocess(htmlPath);
+
+        assertEquals("Iso sivu", document.title());
+        assertEquals(1000, document.text().length());
+        assertTrue(document.text().startsWith("kappale 0 kappale 1 "));
+        assertEquals(HtmlPreprocessor.PREVIEW_CHARS, document.snippets().get("preview").length());
+
+        PreprocessedDocument truncated = new HtmlPreprocessor(HtmlPreprocessor.Mode.LEAN, 64 * 1024, 1_000_000)
+                .preprocess(htmlPath);
+        assertFalse(truncated.text().contains("LOPPU"));
+    }
+
+    private static Path write(String html) throws Exception {
+        Path htmlPath = Files.createTempDirectory("preprocess-test").resolve("page.html");
+        Files.writeString(htmlPath, html);
+        return htmlPath;
+    }
+}
@@ -0,0 +1,116 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.service.ExtractionService;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLdExtractorTest {
+    private static final MetaData META = new MetaData("https://duunitori.fi/tyopaikat/tyo/1", null);
+    private static final String POSTING = "{\"@context\":\"https://schema.org\",\"@type\":\"JobPosting\","
+            + "\"title\":\"Kesätyöntekijä &amp; harjoittelija\","
+            + "\"description\":\"<p>Haemme <b>kesätyöntekijää</b> asiakaspalveluun.</p>\","
+            + "\"hiringOrganization\":{\"@type\":\"Organization\",\"name\":\"Kauppa Ab\",\"sameAs\":[\"x\"]},"
+            + "\"jobLocation\":[{\"@type\":\"Place\",\"address\":{\"@type\":\"PostalAddress\","
+            + "\"streetAddress\":\"Tapiontori 1\",\"postalCode\":\"02100\",\"addressLocality\":\"Espoo\"}}],"
+            + "\"validThrough\":\"2026-03-31T23:59\",\"employmentType\":[\"PART_TIME\",\"TEMPORARY\"],"
+            + "\"baseSalary\":{\"@type\":\"MonetaryAmount\",\"currency\":\"EUR\",\"value\":"
+            + "{\"@type\":\"QuantitativeValue\",\"minValue\":12,\"maxValue\":14.5,\"unitText\":\"HOUR\"}},"
+            + "\"skills\":\"asiakaspalvelu, kassatyö\",\"jobBenefits\":[\"Henkilökuntaetu\"],"
+            + "\"applicationContact\":{\"email\":\"mailto:rekry@kauppa.fi\",\"telephone\":\"040 123 4567\"},}";
+
+    @Test
+    void mapsJobPostingFieldsStraightFromTheScript() {
+        JobPosting posting = extract("<html><head><script type=\"application/ld+json\">" + POSTING
+                + "</script></head><body><h1>Ignored</h1></body></html>", StandardCharsets.UTF_8);
+
+        assertNotNull(posting);
+        assertEquals("Kesätyöntekijä & harjoittelija", posting.getJobTitle());
+        assertEquals("Kauppa Ab", posting.getCompanyName());
+        assertEquals("Haemme kesätyöntekijää asiakaspalveluun.", posting.getJobDescriptionSummary());
+        assertEquals("Espoo", posting.getLocationMunicipality());
+        assertEquals("Tapiontori 1, 02100", posting.getLocationSpecific());
+        assertEquals("2026-03-31T23:59", posting.getApplicationDeadline());
+        assertEquals("PART_TIME", posting.getWorkingHours());
+        assertEquals("TEMPORARY", posting.getEmploymentDuration());
+        assertEquals("12–14.5 EUR/HOUR", posting.getSalaryInfo());
+        assertEquals(List.of("asiakaspalvelu", "kassatyö"), posting.getRequiredSkills());
+        assertEquals(List.of("Henkilökuntaetu"), posting.getBenefits());
+        assertEquals("rekry@kauppa.fi", posting.getContactEmail());
+        assertEquals("040 123 4567", posting.getContactPhone());
+        assertEquals(JsonLdExtractor.NOTES, posting.getExtractionNotes());
+        assertEquals("high", posting.getExtractionConfidence());
+    }
+
+    @Test
+    void findsThePostingInGraphsListsAndLaterScripts() {
+        String graph = "{\"@context\":\"https://schema.org\",\"@graph\":[{\"@type\":\"WebPage\",\"title\":\"x\"},"
+                + POSTING + "]}";
+        assertEquals("Kauppa Ab", extract("<script type='application/ld+json'>" + graph + "</script>",
+                StandardCharsets.UTF_8).getCompanyName());
+
+        String list = "[{\"@type\":\"BreadcrumbList\"}," + POSTING.replace("\"JobPosting\"", "[\"JobPosting\"]") + "]";
+        assertNotNull(extract("<SCRIPT TYPE=\"Application/LD+JSON\">" + list + "</SCRIPT>", StandardCharsets.UTF_8));
+
+        // A malformed block and a link that merely mentions the type are passed over.
+        String page = "<link rel=\"alternate\" type=\"application/ld+json\" href=\"/x.json\">"
+                + "<script type=\"application/ld+json\">{\"@type\":\"JobPosting\",\"title\":</script>"
+                + "<script type=\"application/ld+json\">" + POSTING + "</script>";
+        assertNotNull(extract(page, StandardCharsets.UTF_8));
+        assertNotNull(extract(page, Charset.forName("windows-1252")));
+    }
+
+    @Test
+    void keepsOnlyTheKnownPrimarySubtagOfInLanguage() {
+        assertEquals("fi", language("fi-FI"));
+        assertEquals("sv", language(" SV_fi "));
+        assertEquals("en", language("en"));
+        // Languages the detector does not know, and names instead of tags, fall back to detecting Finnish.
+        assertEquals("fi", language("de-DE"));
+        assertEquals("fi", language("Finnish"));
+    }
+
+    private static String language(String inLanguage) {
+        String posting = POSTING.replace("\"skills\"", "\"inLanguage\":\"" + inLanguage + "\",\"skills\"");
+        return extract("<script type=\"application/ld+json\">" + posting + "</script>", StandardCharsets.UTF_8)
+                .getSourceLanguage();
+    }
+
+    @Test
+    void returnsNullWithoutATitledJobPosting() {
+        assertNull(extract("<html><body><h1>Myyjä</h1></body></html>", StandardCharsets.UTF_8));
+        assertNull(extract("<script type=\"application/ld+json\">{\"@type\":\"Organization\",\"name\":\"A\"}"
+                + "</script>", StandardCharsets.UTF_8));
+        assertNull(extract("<script type=\"application/ld+json\">{\"@type\":\"JobPosting\",\"title\":\" \"}"
+                + "</script>", StandardCharsets.UTF_8));
+        assertNull(extract("<script type=\"application/ld+json\">" + POSTING, StandardCharsets.UTF_8));
+        assertNull(extract("<script type=\"application/ld+json\">" + POSTING + "</script>", StandardCharsets.UTF_16));
+    }
+
+    @Test
+    void serviceFallsBackToTheHeuristicsWithoutStructuredData() throws Exception {
+        Path tempDir = Files.createTempDirectory("json-ld-test");
+        Path structured = tempDir.resolve("duunitori.fi_1.html");
+        Files.writeString(structured, "<html><head><title>Myyjä</title><script type=\"application/ld+json\">"
+                + POSTING + "</script></head><body><h1>Myyjä</h1></body></html>");
+        Path plain = tempDir.resolve("duunitori.fi_2.html");
+        Files.writeString(plain, "<html><head><title>Myyjä</title><script type=\"application/ld+json\">"
+                + "{\"@type\":\"JobPosting\",</script></head><body><h1>Myyjä</h1></body></html>");
+        ExtractionService service = new ExtractionService(new ObjectMapper());
+
+        assertEquals(JsonLdExtractor.NOTES, service.extractFromHtml(structured).getExtractionNotes());
+        assertEquals("heuristic-baseline; site-rules=*", service.extractFromHtml(plain).getExtractionNotes());
+    }
+
+    private static JobPosting extract(String html, Charset charset) {
+        ByteBuffer bytes = ByteBuffer.wrap(html.getBytes(charset));
+        return new JsonLdExtractor().extract(new HtmlInput.Page(bytes, charset, bytes.remaining()), META);
+    }
+}
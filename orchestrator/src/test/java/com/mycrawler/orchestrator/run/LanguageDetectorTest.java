@@ -0,0 +1,50 @@
+package com.mycrawler.orchestrator.run;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguageDetectorTest {
+    private static final LanguageDetector DETECTOR = LanguageDetector.defaults();
+
+    @Test
+    void detectsJobAdLanguages() {
+        assertEquals("fi", DETECTOR.detect("Etsimme iloista myyjää kauppaamme Tampereelle. Työ alkaa toukokuussa ja "
+                + "edellyttää hyviä vuorovaikutustaitoja."));
+        assertEquals("sv", DETECTOR.detect("Vi söker en glad försäljare till vår butik i Vasa. Arbetet börjar i maj "
+                + "och kräver goda sociala färdigheter."));
+        assertEquals("en", DETECTOR.detect("We are hiring a cheerful sales assistant for our shop in Tampere. The job "
+                + "starts in May and requires good people skills."));
+    }
+
+    @Test
+    void detectsShortQueries() {
+        assertEquals("fi", DETECTOR.detect("kesätyö opiskelija Uusimaa"));
+        assertEquals("fi", DETECTOR.detect("kesäduuni Espoo"));
+        assertEquals("fi", DETECTOR.detect("harjoittelija markkinointi"));
+        assertEquals("en", DETECTOR.detect("summer job student Helsinki"));
+        assertEquals("en", DETECTOR.detect("software developer internship"));
+        assertEquals("sv", DETECTOR.detect("sommarjobb för studerande"));
+    }
+
+    @Test
+    void fallsBackWhenItCannotTell() {
+        assertEquals(LanguageDetector.UNKNOWN, DETECTOR.detect(null));
+        assertEquals(LanguageDetector.UNKNOWN, DETECTOR.detect("  12 / 34 "));
+        assertEquals("fi", DETECTOR.detect("ab", "fi"));
+    }
+
+    @Test
+    void onlyScoresABoundedPrefix() {
+        String finnish = "Haemme kesätyöntekijää asiakaspalveluun. ".repeat(LanguageDetector.MAX_CHARS / 20);
+        assertEquals("fi", DETECTOR.detect(finnish + "We are looking for a summer employee. ".repeat(1000)));
+    }
+
+    @Test
+    void trainsOnThreeSamples() {
+        LanguageDetector detector = LanguageDetector.train(Map.of("a", "aaa aa a", "b", "bbb bb b", "c", "ccc cc"));
+        assertEquals("b", detector.detect("bbbb"));
+        assertThrows(IllegalArgumentException.class, () -> LanguageDetector.train(Map.of("a", "aaa")));
+    }
+}
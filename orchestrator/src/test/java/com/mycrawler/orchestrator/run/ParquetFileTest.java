@@ -0,0 +1,130 @@
+package com.mycrawler.orchestrator.run;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParquetFileTest {
+
+    private record Row(String id, String city, List<String> tags) {
+    }
+
+    private static final List<ParquetFile.Column<Row>> COLUMNS = List.of(
+            ParquetFile.Column.string("id", Row::id),
+            ParquetFile.Column.string("city", Row::city),
+            ParquetFile.Column.list("tags", Row::tags));
+
+    @Test
+    void roundTripsNullsAndLists() throws Exception {
+        Path path = Files.createTempFile("parquet-test", ".parquet");
+        List<Row> rows = List.of(
+                new Row("a", "Helsinki", List.of("java", "sql")),
+                new Row("b", null, null),
+                new Row("c", "Espoo", List.of()),
+                new Row(null, "Vantaa", Arrays.asList("go", null)));
+
+        try (ParquetFile.Writer<Row> writer = new ParquetFile.Writer<>(path, "row", COLUMNS, 1 << 20, 3)) {
+            for (Row row : rows) {
+                writer.write(row);
+            }
+            assertEquals(4, writer.rows());
+        }
+
+        try (ParquetFileReader reader = open(path)) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            assertEquals(ParquetFile.schema("row", COLUMNS), schema);
+            assertEquals(LogicalTypeAnnotation.stringType(), schema.getType("id").getLogicalTypeAnnotation());
+            assertEquals(LogicalTypeAnnotation.listType(), schema.getType("tags").getLogicalTypeAnnotation());
+        }
+        assertEquals(rows, read(path));
+    }
+
+    @Test
+    void cutsZstdCompressedDictionaryEncodedRowGroups() throws Exception {
+        Path path = Files.createTempFile("parquet-groups", ".parquet");
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new Row("job-" + i, i % 2 == 0 ? "Helsinki" : "Tampere", List.of("skill-" + i % 7)));
+        }
+
+        try (ParquetFile.Writer<Row> writer = new ParquetFile.Writer<>(path, "row", COLUMNS, 8 * 1024, 3)) {
+            for (Row row : rows) {
+                writer.write(row);
+            }
+        }
+
+        try (ParquetFileReader reader = open(path)) {
+            List<BlockMetaData> rowGroups = reader.getFooter().getBlocks();
+            assertTrue(rowGroups.size() > 1, "row groups: " + rowGroups.size());
+            assertEquals(rows.size(), reader.getRecordCount());
+            for (ColumnChunkMetaData chunk : rowGroups.get(0).getColumns()) {
+                assertEquals(CompressionCodecName.ZSTD, chunk.getCodec());
+            }
+            ColumnChunkMetaData city = rowGroups.get(0).getColumns().get(1);
+            assertTrue(city.getEncodings().stream().anyMatch(Encoding::usesDictionary), "encodings: " + city.getEncodings());
+        }
+        assertEquals(rows, read(path));
+    }
+
+    private static ParquetFileReader open(Path path) throws IOException {
+        ParquetReadOptions options = ParquetReadOptions.builder(new PlainParquetConfiguration())
+                .withCodecFactory(ParquetFile.zstdCodecs(0))
+                .build();
+        return ParquetFileReader.open(new LocalInputFile(path), options);
+    }
+
+    private static List<Row> read(Path path) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (ParquetFileReader reader = open(path)) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(schema);
+            PageReadStore rowGroup;
+            while ((rowGroup = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> records = columnIO.getRecordReader(rowGroup, new GroupRecordConverter(schema));
+                for (long i = 0; i < rowGroup.getRowCount(); i++) {
+                    Group record = records.read();
+                    rows.add(new Row(string(record, "id"), string(record, "city"), list(record)));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static String string(Group record, String field) {
+        return record.getFieldRepetitionCount(field) == 0 ? null : record.getString(field, 0);
+    }
+
+    private static List<String> list(Group record) {
+        if (record.getFieldRepetitionCount("tags") == 0) {
+            return null;
+        }
+        Group tags = record.getGroup("tags", 0);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < tags.getFieldRepetitionCount("list"); i++) {
+            values.add(string(tags.getGroup("list", i), "element"));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RawExtractionStoreTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void rollsSegmentsAndReadsTheLatestRecordOfEachPage() throws Exception {
+        Path dir = Files.createTempDirectory("raw-store");
+        try (RawExtractionStore.Appender appender = RawExtractionStore.appender(OBJECT_MAPPER, dir, 1024)) {
+            for (int i = 0; i < 20; i++) {
+                appender.append(Path.of("in", "page-" + i + ".html.gz"), posting("Job " + i));
+            }
+            assertEquals(20, appender.appended());
+        }
+        // A later run rewrites two pages.
+        try (RawExtractionStore.Appender appender = RawExtractionStore.appender(OBJECT_MAPPER, dir, 1024)) {
+            appender.append(Path.of("in", "page-3.html"), posting("Job 3 edited"));
+            appender.append(Path.of("in", "page-7.html"), posting("Job 7 edited"));
+        }
+
+        assertTrue(files(dir, RawExtractionStore.SEGMENT_SUFFIX) > 2, "segments roll at the size limit");
+        assertEquals(files(dir, RawExtractionStore.SEGMENT_SUFFIX), files(dir, RawExtractionStore.INDEX_SUFFIX));
+        try (RawExtractionStore store = RawExtractionStore.open(OBJECT_MAPPER, dir)) {
+            assertEquals(20, store.size());
+            assertEquals("Job 12", store.read(Path.of("elsewhere", "page-12.html")).getJobTitle());
+            assertEquals("Job 3 edited", store.read(Path.of("in", "page-3.html")).getJobTitle());
+            assertNull(store.read(Path.of("in", "page-99.html")));
+            List<String> titles = new ArrayList<>();
+            store.forEach(posting -> titles.add(posting.getJobTitle()));
+            assertEquals(20, titles.size());
+            assertTrue(titles.containsAll(List.of("Job 0", "Job 3 edited", "Job 7 edited", "Job 19")));
+            assertFalse(titles.contains("Job 3"));
+        }
+    }
+
+    @Test
+    void scansSegmentWithoutIndexUpToItsTornTail() throws Exception {
+        Path dir = Files.createTempDirectory("raw-store-torn");
+        try (RawExtractionStore.Appender appender = RawExtractionStore.appender(OBJECT_MAPPER, dir, 1 << 20)) {
+            for (int i = 0; i < 3; i++) {
+                appender.append(Path.of("page-" + i + ".html"), posting("Job " + i));
+            }
+        }
+        // As if the writer died part-way through its last record, before writing the index.
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : files.toList()) {
+                if (path.toString().endsWith(RawExtractionStore.INDEX_SUFFIX)) {
+                    Files.delete(path);
+                } else {
+                    try (RandomAccessFile segment = new RandomAccessFile(path.toFile(), "rw")) {
+                        segment.setLength(segment.length() - 5);
+                    }
+                }
+            }
+        }
+
+        try (RawExtractionStore store = RawExtractionStore.open(OBJECT_MAPPER, dir)) {
+            assertEquals(2, store.size());
+            assertEquals("Job 1", store.read(Path.of("page-1.html")).getJobTitle());
+            assertFalse(store.contains(Path.of("page-2.html")));
+        }
+    }
+
+    @Test
+    void readsLooseFilesOfPagesWithoutRecords() throws Exception {
+        Path dir = Files.createTempDirectory("raw-store-loose");
+        OBJECT_MAPPER.writeValue(dir.resolve("old-1.json").toFile(), posting("Loose 1"));
+        OBJECT_MAPPER.writeValue(dir.resolve("old-2.json").toFile(), posting("Loose 2"));
+        try (RawExtractionStore.Appender appender = RawExtractionStore.appender(OBJECT_MAPPER, dir, 1 << 20)) {
+            appender.append(Path.of("old-2.html"), posting("Appended 2"));
+        }
+
+        try (RawExtractionStore store = RawExtractionStore.open(OBJECT_MAPPER, dir)) {
+            assertEquals(2, store.size());
+            assertEquals("Loose 1", store.read(Path.of("old-1.html")).getJobTitle());
+            assertEquals("Appended 2", store.read(Path.of("old-2.html")).getJobTitle());
+            List<String> titles = new ArrayList<>();
+            store.forEach(posting -> titles.add(posting.getJobTitle()));
+            assertEquals(List.of("Appended 2", "Loose 1"), titles);
+        }
+        try (RawExtractionStore store = RawExtractionStore.open(OBJECT_MAPPER, dir.resolve("missing"))) {
+            assertEquals(0, store.size());
+        }
+    }
+
+    private static JobPosting posting(String title) {
+        JobPosting posting = new JobPosting();
+        posting.setJobTitle(title);
+        return posting;
+    }
+
+    private static long files(Path dir, String suffix) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(suffix)).count();
+        }
+    }
+}
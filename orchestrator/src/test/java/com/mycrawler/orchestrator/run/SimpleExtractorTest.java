@@ -24,7 +24,37 @@ class SimpleExtractorTest {
         assertEquals("Example Oy", posting.getCompanyName());
         assertEquals("https://example.com/job", posting.getSourceUrl());
         assertNotNull(posting.getJobDescriptionSummary());
-        assertEquals("Uusimaa", posting.getLocationMunicipality());
+        assertEquals("Helsinki", posting.getLocationMunicipality());
         assertNotNull(posting.getExtractionConfidence());
     }
+
+    @Test
+    void leavesMunicipalityEmptyWhenNoneIsMentioned() throws Exception {
+        Path tempDir = Files.createTempDirectory("extract-test");
+        Path htmlPath = tempDir.resolve("remote.html");
+        Files.writeString(htmlPath, "<html><head><title>Remote Developer</title></head><body><p>Work from home.</p></body></html>");
+
+        JobPosting posting = new ExtractionService(new ObjectMapper()).extractFromHtml(htmlPath);
+
+        assertNull(posting.getLocationMunicipality());
+    }
+
+    @Test
+    void siteRulesFillFieldsTheBaselineLeavesEmpty() throws Exception {
+        Path tempDir = Files.createTempDirectory("extract-test");
+        Path htmlPath = tempDir.resolve("oikotie.fi_1.html");
+        Files.writeString(htmlPath, "<html><head><title>Varastotyöntekijä | Oikotie</title></head><body>"
+                + "<h1 class=\"job-ad-title\">Varastotyöntekijä</h1><div class=\"job-ad-company\">Logistiikka Oy</div>"
+                + "<div class=\"job-ad-location\">Vantaa</div><p>Soita <a href=\"tel:040 123 4567\">040 123 4567</a>.</p></body></html>");
+        Files.writeString(tempDir.resolve("oikotie.fi_1_meta.json"), "{\"url\":\"https://tyopaikat.oikotie.fi/1\"}");
+
+        JobPosting posting = new ExtractionService(new ObjectMapper()).extractFromHtml(htmlPath);
+
+        assertEquals("Varastotyöntekijä", posting.getJobTitle());
+        assertEquals("Logistiikka Oy", posting.getCompanyName());
+        assertEquals("Vantaa", posting.getLocationMunicipality());
+        assertEquals("040 123 4567", posting.getContactPhone());
+        assertEquals("heuristic-baseline; site-rules=oikotie.fi", posting.getExtractionNotes());
+        assertEquals("high", posting.getExtractionConfidence());
+    }
 }
@@ -0,0 +1,119 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SiteRulesTest {
+    private static final String PAGE = "<html><head><title>Myyjä | Duunitori</title></head><body>"
+            + "<nav><a class=\"company\">Valikko Oy</a></nav>"
+            + "<h1 class=\"header__title\">Myyjä</h1><div class=\"company\">Kauppa Ab</div>"
+            + "<div class=\"location\">Espoo, Tapiola</div>"
+            + "<meta itemprop=\"validThrough\" content=\"2026-04-30\">"
+            + "<p class=\"deadline\">Haku päättyy 31.3.2026 klo 16</p>"
+            + "<ul class=\"description-box__benefits\"><li>Lounasetu</li><li>Liikuntaetu</li></ul>"
+            + "<p>Lisätiedot: <a href=\"mailto:rekry@kauppa.fi?subject=Myyja\">Rekry</a></p></body></html>";
+
+    @Test
+    void evaluatesSiteAndFallbackRulesInOnePass() throws Exception {
+        SiteRules rules = SiteRules.defaults(new ObjectMapper());
+        SiteRules.Site site = rules.forUrl("https://www.duunitori.fi/tyopaikat/tyo/myyja-123");
+        assertEquals("duunitori.fi", site.name());
+
+        Map<PostingField, List<String>> fields = preprocess(PAGE, site).fields();
+
+        assertEquals(List.of("Myyjä"), fields.get(PostingField.JOB_TITLE));
+        assertEquals(List.of("Kauppa Ab"), fields.get(PostingField.COMPANY_NAME), "nav is never matched");
+        assertEquals(List.of("Espoo"), fields.get(PostingField.LOCATION_MUNICIPALITY));
+        assertEquals(List.of("Lounasetu", "Liikuntaetu"), fields.get(PostingField.BENEFITS));
+        // From the "*" site, which duunitori.fi does not override.
+        assertEquals(List.of("rekry@kauppa.fi"), fields.get(PostingField.CONTACT_EMAIL));
+        // The site's own deadline rule outranks the earlier microdata match of the "*" rule.
+        assertEquals(List.of("31.3.2026"), fields.get(PostingField.APPLICATION_DEADLINE));
+
+        // The stream-parsed path of large pages matches the same fields.
+        String large = PAGE.replace("<body>", "<body><!--" + "x".repeat(64 * 1024) + "-->");
+        assertEquals(fields, preprocess(large, site).fields());
+    }
+
+    @Test
+    void fullModeCollectsAllTextAndTheSameFieldsInOneTraversal() throws Exception {
+        SiteRules.Site site = SiteRules.defaults(new ObjectMapper()).forUrl("https://duunitori.fi/tyopaikat/tyo/1");
+        HtmlPreprocessor full = new HtmlPreprocessor(HtmlPreprocessor.Mode.FULL, 0, 0);
+
+        PreprocessedDocument document = preprocess(PAGE, site, full);
+
+        assertEquals(preprocess(PAGE, site).fields(), document.fields());
+        assertTrue(document.text().startsWith("Valikko Oy Myyjä Kauppa Ab"), document.text());
+
+        // Structural rules start over on every document.
+        String other = PAGE.replace("<li>Lounasetu</li><li>Liikuntaetu</li>", "<li>Etätyö</li>");
+        assertEquals(List.of("Etätyö"), preprocess(other, site, full).fields().get(PostingField.BENEFITS));
+    }
+
+    @Test
+    void unknownHostsGetOnlyTheFallbackRules() throws Exception {
+        SiteRules rules = SiteRules.defaults(new ObjectMapper());
+        SiteRules.Site site = rules.forUrl("https://example.com/job");
+        assertEquals("*", site.name());
+
+        Map<PostingField, List<String>> fields = preprocess(PAGE, site).fields();
+
+        assertNull(fields.get(PostingField.COMPANY_NAME));
+        assertEquals(List.of("rekry@kauppa.fi"), fields.get(PostingField.CONTACT_EMAIL));
+        assertEquals(List.of("2026-04-30"), fields.get(PostingField.APPLICATION_DEADLINE));
+        assertNull(SiteRules.NONE.forUrl("https://duunitori.fi/x"));
+    }
+
+    @Test
+    void rejectsInvalidRulesAtLoadTime() {
+        assertThrows(IllegalArgumentException.class, () -> load("{\"sites\":[{\"name\":\"a.fi\",\"fields\":"
+                + "{\"jobTitel\":{\"selector\":\"h1\"}}}]}"));
+        IllegalArgumentException badSelector = assertThrows(IllegalArgumentException.class, () -> load(
+                "{\"sites\":[{\"name\":\"a.fi\",\"fields\":{\"jobTitle\":{\"selector\":\"h1[\"}}}]}"));
+        assertTrue(badSelector.getMessage().contains("a.fi/jobTitle"));
+        assertThrows(IllegalArgumentException.class, () -> load(
+                "{\"sites\":[{\"name\":\"a.fi\",\"fields\":{\"jobTitle\":{\"selector\":\"h1\",\"regex\":\"(\"}}}]}"));
+        assertThrows(IllegalArgumentException.class, () -> load(
+                "{\"sites\":[{\"name\":\"a.fi\",\"fields\":{\"jobTitle\":{\"regex\":\".+\"}}}]}"));
+    }
+
+    @Test
+    void analysesSelectorsWithoutParsingThem() {
+        assertEquals(new SiteRules.Key("h1", true), SiteRules.Key.of("h1.header__title"));
+        assertEquals(new SiteRules.Key("a", true), SiteRules.Key.of(".header__info a[href*=/tyopaikat/]"));
+        assertEquals(new SiteRules.Key("li", false), SiteRules.Key.of("ul > li:nth-child(2)"));
+        assertEquals(new SiteRules.Key("h1", true), SiteRules.Key.of("h1.title, h1#title"));
+        assertEquals(new SiteRules.Key(null, true), SiteRules.Key.of("[itemprop=hiringOrganization] [itemprop=name]"));
+        assertEquals(new SiteRules.Key(null, true), SiteRules.Key.of(".tyonantaja, .company"));
+        assertEquals(new SiteRules.Key(null, false), SiteRules.Key.of("h1, h2.title"));
+        assertEquals(new SiteRules.Key(null, false), SiteRules.Key.of("div[title='a, b'] *"));
+
+        assertTrue(SiteRules.structural(".header__info a"));
+        assertTrue(SiteRules.structural("ul > li:nth-child(2)"));
+        assertFalse(SiteRules.structural(".tyonantaja , .company"));
+        assertFalse(SiteRules.structural("a[title='x > y']"));
+    }
+
+    private static PreprocessedDocument preprocess(String html, SiteRules.Site site) throws Exception {
+        return preprocess(html, site, new HtmlPreprocessor());
+    }
+
+    private static PreprocessedDocument preprocess(String html, SiteRules.Site site, HtmlPreprocessor preprocessor)
+            throws Exception {
+        Path htmlPath = Files.createTempDirectory("site-rules-test").resolve("page.html");
+        Files.writeString(htmlPath, html);
+        return preprocessor.preprocess(preprocessor.read(htmlPath, null), site);
+    }
+
+    private static SiteRules load(String json) throws Exception {
+        return SiteRules.load(new ObjectMapper(), new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
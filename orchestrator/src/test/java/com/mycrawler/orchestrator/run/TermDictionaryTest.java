@@ -0,0 +1,60 @@
+package com.mycrawler.orchestrator.run;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermDictionaryTest {
+    private static final TermDictionary DICTIONARY = TermDictionary.defaults(new ObjectMapper());
+
+    @Test
+    void tagsEveryFieldInOneScan() {
+        Map<PostingField, List<String>> fields = DICTIONARY.scan("Haemme kesätyöntekijää Espoon myymäläämme. "
+                + "Työ sijaitsee Espoossa, lähellä Helsinkiä. "
+                + "Edellytämme B-ajokorttia ja hyvää asiakaspalveluasennetta. "
+                + "Excel-osaaminen katsotaan eduksi. Tarjoamme lounasedun, LIIKUNTAEDUN ja henkilökunta-alennuksen. "
+                + "Vi erbjuder flexibla arbetstider.");
+
+        assertEquals(List.of("Espoo"), fields.get(PostingField.LOCATION_MUNICIPALITY), "most mentioned wins");
+        assertEquals(List.of("B-ajokortti", "Asiakaspalvelu"), fields.get(PostingField.REQUIRED_SKILLS),
+                "the ajokortti inside b-ajokorttia is not a second match");
+        assertEquals(List.of("Excel"), fields.get(PostingField.PREFERRED_SKILLS));
+        assertEquals(List.of("Lounasetu", "Liikuntaetu", "Henkilökuntaetu", "Joustavat työajat"),
+                fields.get(PostingField.BENEFITS));
+    }
+
+    @Test
+    void respectsWordBoundaries() {
+        Map<PostingField, List<String>> fields = DICTIONARY.scan("JavaScript and TypeScript; Salon Oy in Pori. "
+                + "SQL-osaaminen, sapling, oulun");
+
+        assertEquals(List.of("JavaScript", "TypeScript", "SQL"), fields.get(PostingField.REQUIRED_SKILLS));
+        assertEquals(List.of("Pori"), fields.get(PostingField.LOCATION_MUNICIPALITY));
+        assertTrue(DICTIONARY.scan("Javanese salonki").isEmpty());
+        assertTrue(DICTIONARY.scan("").isEmpty());
+        assertTrue(TermDictionary.NONE.scan("Helsinki").isEmpty());
+    }
+
+    @Test
+    void loadsCustomTermsAndRejectsInvalidOnes() throws Exception {
+        TermDictionary custom = load(
+                "{\"skills\":{\"Kotlin\":\"kotlin*\",\"Kotlin Multiplatform\":[\"kotlin mult*\"]}}");
+        assertEquals(2, custom.size());
+        assertEquals(List.of("Kotlin Multiplatform"), custom.scan("KOTLIN MULTIPLATFORM")
+                .get(PostingField.REQUIRED_SKILLS));
+        assertNotEquals(DICTIONARY.fingerprint(), custom.fingerprint());
+
+        assertThrows(IllegalArgumentException.class, () -> load("{\"skilz\":{\"A\":[\"a\"]}}"));
+        assertThrows(IllegalArgumentException.class, () -> load("{\"skills\":{\"A\":[\"a*b\"]}}"));
+        assertThrows(IllegalArgumentException.class, () -> load("{\"skills\":{\"A\":[]}}"));
+    }
+
+    private static TermDictionary load(String json) throws Exception {
+        return TermDictionary.load(new ObjectMapper(), new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
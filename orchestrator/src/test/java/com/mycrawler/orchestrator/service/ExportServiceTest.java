@@ -0,0 +1,190 @@
+package com.mycrawler.orchestrator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.run.CrawlFiles;
+import com.mycrawler.orchestrator.run.DuplicateIndex;
+import com.mycrawler.orchestrator.run.JobPosting;
+import com.mycrawler.orchestrator.run.ParquetFile;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.LocalInputFile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportServiceTest {
+
+    @Test
+    void sinkPublishesAllFilesOnlyOnCommit() throws Exception {
+        Path exportsDir = Files.createTempDirectory("export-test");
+        ExportService service = new ExportService(new ObjectMapper());
+        Path exportDir = exportsDir.resolve("2026-01-17");
+
+        try (ExportService.ExportSink sink = service.openExport(exportsDir, "2026-01-17")) {
+            sink.write(posting("a", "Summer Assistant"));
+            sink.write(posting("b", "Trainee"));
+            assertFalse(Files.exists(exportDir.resolve("jobs.jsonl")));
+            sink.commit();
+            assertEquals(2, sink.count());
+        }
+
+        assertEquals(2, Files.readAllLines(exportDir.resolve("jobs.jsonl")).size());
+        List<String> csv = Files.readAllLines(exportDir.resolve("jobs.csv"));
+        assertEquals(3, csv.size());
+        assertTrue(csv.get(1).startsWith("a,Summer Assistant"));
+        assertEquals(1, Files.readAllLines(exportDir.resolve("duplicates.csv")).size());
+        ParquetReadOptions options = ParquetReadOptions.builder(new PlainParquetConfiguration())
+                .withCodecFactory(ParquetFile.zstdCodecs(0))
+                .build();
+        try (ParquetFileReader parquet = ParquetFileReader.open(
+                new LocalInputFile(exportDir.resolve("jobs.parquet")), options)) {
+            assertEquals(2, parquet.getRecordCount());
+            assertTrue(parquet.getFileMetaData().getSchema().containsField("job_title"));
+        }
+        try (var files = Files.list(exportDir)) {
+            assertEquals(4, files.count());
+        }
+    }
+
+    @Test
+    void uncommittedSinkLeavesPreviousExportsUntouched() throws Exception {
+        Path exportsDir = Files.createTempDirectory("export-abort");
+        ExportService service = new ExportService(new ObjectMapper());
+        service.writeExports(exportsDir, "2026-01-17", List.of(posting("a", "Original")));
+
+        try (ExportService.ExportSink sink = service.openExport(exportsDir, "2026-01-17")) {
+            sink.write(posting("b", "Partial"));
+        }
+
+        Path exportDir = exportsDir.resolve("2026-01-17");
+        assertTrue(Files.readString(exportDir.resolve("jobs.jsonl")).contains("Original"));
+        try (var files = Files.list(exportDir)) {
+            assertEquals(4, files.count());
+        }
+    }
+
+    @Test
+    void linksNearDuplicatesInsteadOfExportingThem() throws Exception {
+        Path exportsDir = Files.createTempDirectory("export-duplicates");
+        ExportService service = new ExportService(new ObjectMapper());
+        String summary = "Haemme kesätyöntekijöitä Espoon myymäläämme. Työtehtäviin kuuluu asiakaspalvelu, "
+                + "kassatyöskentely ja hyllytys.";
+        Path exportDir = exportsDir.resolve("2026-01-17");
+
+        try (ExportService.ExportSink sink = service.openExport(exportsDir, "2026-01-17")) {
+            sink.write(posting("mol-1", "Kesätyöntekijä", summary));
+            sink.write(posting("duunitori-7", "Kesätyöntekijä", summary + " Hae pian!"));
+            sink.write(posting("a", "Myyjä"));
+            sink.commit();
+            assertEquals(2, sink.count());
+            assertEquals(1, sink.duplicates());
+        }
+        List<String> duplicates = Files.readAllLines(exportDir.resolve("duplicates.csv"));
+        assertEquals(2, duplicates.size());
+        assertTrue(duplicates.get(1).startsWith("duunitori-7,,mol-1,,"), "the first posting is canonical");
+        assertTrue(Files.readString(exportDir.resolve("jobs.jsonl")).contains("\"jobId\":\"mol-1\""));
+
+        // Without deduplication (review edits) every posting is written and duplicates.csv is kept.
+        try (ExportService.ExportSink sink = service.openExport(exportsDir, "2026-01-17", StageMetrics.NOOP, false)) {
+            sink.write(posting("mol-1", "Kesätyöntekijä", summary));
+            sink.write(posting("duunitori-7", "Kesätyöntekijä", summary));
+            sink.commit();
+        }
+        assertEquals(2, Files.readAllLines(exportDir.resolve("jobs.jsonl")).size());
+        assertEquals(duplicates, Files.readAllLines(exportDir.resolve("duplicates.csv")));
+    }
+
+    @Test
+    void deduplicatingSinkWritesPostingsInArrivalOrder() throws Exception {
+        Path exportsDir = Files.createTempDirectory("export-order");
+        ExportService service = new ExportService(new ObjectMapper());
+        String cashier = "Haemme kesätyöntekijöitä Espoon myymäläämme. Työtehtäviin kuuluu asiakaspalvelu, "
+                + "kassatyöskentely ja hyllytys.";
+        String driver = "Etsimme kuorma-auton kuljettajaa jakeluajoon Vantaalta. Edellytämme C-korttia, "
+                + "ammattipätevyyttä ja hyvää asiakaspalveluasennetta.";
+
+        try (ExportService.ExportSink sink = service.openExport(exportsDir, "2026-01-17")) {
+            sink.write(posting("z-1", "Kesätyöntekijä", cashier));
+            sink.write(posting("m", "Myyjä"));
+            sink.write(posting("a-9", "Kesätyöntekijä", cashier + " Hae pian!"));
+            sink.write(posting("y-2", "Kuljettaja", driver));
+            sink.write(posting("b", "Siivooja"));
+            sink.commit();
+        }
+
+        List<String> jobIds = new ArrayList<>();
+        for (String line : Files.readAllLines(exportsDir.resolve("2026-01-17").resolve("jobs.jsonl"))) {
+            jobIds.add(new ObjectMapper().readTree(line).get("jobId").asText());
+        }
+        // Clustered or not, postings keep their order; only the later copy of the cluster is left out.
+        assertEquals(List.of("z-1", "m", "y-2", "b"), jobIds);
+    }
+
+    @Test
+    void writesCompressedExportsThatReplaceOtherVariants() throws Exception {
+        Path exportsDir = Files.createTempDirectory("export-compressed");
+        ExportService service = new ExportService(new ObjectMapper());
+        Path exportDir = exportsDir.resolve("2026-01-17");
+        service.writeExports(exportsDir, "2026-01-17", List.of(posting("a", "Plain")));
+
+        ExportService.Output zstd = service.output(CrawlFiles.Compression.ZSTD, 19);
+        try (ExportService.ExportSink sink = service.openExport(
+                exportsDir, "2026-01-17", StageMetrics.NOOP, true, zstd)) {
+            sink.write(posting("a", "Myyjä"));
+            sink.write(posting("b", "Kesätyöntekijä"));
+            sink.commit();
+        }
+
+        assertFalse(Files.exists(exportDir.resolve("jobs.jsonl")));
+        assertFalse(Files.exists(exportDir.resolve("jobs.csv")));
+        assertEquals(exportDir.resolve("jobs.jsonl.zst"), ExportService.jsonlPath(exportDir));
+        String jsonl = new String(CrawlFiles.readAllBytes(exportDir.resolve("jobs.jsonl.zst")), StandardCharsets.UTF_8);
+        assertEquals(2, jsonl.lines().count());
+        assertTrue(jsonl.contains("Kesätyöntekijä"));
+        String csv = new String(CrawlFiles.readAllBytes(exportDir.resolve("jobs.csv.zst")), StandardCharsets.UTF_8);
+        assertTrue(csv.lines().toList().get(1).startsWith("a,Myyjä"));
+
+        assertEquals(new ExportService.Output(CrawlFiles.Compression.GZIP, 0),
+                service.output(CrawlFiles.Compression.GZIP, null));
+        assertEquals(ExportService.Output.PLAIN, service.output(null, null));
+    }
+
+    @Test
+    void rejectsGzipLevelsAboveNine() {
+        ExportService service = new ExportService(new ObjectMapper());
+        assertEquals(9, service.output(CrawlFiles.Compression.GZIP, 9).level());
+        assertThrows(IllegalArgumentException.class, () -> service.output(CrawlFiles.Compression.GZIP, 10));
+        assertEquals(22, service.output(CrawlFiles.Compression.ZSTD, 22).level());
+
+        ExportService gzipByDefault = new ExportService(new ObjectMapper(), true, DuplicateIndex.DEFAULT_MIN_SIMILARITY,
+                true, ExportService.DEFAULT_ROW_GROUP_MB, CrawlFiles.Compression.GZIP, 9);
+        assertThrows(IllegalArgumentException.class, () -> gzipByDefault.output(null, 15));
+        assertEquals(CrawlFiles.Compression.ZSTD, gzipByDefault.output(CrawlFiles.Compression.ZSTD, 15).compression());
+
+        assertThrows(IllegalArgumentException.class, () -> new ExportService(new ObjectMapper(), true,
+                DuplicateIndex.DEFAULT_MIN_SIMILARITY, true, ExportService.DEFAULT_ROW_GROUP_MB,
+                CrawlFiles.Compression.GZIP, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> CrawlFiles.Compression.GZIP.compress(new ByteArrayOutputStream(), 12));
+    }
+
+    private JobPosting posting(String jobId, String title) {
+        JobPosting posting = new JobPosting();
+        posting.setJobId(jobId);
+        posting.setJobTitle(title);
+        return posting;
+    }
+
+    private JobPosting posting(String jobId, String title, String summary) {
+        JobPosting posting = posting(jobId, title);
+        posting.setJobDescriptionSummary(summary);
+        return posting;
+    }
+}
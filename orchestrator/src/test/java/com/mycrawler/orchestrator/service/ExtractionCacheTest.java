@@ -0,0 +1,112 @@
+package com.mycrawler.orchestrator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.run.HtmlPreprocessor;
+import com.mycrawler.orchestrator.run.JobPosting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractionCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void identicalPagesHitTheCacheAcrossServiceInstances() throws Exception {
+        Path dir = Files.createTempDirectory("cache-test");
+        Path day1 = write(dir.resolve("2026-01-01"), "Kesätyö");
+        Path day2 = write(dir.resolve("2026-01-02"), "Kesätyö");
+        Path changed = write(dir.resolve("2026-01-03"), "Talvityö");
+        ExtractionCache cache = new ExtractionCache(objectMapper, dir.resolve("cache"), 1024 * 1024);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        ExtractionService service = new ExtractionService(objectMapper, new HtmlPreprocessor(), cache);
+
+        JobPosting first = service.extractFromHtml(day1);
+        JobPosting second = service.extractFromHtml(day2);
+        service.extractFromHtml(changed);
+
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(1, registry.get(ExtractionCache.LOOKUPS_COUNTER).tag("result", "hit").functionCounter().count());
+        assertEquals(2, registry.get(ExtractionCache.LOOKUPS_COUNTER).tag("result", "miss").functionCounter().count());
+        assertTrue(registry.get(ExtractionCache.SIZE_GAUGE).gauge().value() > 0);
+        assertEquals(first.getJobId(), second.getJobId());
+        assertEquals(first.getJobDescriptionSummary(), second.getJobDescriptionSummary());
+
+        // A fresh instance indexes the entries already on disk.
+        ExtractionCache reopened = new ExtractionCache(objectMapper, dir.resolve("cache"), 1024 * 1024);
+        assertEquals(2, reopened.entries());
+        new ExtractionService(objectMapper, new HtmlPreprocessor(), reopened).extractFromHtml(day1);
+        assertEquals(1, reopened.hits());
+    }
+
+    @Test
+    void differentExtractorSettingsDoNotShareEntries() throws Exception {
+        Path dir = Files.createTempDirectory("cache-test");
+        Path htmlPath = write(dir.resolve("in"), "Kesätyö");
+        ExtractionCache cache = new ExtractionCache(objectMapper, dir.resolve("cache"), 1024 * 1024);
+
+        new ExtractionService(objectMapper, new HtmlPreprocessor(), cache).extractFromHtml(htmlPath);
+        new ExtractionService(objectMapper, new HtmlPreprocessor(HtmlPreprocessor.Mode.FULL, 0, 0), cache)
+                .extractFromHtml(htmlPath);
+
+        assertEquals(0, cache.hits());
+        assertEquals(2, cache.entries());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondSizeBound() throws Exception {
+        long entrySize = objectMapper.writeValueAsBytes(posting("a")).length;
+        ExtractionCache cache = new ExtractionCache(objectMapper, Files.createTempDirectory("cache-test"), entrySize * 2 + 10);
+        String a = key(cache, "a");
+        String b = key(cache, "b");
+        String c = key(cache, "c");
+
+        cache.put(a, posting("a"));
+        cache.put(b, posting("b"));
+        assertNotNull(cache.get(a));
+        cache.put(c, posting("c"));
+
+        assertEquals(2, cache.entries());
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+        assertTrue(cache.sizeBytes() <= entrySize * 2 + 10);
+    }
+
+    @Test
+    void corruptEntryCountsAsMissAndIsDropped() throws Exception {
+        Path dir = Files.createTempDirectory("cache-test");
+        ExtractionCache cache = new ExtractionCache(objectMapper, dir, 1024 * 1024);
+        String key = key(cache, "a");
+        cache.put(key, posting("a"));
+        Files.writeString(dir.resolve(key.substring(0, 2)).resolve(key + ".json"), "{not json");
+
+        assertNull(cache.get(key));
+        assertEquals(0, cache.entries());
+        assertEquals(1, cache.misses());
+    }
+
+    private static String key(ExtractionCache cache, String html) {
+        return cache.key(ByteBuffer.wrap(html.getBytes(StandardCharsets.UTF_8)), null, "test");
+    }
+
+    private static JobPosting posting(String title) {
+        JobPosting posting = new JobPosting();
+        posting.setJobTitle(title);
+        return posting;
+    }
+
+    private static Path write(Path dir, String title) throws Exception {
+        Files.createDirectories(dir);
+        Path htmlPath = dir.resolve("example_00001.html");
+        Files.writeString(htmlPath, "<html><head><title>" + title + "</title></head><body><p>Työ Helsingissä.</p></body></html>");
+        Files.writeString(dir.resolve("example_00001_meta.json"), "{\"url\":\"https://example.com/1\",\"company\":\"Example Oy\"}");
+        return htmlPath;
+    }
+}
@@ -0,0 +1,217 @@
+package com.mycrawler.orchestrator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycrawler.orchestrator.run.CrawlManifest;
+import com.mycrawler.orchestrator.run.ExtractionManifest;
+import com.mycrawler.orchestrator.run.HtmlPreprocessor;
+import com.mycrawler.orchestrator.run.JobPosting;
+import com.mycrawler.orchestrator.run.RawExtractionStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractionPipelineTest {
+
+    @Test
+    void parallelPipelineMatchesSerialOrderAndOutput() throws Exception {
+        Path inputDir = Files.createTempDirectory("pipeline-input");
+        Path rawDir = Files.createTempDirectory("pipeline-raw");
+        List<Path> htmlFiles = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Path htmlPath = inputDir.resolve(String.format("page-%03d.html", i));
+            Files.writeString(htmlPath, "<html><head><title>Job " + i + "</title></head><body><p>Posting " + i + "</p></body></html>");
+            Files.writeString(inputDir.resolve(String.format("page-%03d_meta.json", i)), "{\"url\":\"https://example.com/" + i + "\"}");
+            htmlFiles.add(htmlPath);
+        }
+        ExtractionService extractionService = new ExtractionService(new ObjectMapper());
+        ExtractionPipeline pipeline = new ExtractionPipeline(extractionService, 4, 2, 8);
+
+        List<Path> persisted = new ArrayList<>();
+        List<JobPosting> postings = new ArrayList<>();
+        ExtractionPipeline.Result result = pipeline.run(htmlFiles, ExtractionPipeline.Options.of(rawDir), extraction -> {
+            persisted.add(extraction.htmlPath());
+            postings.add(extraction.posting());
+        });
+
+        assertEquals(htmlFiles, persisted);
+        assertEquals(htmlFiles.size(), result.processed());
+        try (RawExtractionStore raw = extractionService.openRawExtractions(rawDir)) {
+            for (int i = 0; i < htmlFiles.size(); i++) {
+                JobPosting serial = extractionService.extractFromHtml(htmlFiles.get(i));
+                assertEquals(serial.getJobId(), postings.get(i).getJobId());
+                assertEquals(serial.getJobId(), raw.read(htmlFiles.get(i)).getJobId());
+            }
+        }
+    }
+
+    @Test
+    void incrementalRunReusesUnchangedFiles() throws Exception {
+        Path inputDir = Files.createTempDirectory("pipeline-incremental");
+        Path runDir = Files.createTempDirectory("pipeline-run");
+        Path rawDir = runDir.resolve("raw_extractions");
+        Path manifestPath = runDir.resolve("extraction_manifest.json");
+        Path unchanged = inputDir.resolve("a.html");
+        Path changed = inputDir.resolve("b.html");
+        Files.writeString(unchanged, "<html><head><title>Stays</title></head><body>same</body></html>");
+        Files.writeString(changed, "<html><head><title>Before</title></head><body>old</body></html>");
+        ObjectMapper objectMapper = new ObjectMapper();
+        ExtractionPipeline pipeline = new ExtractionPipeline(new ExtractionService(objectMapper), 2, 1, 4);
+
+        ExtractionManifest first = ExtractionManifest.load(objectMapper, manifestPath, inputDir, pipeline.extractionVersion());
+        pipeline.run(List.of(unchanged, changed), new ExtractionPipeline.Options(rawDir, first, true, Set.of()),
+                extraction -> { });
+        first.save(objectMapper);
+
+        Files.writeString(changed, "<html><head><title>After edit</title></head><body>new content</body></html>");
+        ExtractionManifest second = ExtractionManifest.load(objectMapper, manifestPath, inputDir, pipeline.extractionVersion());
+        List<JobPosting> postings = new ArrayList<>();
+        ExtractionPipeline.Result result = pipeline.run(List.of(unchanged, changed), new ExtractionPipeline.Options(rawDir, second, true, Set.of()),
+                extraction -> postings.add(extraction.posting()));
+
+        assertEquals(2, result.processed());
+        assertEquals(1, result.count(ExtractionPipeline.Outcome.REUSED));
+        assertEquals("Stays", postings.get(0).getJobTitle());
+        assertEquals("After edit", postings.get(1).getJobTitle());
+
+        // Other HTML settings change what is extracted from the same files, so nothing is reused.
+        ExtractionService fullHtml = new ExtractionService(objectMapper, new HtmlPreprocessor(HtmlPreprocessor.Mode.FULL,
+                HtmlPreprocessor.DEFAULT_MAX_BYTES, HtmlPreprocessor.DEFAULT_MAX_TEXT_CHARS));
+        ExtractionManifest otherVersion = ExtractionManifest.load(objectMapper, manifestPath, inputDir, fullHtml.version());
+        assertEquals(0, otherVersion.previousSize());
+    }
+
+    @Test
+    void checkpointedFilesAreReadBackInsteadOfExtracted() throws Exception {
+        Path inputDir = Files.createTempDirectory("pipeline-resume");
+        Path rawDir = Files.createTempDirectory("pipeline-resume-raw");
+        Path done = inputDir.resolve("done.html");
+        Path pending = inputDir.resolve("pending.html");
+        Files.writeString(done, "<html><head><title>Live title</title></head><body>x</body></html>");
+        Files.writeString(pending, "<html><head><title>Pending</title></head><body>y</body></html>");
+        JobPosting checkpointedPosting = new JobPosting();
+        checkpointedPosting.setJobTitle("From checkpoint");
+        // A raw extraction file of its own, as written before segments.
+        new ObjectMapper().writeValue(rawDir.resolve("done.json").toFile(), checkpointedPosting);
+        ExtractionPipeline pipeline = new ExtractionPipeline(new ExtractionService(new ObjectMapper()), 2, 1, 4);
+
+        List<ExtractionPipeline.Outcome> outcomes = new ArrayList<>();
+        List<JobPosting> postings = new ArrayList<>();
+        pipeline.run(List.of(done, pending), new ExtractionPipeline.Options(rawDir, null, false, Set.of(done.toString())),
+                extraction -> {
+                    outcomes.add(extraction.outcome());
+                    postings.add(extraction.posting());
+                });
+
+        assertEquals(List.of(ExtractionPipeline.Outcome.CHECKPOINTED, ExtractionPipeline.Outcome.EXTRACTED), outcomes);
+        assertEquals("From checkpoint", postings.get(0).getJobTitle());
+        assertEquals("Pending", postings.get(1).getJobTitle());
+    }
+
+    @Test
+    void unreadableFileIsDeadLetteredWithoutFailingTheRun() throws Exception {
+        Path inputDir = Files.createTempDirectory("pipeline-dead-letter");
+        Path good = inputDir.resolve("good.html");
+        Path bad = inputDir.resolve("bad.html");
+        Files.writeString(good, "<html><head><title>Good</title></head><body>ok</body></html>");
+        Files.writeString(bad, "<html><body>broken meta</body></html>");
+        Files.writeString(inputDir.resolve("bad_meta.json"), "{not json");
+        ExtractionService extractionService = new ExtractionService(new ObjectMapper());
+        ExtractionPipeline pipeline = new ExtractionPipeline(extractionService, 2, 1, 4);
+
+        List<ExtractionPipeline.Extraction> extractions = new ArrayList<>();
+        ExtractionPipeline.Result result = pipeline.run(List.of(bad, good), ExtractionPipeline.Options.of(inputDir.resolve("raw")),
+                extractions::add);
+
+        assertEquals(2, result.processed());
+        assertEquals(1, result.count(ExtractionPipeline.Outcome.FAILED));
+        assertEquals(ExtractionPipeline.Outcome.FAILED, extractions.get(0).outcome());
+        assertNull(extractions.get(0).posting());
+        assertNotNull(extractions.get(0).error());
+        assertEquals("Good", extractions.get(1).posting().getJobTitle());
+        try (RawExtractionStore raw = extractionService.openRawExtractions(inputDir.resolve("raw"))) {
+            assertFalse(raw.contains(bad));
+            assertTrue(raw.contains(good));
+        }
+    }
+
+    @Test
+    void slowFileStallsTheScanInsteadOfBufferingEverythingAfterIt() throws Exception {
+        Path inputDir = Files.createTempDirectory("pipeline-slow");
+        List<Path> htmlFiles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Path htmlPath = inputDir.resolve(String.format("page-%03d.html", i));
+            Files.writeString(htmlPath, "<html><head><title>Job " + i + "</title></head><body>ok</body></html>");
+            htmlFiles.add(htmlPath);
+        }
+        CountDownLatch release = new CountDownLatch(1);
+        ExtractionService extractionService = new ExtractionService(new ObjectMapper()) {
+            @Override
+            public JobPosting extractFromHtml(Path htmlPath, StageMetrics metrics,
+                                              CrawlManifest.Directories crawlManifests) throws IOException {
+                if (htmlPath.equals(htmlFiles.get(0))) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.extractFromHtml(htmlPath, metrics, crawlManifests);
+            }
+        };
+        int queueCapacity = 2;
+        int maxInFlight = ExtractionPipeline.IN_FLIGHT_PER_QUEUE_SLOT * queueCapacity;
+        ExtractionPipeline pipeline = new ExtractionPipeline(extractionService, 4, 2, queueCapacity);
+        AtomicInteger scanned = new AtomicInteger();
+        Iterable<Path> scan = () -> htmlFiles.stream().peek(path -> scanned.incrementAndGet()).iterator();
+
+        List<Path> persisted = new ArrayList<>();
+        Thread releaser = new Thread(() -> {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (scanned.get() < maxInFlight && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                Thread.sleep(200);
+                // The scanner holds one path it has not been allowed to queue yet.
+                assertTrue(scanned.get() <= maxInFlight + 1, "scanned " + scanned.get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                release.countDown();
+            }
+        });
+        AtomicReference<Throwable> releaserFailure = new AtomicReference<>();
+        releaser.setUncaughtExceptionHandler((thread, ex) -> releaserFailure.set(ex));
+        releaser.start();
+        ExtractionPipeline.Result result = pipeline.run(scan, ExtractionPipeline.Options.of(inputDir.resolve("raw")),
+                extraction -> persisted.add(extraction.htmlPath()));
+        releaser.join();
+
+        assertNull(releaserFailure.get());
+        assertEquals(htmlFiles, persisted);
+        assertEquals(htmlFiles.size(), result.processed());
+    }
+
+    @Test
+    void stageFailureIsPropagated() throws Exception {
+        Path inputDir = Files.createTempDirectory("pipeline-fail");
+        Path htmlPath = inputDir.resolve("page.html");
+        Files.writeString(htmlPath, "<html><body>ok</body></html>");
+        ExtractionPipeline pipeline = new ExtractionPipeline(new ExtractionService(new ObjectMapper()), 2, 1, 2);
+
+        IOException ex = assertThrows(IOException.class, () -> pipeline.run(List.of(htmlPath), ExtractionPipeline.Options.of(inputDir.resolve("raw")), extraction -> {
+            throw new IOException("persist failed");
+        }));
+        assertEquals("persist failed", ex.getMessage());
+    }
+}
@@ -0,0 +1,156 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.ExtractionRecord;
+import com.mycrawler.orchestrator.db.ExtractionRecordRepository;
+import com.mycrawler.orchestrator.db.ExtractionStatus;
+import com.mycrawler.orchestrator.db.RunEntity;
+import com.mycrawler.orchestrator.db.RunRepository;
+import com.mycrawler.orchestrator.db.RunStatus;
+import com.mycrawler.orchestrator.db.RunType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExtractionRecordWriterTest {
+    @Autowired
+    private RunRepository runRepository;
+
+    @Autowired
+    private ExtractionRecordRepository extractionRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private RunEntity run;
+
+    @BeforeEach
+    void createRun() {
+        run = new RunEntity();
+        run.setRunType(RunType.FULL);
+        run.setStatus(RunStatus.RUNNING);
+        run.setRunDate("2026-01-17");
+        run.setInputDir("in");
+        run.setRunsDir("runs");
+        run.setExportsDir("exports");
+        run.setCreatedAt(Instant.now());
+        run = runRepository.save(run);
+    }
+
+    @AfterEach
+    void deleteRows() {
+        extractionRecordRepository.deleteAll();
+        runRepository.deleteAll();
+    }
+
+    @Test
+    void flushesWhenTheBatchIsFull() {
+        ExtractionRecordWriter writer = new ExtractionRecordWriter(extractionRecordRepository, 3, 3_600_000);
+        try (ExtractionRecordWriter.Batch batch = writer.open()) {
+            batch.add(record("a"));
+            batch.add(record("b"));
+            assertEquals(0, extractionRecordRepository.count());
+            batch.add(record("c"));
+            assertEquals(3, extractionRecordRepository.count());
+            batch.add(record("d"));
+            assertEquals(3, batch.saved());
+        } finally {
+            writer.shutdown();
+        }
+        assertEquals(4, extractionRecordRepository.count(), "closing flushes the rest");
+    }
+
+    @Test
+    void flushesOnceTheIntervalPassesWithoutFurtherRecords() throws Exception {
+        ExtractionRecordWriter writer = new ExtractionRecordWriter(extractionRecordRepository, 100, 50);
+        try (ExtractionRecordWriter.Batch batch = writer.open()) {
+            batch.add(record("a"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (batch.saved() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, batch.saved());
+            assertEquals(1, extractionRecordRepository.count());
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    /** A fresh context, as after a restart: the schema update has just created the sequence at 1. */
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void movesTheIdSequencePastIdsOfAnIdentityEraDatabase() {
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("insert into extraction_records (id, run_id, source_path, status, created_at) "
+                    + "values (?, ?, ?, 'SUCCESS', current_timestamp)", id, run.getId(), "legacy-" + id + ".html");
+        }
+        ExtractionRecordWriter writer = new ExtractionRecordWriter(extractionRecordRepository, 2, 3_600_000);
+        try (ExtractionRecordWriter.Batch batch = writer.open()) {
+            batch.add(record("a"));
+            batch.add(record("b"));
+            batch.add(record("c"));
+        } finally {
+            writer.shutdown();
+        }
+
+        assertEquals(6, extractionRecordRepository.count());
+        for (ExtractionRecord record : extractionRecordRepository.findAll()) {
+            if (!record.getSourcePath().startsWith("legacy-")) {
+                assertTrue(record.getId() > 3, "id " + record.getId());
+            }
+        }
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void onlyOneOfTheNodesStartingTogetherRestartsTheIdSequence() throws Exception {
+        jdbcTemplate.update("insert into extraction_records (id, run_id, source_path, status, created_at) "
+                + "values (1000, ?, 'legacy.html', 'SUCCESS', current_timestamp)", run.getId());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> restarted = new ArrayList<>();
+            for (int node = 0; node < 2; node++) {
+                restarted.add(nodes.submit(() -> {
+                    start.await();
+                    return extractionRecordRepository.moveIdSequencePastExistingIds();
+                }));
+            }
+            start.countDown();
+            int restarts = 0;
+            for (Future<Boolean> result : restarted) {
+                restarts += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, restarts);
+        } finally {
+            nodes.shutdownNow();
+        }
+        assertTrue(extractionRecordRepository.nextIdBlock() > 1000);
+    }
+
+    private ExtractionRecord record(String name) {
+        ExtractionRecord record = new ExtractionRecord();
+        record.setRun(run);
+        record.setSourcePath(name + ".html");
+        record.setStatus(ExtractionStatus.SUCCESS);
+        record.setCreatedAt(Instant.now());
+        return record;
+    }
+}
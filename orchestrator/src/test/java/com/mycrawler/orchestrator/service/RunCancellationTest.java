@@ -0,0 +1,39 @@
+package com.mycrawler.orchestrator.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RunCancellationTest {
+
+    @Test
+    void cancelRequestedElsewhereStopsTheRunAtItsNextCheckpoint() throws InterruptedException {
+        AtomicBoolean requested = new AtomicBoolean();
+        RunCancellation cancellation = new RunCancellation();
+        cancellation.pollWith(requested::get, Duration.ofMillis(20));
+
+        Thread.sleep(40);
+        cancellation.throwIfCancelled();
+        requested.set(true);
+        Thread.sleep(40);
+
+        assertThrows(RunCancellation.CancelledException.class, cancellation::throwIfCancelled);
+        assertTrue(cancellation.isCancelled());
+    }
+
+    @Test
+    void asksAtMostOncePerInterval() {
+        AtomicInteger asked = new AtomicInteger();
+        RunCancellation cancellation = new RunCancellation();
+        cancellation.pollWith(() -> asked.incrementAndGet() < 0, Duration.ofHours(1));
+
+        for (int i = 0; i < 1000; i++) {
+            cancellation.throwIfCancelled();
+        }
+
+        assertEquals(0, asked.get());
+    }
+}
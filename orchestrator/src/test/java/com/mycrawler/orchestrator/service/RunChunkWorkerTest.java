@@ -0,0 +1,133 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunChunk;
+import com.mycrawler.orchestrator.db.RunChunkRepository;
+import com.mycrawler.orchestrator.db.RunChunkStatus;
+import com.mycrawler.orchestrator.db.RunEntity;
+import com.mycrawler.orchestrator.db.RunRepository;
+import com.mycrawler.orchestrator.db.RunStatus;
+import com.mycrawler.orchestrator.db.RunType;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RunChunkWorkerTest {
+    @Autowired
+    private RunRepository runRepository;
+
+    @Autowired
+    private RunChunkRepository runChunkRepository;
+
+    private RunLeaseService nodeA;
+    private RunLeaseService nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = new RunLeaseService(runRepository, runChunkRepository, true, "node-a", 3, 3);
+        nodeB = new RunLeaseService(runRepository, runChunkRepository, true, "node-b", 3, 3);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+        runChunkRepository.deleteAll();
+        runRepository.deleteAll();
+    }
+
+    @Test
+    void workersOnTwoNodesShareTheChunksOfARun() {
+        RunEntity run = runningRun(Instant.now().plusSeconds(60));
+        for (int i = 0; i < 3; i++) {
+            chunk(run, i);
+        }
+        List<String> processed = new ArrayList<>();
+        RunChunkWorker workerA = worker(nodeA, chunk -> processed.add("a" + chunk.getChunkIndex()));
+        RunChunkWorker workerB = worker(nodeB, chunk -> processed.add("b" + chunk.getChunkIndex()));
+
+        assertTrue(workerA.processNextChunk());
+        assertTrue(workerB.processNextChunk());
+        assertTrue(workerA.processNextChunk());
+        assertFalse(workerB.processNextChunk());
+
+        assertEquals(List.of("a0", "b1", "a2"), processed);
+        assertEquals(0, runChunkRepository.countByRunIdAndStatusIn(
+                run.getId(), List.of(RunChunkStatus.PENDING, RunChunkStatus.CLAIMED, RunChunkStatus.FAILED)));
+    }
+
+    @Test
+    void chunkThatAlwaysFailsEndsFailedInsteadOfCirculating() {
+        RunEntity run = runningRun(Instant.now().plusSeconds(60));
+        chunk(run, 0);
+        RunLeaseService.ChunkHandler failing = chunk -> {
+            throw new IllegalStateException("unreadable " + chunk.paths().get(0));
+        };
+        RunChunkWorker workerA = worker(nodeA, failing);
+        RunChunkWorker workerB = worker(nodeB, failing);
+
+        assertTrue(workerA.processNextChunk());
+        assertTrue(workerB.processNextChunk());
+        assertTrue(workerA.processNextChunk());
+        assertFalse(workerB.processNextChunk());
+        assertFalse(workerA.processNextChunk());
+
+        RunChunk chunk = runChunkRepository.findByRunIdAndChunkIndex(run.getId(), 0).orElseThrow();
+        assertEquals(RunChunkStatus.FAILED, chunk.getStatus());
+        assertEquals(3, chunk.getAttempts());
+        assertEquals("unreadable " + Path.of("in", "page-0.html"), chunk.getLastError());
+    }
+
+    @Test
+    void takesOverOnlyRunsWhoseCoordinatorLeaseExpired() {
+        RunEntity orphaned = runningRun(Instant.now().minusSeconds(5));
+        runningRun(Instant.now().plusSeconds(60));
+        List<Long> started = new ArrayList<>();
+        RunScheduler scheduler = new RunScheduler((runId, cancellation) -> started.add(runId), Runnable::run, 1, 10,
+                RunScheduler.limits(1, 1, 1, 1));
+        RunChunkWorker worker = new RunChunkWorker(nodeB, chunk -> { }, runRepository, scheduler, 1, 100);
+
+        worker.takeOverExpiredRuns();
+
+        assertEquals(List.of(orphaned.getId()), started);
+    }
+
+    private RunChunkWorker worker(RunLeaseService leaseService, RunLeaseService.ChunkHandler handler) {
+        return new RunChunkWorker(leaseService, handler, runRepository, null, 1, 100);
+    }
+
+    private RunEntity runningRun(Instant leaseExpiresAt) {
+        RunEntity run = new RunEntity();
+        run.setRunType(RunType.FULL);
+        run.setStatus(RunStatus.RUNNING);
+        run.setRunDate("2026-01-17");
+        run.setInputDir("in");
+        run.setRunsDir("runs");
+        run.setExportsDir("exports");
+        run.setLeaseOwner("node-gone");
+        run.setLeaseExpiresAt(leaseExpiresAt);
+        run.setCreatedAt(Instant.now());
+        return runRepository.save(run);
+    }
+
+    private void chunk(RunEntity run, int index) {
+        RunChunk chunk = new RunChunk();
+        chunk.setRun(run);
+        chunk.setChunkIndex(index);
+        chunk.setStatus(RunChunkStatus.PENDING);
+        chunk.setFilePaths(List.of(Path.of("in", "page-" + index + ".html")));
+        chunk.setCreatedAt(Instant.now());
+        runChunkRepository.save(chunk);
+    }
+}
@@ -0,0 +1,154 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunChunk;
+import com.mycrawler.orchestrator.db.RunChunkRepository;
+import com.mycrawler.orchestrator.db.RunChunkStatus;
+import com.mycrawler.orchestrator.db.RunEntity;
+import com.mycrawler.orchestrator.db.RunRepository;
+import com.mycrawler.orchestrator.db.RunStatus;
+import com.mycrawler.orchestrator.db.RunType;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two nodes' lease services sharing one database. Each repository call commits on its own, as it does in the
+ * running application.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RunLeaseServiceTest {
+    @Autowired
+    private RunRepository runRepository;
+
+    @Autowired
+    private RunChunkRepository runChunkRepository;
+
+    private RunLeaseService nodeA;
+    private RunLeaseService nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = new RunLeaseService(runRepository, runChunkRepository, true, "node-a", 3, 2);
+        nodeB = new RunLeaseService(runRepository, runChunkRepository, true, "node-b", 3, 2);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+        runChunkRepository.deleteAll();
+        runRepository.deleteAll();
+    }
+
+    @Test
+    void claimsEachRunAndChunkOnce() {
+        RunEntity run = run(RunStatus.QUEUED);
+        chunk(run, 0);
+        chunk(run, 1);
+
+        assertTrue(nodeA.claimRun(run.getId()));
+        assertFalse(nodeB.claimRun(run.getId()));
+
+        RunChunk first = nodeA.claimChunk(run.getId()).orElseThrow();
+        RunChunk second = nodeB.claimChunk(run.getId()).orElseThrow();
+        assertEquals(0, first.getChunkIndex());
+        assertEquals(1, second.getChunkIndex());
+        assertTrue(nodeA.claimChunk(run.getId()).isEmpty());
+        assertTrue(nodeB.claimChunk(null).isEmpty());
+
+        assertFalse(nodeB.completeChunk(first), "only the lease holder completes a chunk");
+        assertTrue(nodeA.completeChunk(first));
+        assertEquals(RunChunkStatus.COMPLETED, runChunkRepository.findById(first.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void renewsHeldLeasesAndLetsExpiredOnesBeTakenOver() throws Exception {
+        RunEntity run = run(RunStatus.QUEUED);
+        chunk(run, 0);
+        assertTrue(nodeA.claimRun(run.getId()));
+        RunChunk chunk = nodeA.claimChunk(run.getId()).orElseThrow();
+        expire(chunk, Instant.now().plusMillis(500));
+
+        // The heartbeat runs every second and pushes the lease a full TTL ahead.
+        Thread.sleep(2000);
+        assertTrue(nodeB.claimChunk(run.getId()).isEmpty());
+        assertFalse(nodeB.claimRun(run.getId()));
+
+        // Node A dies: its leases are no longer renewed.
+        nodeA.shutdown();
+        expire(chunk, Instant.now().minusSeconds(1));
+        RunEntity stale = runRepository.findById(run.getId()).orElseThrow();
+        stale.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+        runRepository.save(stale);
+
+        RunChunk takenOver = nodeB.claimChunk(run.getId()).orElseThrow();
+        assertEquals(chunk.getId(), takenOver.getId());
+        assertEquals("node-b", takenOver.getLeaseOwner());
+        assertEquals(2, takenOver.getAttempts());
+        assertTrue(nodeB.claimRun(run.getId()));
+        assertFalse(nodeA.completeChunk(chunk));
+        assertTrue(nodeB.completeChunk(takenOver));
+    }
+
+    @Test
+    void failsChunkAfterItsLastAttempt() {
+        RunEntity run = run(RunStatus.RUNNING);
+        chunk(run, 0);
+
+        RunChunk chunk = nodeA.claimChunk(run.getId()).orElseThrow();
+        assertFalse(nodeA.processChunk(chunk, claimed -> {
+            throw new IllegalStateException("disk full");
+        }));
+        RunChunk retried = runChunkRepository.findById(chunk.getId()).orElseThrow();
+        assertEquals(RunChunkStatus.PENDING, retried.getStatus());
+        assertEquals("disk full", retried.getLastError());
+
+        chunk = nodeB.claimChunk(run.getId()).orElseThrow();
+        nodeB.failChunk(chunk, "disk still full");
+        RunChunk failed = runChunkRepository.findById(chunk.getId()).orElseThrow();
+        assertEquals(RunChunkStatus.FAILED, failed.getStatus());
+        assertEquals(2, failed.getAttempts());
+        assertEquals("disk still full", failed.getLastError());
+        assertTrue(nodeA.claimChunk(run.getId()).isEmpty());
+        assertEquals(0, runChunkRepository.countByRunIdAndStatusIn(
+                run.getId(), List.of(RunChunkStatus.PENDING, RunChunkStatus.CLAIMED)));
+    }
+
+    private RunEntity run(RunStatus status) {
+        RunEntity run = new RunEntity();
+        run.setRunType(RunType.FULL);
+        run.setStatus(status);
+        run.setRunDate("2026-01-17");
+        run.setInputDir("in");
+        run.setRunsDir("runs");
+        run.setExportsDir("exports");
+        run.setCreatedAt(Instant.now());
+        return runRepository.save(run);
+    }
+
+    private void chunk(RunEntity run, int index) {
+        RunChunk chunk = new RunChunk();
+        chunk.setRun(run);
+        chunk.setChunkIndex(index);
+        chunk.setStatus(RunChunkStatus.PENDING);
+        chunk.setFilePaths(List.of(Path.of("in", "page-" + index + ".html")));
+        chunk.setCreatedAt(Instant.now());
+        runChunkRepository.save(chunk);
+    }
+
+    private void expire(RunChunk chunk, Instant expiresAt) {
+        RunChunk stored = runChunkRepository.findById(chunk.getId()).orElseThrow();
+        stored.setLeaseExpiresAt(expiresAt);
+        runChunkRepository.save(stored);
+    }
+}
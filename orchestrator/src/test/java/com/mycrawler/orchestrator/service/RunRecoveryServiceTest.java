@@ -0,0 +1,119 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunChunkRepository;
+import com.mycrawler.orchestrator.db.RunEntity;
+import com.mycrawler.orchestrator.db.RunEvent;
+import com.mycrawler.orchestrator.db.RunEventRepository;
+import com.mycrawler.orchestrator.db.RunRepository;
+import com.mycrawler.orchestrator.db.RunStatus;
+import com.mycrawler.orchestrator.db.RunType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** A node restarting against a database that still holds runs of the process before it. */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RunRecoveryServiceTest {
+    @Autowired
+    private RunRepository runRepository;
+
+    @Autowired
+    private RunChunkRepository runChunkRepository;
+
+    @Autowired
+    private RunEventRepository runEventRepository;
+
+    private final List<Long> resumed = new ArrayList<>();
+    private final RunScheduler scheduler = new RunScheduler((runId, cancellation) -> resumed.add(runId), Runnable::run,
+            4, 10, RunScheduler.limits(4, 4, 4, 4));
+    private RunLeaseService leaseService;
+
+    @AfterEach
+    void deleteRows() {
+        if (leaseService != null) {
+            leaseService.shutdown();
+        }
+        runEventRepository.deleteAll();
+        runRepository.deleteAll();
+    }
+
+    @Test
+    void requeuesRunsLeftQueuedOrRunning() {
+        RunEntity running = run(RunStatus.RUNNING, null, null);
+        RunEntity queued = run(RunStatus.QUEUED, null, null);
+        RunEntity completed = run(RunStatus.COMPLETED, null, null);
+        RunEntity failed = run(RunStatus.FAILED, null, null);
+
+        recovery(false, true).run(null);
+
+        assertEquals(List.of(running.getId(), queued.getId()), resumed);
+        assertEquals(List.of("RUN_RESUMED"), eventTypes(running));
+        assertEquals("Resumed after restart (was RUNNING)",
+                runEventRepository.findByRunIdOrderByCreatedAtAsc(running.getId()).get(0).getMessage());
+        assertEquals(List.of("RUN_RESUMED"), eventTypes(queued));
+        assertEquals(List.of(), eventTypes(completed));
+        assertEquals(List.of(), eventTypes(failed));
+    }
+
+    @Test
+    void leavesRunsLeasedByLiveNodesAlone() {
+        Instant now = Instant.now();
+        RunEntity live = run(RunStatus.RUNNING, "node-b", now.plus(Duration.ofMinutes(1)));
+        RunEntity stale = run(RunStatus.RUNNING, "node-b", now.minus(Duration.ofMinutes(1)));
+        RunEntity unleased = run(RunStatus.QUEUED, null, null);
+
+        recovery(true, true).run(null);
+
+        assertEquals(List.of(stale.getId(), unleased.getId()), resumed);
+        assertEquals(List.of(), eventTypes(live));
+        assertEquals(RunStatus.RUNNING, runRepository.findById(live.getId()).orElseThrow().getStatus());
+        assertEquals("node-b", runRepository.findById(live.getId()).orElseThrow().getLeaseOwner());
+        assertEquals(List.of("RUN_RESUMED"), eventTypes(stale));
+    }
+
+    @Test
+    void doesNothingWhenDisabled() {
+        RunEntity running = run(RunStatus.RUNNING, null, null);
+
+        recovery(false, false).run(null);
+
+        assertEquals(List.of(), resumed);
+        assertEquals(List.of(), eventTypes(running));
+    }
+
+    private RunRecoveryService recovery(boolean distributed, boolean enabled) {
+        leaseService = new RunLeaseService(runRepository, runChunkRepository, distributed, "node-a", 30, 3);
+        return new RunRecoveryService(runRepository, runEventRepository, scheduler, leaseService, enabled);
+    }
+
+    private RunEntity run(RunStatus status, String leaseOwner, Instant leaseExpiresAt) {
+        RunEntity run = new RunEntity();
+        run.setRunType(RunType.FULL);
+        run.setStatus(status);
+        run.setRunDate("2026-01-17");
+        run.setInputDir("in");
+        run.setRunsDir("runs");
+        run.setExportsDir("exports");
+        run.setLeaseOwner(leaseOwner);
+        run.setLeaseExpiresAt(leaseExpiresAt);
+        // Distinct creation times so recovery order is defined.
+        run.setCreatedAt(Instant.now().plusMillis(runRepository.count()));
+        return runRepository.save(run);
+    }
+
+    private List<String> eventTypes(RunEntity run) {
+        return runEventRepository.findByRunIdOrderByCreatedAtAsc(run.getId()).stream()
+                .map(RunEvent::getEventType)
+                .toList();
+    }
+}
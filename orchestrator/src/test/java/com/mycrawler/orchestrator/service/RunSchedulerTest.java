@@ -0,0 +1,94 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunSchedulerTest {
+
+    @Test
+    void dispatchesByPriorityWithinPerTypeLimits() {
+        ManualExecutor executor = new ManualExecutor();
+        List<Long> started = new ArrayList<>();
+        RunScheduler scheduler = new RunScheduler((runId, cancellation) -> started.add(runId), executor, 2, 10,
+                RunScheduler.limits(1, 2, 2, 1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        scheduler.bindTo(registry);
+
+        scheduler.trySubmit(1L, RunType.FULL, null);
+        scheduler.trySubmit(2L, RunType.FULL, null);
+        scheduler.trySubmit(3L, RunType.REPROCESS, null);
+        scheduler.trySubmit(4L, RunType.APPLY_REVIEW, null);
+        scheduler.trySubmit(5L, RunType.REPROCESS, 30);
+
+        // Run 2 waits for the single FULL slot; run 3 takes the second pool slot.
+        assertEquals(2, executor.tasks.size());
+        assertEquals(3, scheduler.waitingCount());
+        assertEquals(2, scheduler.runningCount());
+        assertEquals(3, registry.get("crawler.run.scheduler.waiting").gauge().value());
+        assertEquals(2, registry.get("crawler.run.scheduler.running").gauge().value());
+
+        while (!executor.tasks.isEmpty()) {
+            executor.runOldest();
+        }
+        assertEquals(List.of(1L, 3L, 5L, 4L, 2L), started);
+        assertEquals(0, scheduler.runningCount());
+    }
+
+    @Test
+    void rejectsNewRunsWhenQueueIsFull() {
+        RunScheduler scheduler = new RunScheduler((runId, cancellation) -> { }, new ManualExecutor(), 1, 1,
+                RunScheduler.limits(1, 1, 1, 1));
+
+        assertTrue(scheduler.trySubmit(1L, RunType.REPROCESS, null));
+        assertTrue(scheduler.trySubmit(2L, RunType.REPROCESS, null));
+        assertFalse(scheduler.trySubmit(3L, RunType.REPROCESS, null));
+        // Recovered runs were admitted before and bypass the capacity check.
+        assertTrue(scheduler.submit(3L, RunType.REPROCESS, null));
+        assertFalse(scheduler.submit(3L, RunType.REPROCESS, null));
+        assertEquals(2, scheduler.waitingCount());
+    }
+
+    @Test
+    void cancelDequeuesWaitingRunsAndSignalsRunningOnes() {
+        ManualExecutor executor = new ManualExecutor();
+        List<Long> started = new ArrayList<>();
+        List<Boolean> cancelledOnStart = new ArrayList<>();
+        RunScheduler scheduler = new RunScheduler((runId, cancellation) -> {
+            started.add(runId);
+            cancelledOnStart.add(cancellation.isCancelled());
+        }, executor, 1, 10, RunScheduler.limits(1, 1, 1, 1));
+
+        scheduler.trySubmit(1L, RunType.FULL, null);
+        scheduler.trySubmit(2L, RunType.FULL, null);
+        assertEquals(RunScheduler.CancelResult.DEQUEUED, scheduler.cancel(2L));
+        assertEquals(RunScheduler.CancelResult.NOT_FOUND, scheduler.cancel(99L));
+        assertEquals(RunScheduler.CancelResult.SIGNALLED, scheduler.cancel(1L));
+
+        executor.runOldest();
+        assertTrue(executor.tasks.isEmpty());
+        assertEquals(List.of(1L), started);
+        assertEquals(List.of(true), cancelledOnStart);
+        assertEquals(0, scheduler.waitingCount());
+    }
+
+    private static final class ManualExecutor implements Executor {
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runOldest() {
+            tasks.poll().run();
+        }
+    }
+}
@@ -27,6 +27,9 @@ class SearxngServiceTest {
         assertEquals("fi", SearxngService.detectLang(""));
         assertEquals("fi", SearxngService.detectLang("kesätyö opiskelija Uusimaa"));
         assertEquals("en", SearxngService.detectLang("summer job student Helsinki"));
+        assertEquals("sv", SearxngService.detectLang("site:duunitori.fi sommarjobb för studerande"));
+        assertEquals("fi", SearxngService.detectLang("site:jobs.example.com"));
+        assertEquals("fi", SearxngService.detectLang("SITE:jobs.example.com Site:careers.example.com"));
     }
 
     @Test
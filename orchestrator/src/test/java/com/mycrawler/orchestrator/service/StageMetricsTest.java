@@ -0,0 +1,39 @@
+package com.mycrawler.orchestrator.service;
+
+import com.mycrawler.orchestrator.db.RunType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageMetricsTest {
+
+    @Test
+    void timesStagesByOutcomeAndCountsFiles() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StageMetrics metrics = new RunMetrics(registry).stages(RunType.FULL);
+
+        assertEquals("ok", metrics.time(StageMetrics.Stage.PARSE, () -> "ok"));
+        assertThrows(IOException.class, () -> metrics.run(StageMetrics.Stage.PARSE, () -> {
+            throw new IOException("boom");
+        }));
+        metrics.countFile(ExtractionPipeline.Outcome.REUSED);
+        metrics.countFile(ExtractionPipeline.Outcome.REUSED);
+
+        assertEquals(1, registry.get(StageMetrics.STAGE_TIMER)
+                .tags("stage", "parse", "run_type", "FULL", "outcome", "success").timer().count());
+        assertEquals(1, registry.get(StageMetrics.STAGE_TIMER)
+                .tags("stage", "parse", "run_type", "FULL", "outcome", "failure").timer().count());
+        assertEquals(2.0, registry.get(StageMetrics.FILES_COUNTER)
+                .tags("run_type", "FULL", "outcome", "reused").counter().count());
+    }
+
+    @Test
+    void noopMetricsStillRunTheWork() throws Exception {
+        int[] calls = new int[1];
+        StageMetrics.NOOP.run(StageMetrics.Stage.EXPORT, () -> calls[0]++);
+        StageMetrics.NOOP.countFile(ExtractionPipeline.Outcome.FAILED);
+        assertEquals(1, calls[0]);
+    }
+}